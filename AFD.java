@@ -1,332 +1,265 @@
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Autómata Finito Determinista (AFD) para reconocer palabras reservadas.
- * Los demás tipos léxicos (Números, Cadenas, Identificadores) son
+ * La búsqueda de palabras reservadas la hace un ReconocedorPalabras elegido al
+ * construirlo (el autómata compilado o un hash perfecto; ver Motor). Los demás tipos léxicos (Números, Cadenas, Identificadores) son
  * clasificados usando funciones estáticas que simulan un AFD, reemplazando las RegEx.
+ * Es inmutable una vez construido, así que una misma instancia puede usarse
+ * desde varios hilos a la vez.
  */
 public class AFD {
-    private final Set<String> estados;
-    private final Set<Character> alfabeto;
-    private final Map<String, Map<Character, String>> transiciones;
-    private final String estadoInicial;
-    private final Set<String> estadosAceptacion;
-    
-    // Mapeo directo de Palabras Reservadas (PR) a sus Tipos
-    private static final Map<String, String> TIPO_POR_PR = Map.ofEntries(
-        // Estructuras de Datos
-        Map.entry("PILA", "PALABRA_RESERVADA"),
-        Map.entry("PILA_CIRCULAR", "PALABRA_RESERVADA"),
-        Map.entry("COLA", "PALABRA_RESERVADA"),
-        Map.entry("BICOLAS", "PALABRA_RESERVADA"),
-        Map.entry("LISTA_ENLAZADAS", "PALABRA_RESERVADA"),
-        Map.entry("LISTA_DOBLE_ENLAZADA", "PALABRA_RESERVADA"),
-        Map.entry("LISTA_CIRCULAR", "PALABRA_RESERVADA"),
-        Map.entry("ARBOL_BINARIO", "PALABRA_RESERVADA"),
-        Map.entry("TABLAS_HASH", "PALABRA_RESERVADA"),
-        Map.entry("GRAFOS", "PALABRA_RESERVADA"),
-        
-        // Acciones/Operaciones 
-        Map.entry("INSERTAR", "PALABRA_RESERVADA"),
-        Map.entry("INSERTAR_FINAL", "PALABRA_RESERVADA"),
-        Map.entry("INSERTAR_INICIO", "PALABRA_RESERVADA"),
-        Map.entry("INSERTAR_EN_POSICION", "PALABRA_RESERVADA"),
-        Map.entry("INSERTARIZQUIERDA", "PALABRA_RESERVADA"),
-        Map.entry("INSERTARDERECHA", "PALABRA_RESERVADA"),
-        Map.entry("AGREGARNODO", "PALABRA_RESERVADA"),
-        Map.entry("APILAR", "PALABRA_RESERVADA"),
-        Map.entry("ENCOLAR", "PALABRA_RESERVADA"),
-        Map.entry("PUSH", "PALABRA_RESERVADA"),
-        Map.entry("ENQUEUE", "PALABRA_RESERVADA"),
-
-        Map.entry("ELIMINAR", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINAR_INICIO", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINAR_FINAL", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINAR_FRENTE", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINAR_POSICION", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINARNODO", "PALABRA_RESERVADA"),
-        Map.entry("DESAPILAR", "PALABRA_RESERVADA"),
-        Map.entry("POP", "PALABRA_RESERVADA"),
-        Map.entry("DESENCOLAR", "PALABRA_RESERVADA"),
-        Map.entry("DEQUEUE", "PALABRA_RESERVADA"),
-
-        Map.entry("BUSCAR", "PALABRA_RESERVADA"),
-        Map.entry("TOPE", "PALABRA_RESERVADA"),
-        Map.entry("FRENTE", "PALABRA_RESERVADA"),
-        Map.entry("VERFILA", "PALABRA_RESERVADA"),
-        Map.entry("FRONT", "PALABRA_RESERVADA"),
-        Map.entry("CLAVE", "PALABRA_RESERVADA"),
-        
-        Map.entry("RECORRER", "PALABRA_RESERVADA"),
-        Map.entry("RECORRERADELANTE", "PALABRA_RESERVADA"),
-        Map.entry("RECORRERATRAS", "PALABRA_RESERVADA"),
-        Map.entry("PREORDEN", "PALABRA_RESERVADA"),
-        Map.entry("INORDEN", "PALABRA_RESERVADA"),
-        Map.entry("POSTORDEN", "PALABRA_RESERVADA"),
-        Map.entry("RECORRIDOPORNIVELES", "PALABRA_RESERVADA"),
-
-        // Misceláneas
-        Map.entry("ACTUALIZAR", "PALABRA_RESERVADA"),
-        Map.entry("REHASH", "PALABRA_RESERVADA"),
-        Map.entry("AGREGARARISTA", "PALABRA_RESERVADA"),
-        Map.entry("ELIMINARARISTA", "PALABRA_RESERVADA"),
-        Map.entry("VECINOS", "PALABRA_RESERVADA"),
-        Map.entry("BFS", "PALABRA_RESERVADA"),
-        Map.entry("DFS", "PALABRA_RESERVADA"),
-        Map.entry("CAMINOCORTO", "PALABRA_RESERVADA"),
-
-        // Propiedades/Verificación
-        Map.entry("VACIAT", "PALABRA_RESERVADA"),
-        Map.entry("LLENAT", "PALABRA_RESERVADA"),
-        Map.entry("TAMAÑO", "PALABRA_RESERVADA"),
-        Map.entry("ALTURA", "PALABRA_RESERVADA"),
-        Map.entry("HOJAS", "PALABRA_RESERVADA"),
-        Map.entry("NODOS", "PALABRA_RESERVADA"),
-        
-        // Palabras Auxiliares/Control
-        Map.entry("EN", "PALABRA_RESERVADA"),
-        Map.entry("CON", "PALABRA_RESERVADA"),
-        Map.entry("VALOR", "PALABRA_RESERVADA"),
-        Map.entry("IF", "PC_IF"),
-        Map.entry("ELSE", "PC_ELSE"),
-        Map.entry("MOSTRAR", "PALABRA_RESERVADA")
-    );
+    // Motor de palabras reservadas; es lo único que se usa al escanear
+    private final ReconocedorPalabras reconocedor;
+    // Resumen de las palabras reservadas y sus ids; cambia si cambia el vocabulario
+    private final long huella;
 
+    /**
+     * Motores de reconocimiento de palabras reservadas disponibles.
+     */
+    public enum Motor {
+        // Autómata compilado y minimizado, recorrido carácter por carácter
+        TRIE,
+        // Hash perfecto mínimo: longitud, hash y una sola comparación
+        HASH_PERFECTO
+    }
 
     public AFD(Set<String> estados,
                Set<Character> alfabeto,
                Map<String, Map<Character, String>> transiciones,
                String estadoInicial,
                Set<String> estadosAceptacion) {
-        this.estados = estados;
-        this.alfabeto = alfabeto;
-        this.transiciones = transiciones;
-        this.estadoInicial = estadoInicial;
-        this.estadosAceptacion = estadosAceptacion;
+        // Los mapas solo describen el autómata: se compilan a una tabla inmutable y se descartan,
+        // así el AFD puede compartirse entre hilos sin sincronización
+        this(estados, alfabeto, transiciones, estadoInicial, estadosAceptacion, PalabrasReservadas.TIPOS);
+    }
+
+    /**
+     * Igual que el constructor anterior, con el tipo de cada palabra reservada dado
+     * por tipoPorPalabra en lugar de PalabrasReservadas (para vocabularios cargados
+     * de un archivo, ver VocabularioDinamico).
+     */
+    public AFD(Set<String> estados,
+               Set<Character> alfabeto,
+               Map<String, Map<Character, String>> transiciones,
+               String estadoInicial,
+               Set<String> estadosAceptacion,
+               Map<String, TipoToken> tipoPorPalabra) {
+        this(TablaAFD.compilar(estados, alfabeto, transiciones, estadoInicial,
+                estadosAceptacion, tipoPorPalabra).minimizar());
+    }
+
+    private AFD(ReconocedorPalabras reconocedor) {
+        this.reconocedor = reconocedor;
+        this.huella = calcularHuella(reconocedor);
+    }
+
+    private static long calcularHuella(ReconocedorPalabras reconocedor) {
+        long h = 0xCBF29CE484222325L;
+        for (int id = 0; id < reconocedor.getNumPalabras(); id++) {
+            TipoToken tipo = reconocedor.getTipo(id);
+            h = (h ^ reconocedor.getPalabra(id).hashCode()) * 0x100000001B3L;
+            h = (h ^ (tipo == null ? -1 : tipo.ordinal())) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Huella del vocabulario del AFD (palabras, tipos e ids de estado). Dos AFD con la
+     * misma huella clasifican igual, así que sirve como versión en cachés de resultados.
+     */
+    public long getHuella() {
+        return huella;
+    }
+
+    /**
+     * Crea un AFD que reconoce las palabras reservadas con el motor dado.
+     */
+    public static AFD conReconocedor(ReconocedorPalabras reconocedor) {
+        return new AFD(reconocedor);
+    }
+
+    /**
+     * Crea un AFD a partir de un autómata ya compilado (ver guardar()), sin
+     * regenerar ni minimizar el autómata.
+     */
+    public static AFD cargar(Path archivo) throws IOException {
+        return new AFD(TablaAFD.cargar(archivo));
+    }
+
+    // Igual, pero rechaza un archivo compilado con otras palabras que las dadas
+    public static AFD cargar(Path archivo, Map<String, TipoToken> tipoPorPalabra) throws IOException {
+        return new AFD(TablaAFD.cargar(archivo, tipoPorPalabra));
+    }
+
+    // Guarda el autómata compilado para cargarlo después con AFD.cargar()
+    public void guardar(Path archivo) throws IOException {
+        if (!(reconocedor instanceof TablaAFD)) {
+            throw new UnsupportedOperationException("Solo se puede guardar un AFD con el motor TRIE");
+        }
+        ((TablaAFD) reconocedor).guardar(archivo);
     }
 
     /**
      * Procesa los lexemas tokenizados iniciales para determinar su tipo,
-     * implementando el escaneo carácter por carácter para PR/ID.
+     * buscando las palabras reservadas con el motor del AFD.
      */
     public Token[] aceptar(Token[] tokensTokensIniciales) {
+        MetricasLexer.EventoFase evento = MetricasLexer.iniciar();
         List<Token> resultados = new ArrayList<>();
 
         for (Token tk : tokensTokensIniciales) {
-            String lexema = tk.getLexema();
-            String lexemaUpper = lexema.toUpperCase();
-            int linea = tk.getLinea();
-            
-            // --- 1. CLASIFICACIÓN AUXILIAR RÁPIDA (Operadores/Delimitadores, Números, Cadenas) ---
-            
-            String tipoAuxiliar = determinarTipoLexema(lexema);
-
-            // Si es un tipo clasificado por la lógica auxiliar, lo añadimos y pasamos al siguiente token.
-            if (!tipoAuxiliar.startsWith("ERROR") && !tipoAuxiliar.equals("IDENTIFICADOR")) {
-                resultados.add(new Token(lexema, linea, tipoAuxiliar, "N/A", true));
-                continue;
-            }
-            
-            // --- 2. ESCANEO DETALLADO CON EL AFD (Palabras Reservadas/Identificadores) ---
-            
-            String estadoActual = estadoInicial;
-            String ultimoEstadoAceptado = null;
-            int ultimoCaracterAceptado = -1; 
-            
-            boolean esPR = true;
-            for (int j = 0; j < lexemaUpper.length(); j++) {
-                char simbolo = lexemaUpper.charAt(j);
-                
-                Map<Character, String> transicionesEstado = transiciones.get(estadoActual);
-                
-                if (transicionesEstado != null && transicionesEstado.containsKey(simbolo)) {
-                    // Transición exitosa
-                    estadoActual = transicionesEstado.get(simbolo);
-                    
-                    // Si el nuevo estado es de aceptación, registramos la posición y el estado
-                    if (estadosAceptacion.contains(estadoActual)) {
-                        ultimoEstadoAceptado = estadoActual;
-                        ultimoCaracterAceptado = j;
-                    }
-                } else {
-                    // DETECCIÓN DE INCONSISTENCIA: No hay camino para el símbolo actual (j)
-                    esPR = false;
-                    break;
-                }
-            }
-            
-            // --- 3. CLASIFICACIÓN FINAL Y RECUPERACIÓN ---
-
-            String tipoFinalAuxiliar = determinarTipoLexema(lexema);
-            String tipoFinal = TIPO_POR_PR.getOrDefault(lexemaUpper, tipoFinalAuxiliar);
-
-            String estadoReporte = "N/A";
-            boolean reconocido = true;
-
-            if (esPR && estadosAceptacion.contains(estadoActual)) {
-                // Caso 1: Lexema consumido completamente y aceptado por el AFD.
-                estadoReporte = estadoActual;
-                
-            } else if (tipoFinalAuxiliar.equals("IDENTIFICADOR")) {
-                // Caso 2: El lexema es un ID estructuralmente válido (Incluye PRs largas que fallaron el Caso 1).
-                
-                // Si la clasificación final es PALABRA_RESERVADA (por TIPO_POR_PR),
-                // usamos el lexema Upper como estado final para el reporte.
-                if (tipoFinal.equals("PALABRA_RESERVADA") || tipoFinal.equals("PC_IF") || tipoFinal.equals("PC_ELSE")) {
-                    estadoReporte = lexemaUpper;
-                } else {
-                    estadoReporte = "N/A"; // ID genérico
-                }
-                
-            } else if (ultimoEstadoAceptado != null && ultimoCaracterAceptado < lexemaUpper.length() - 1) {
-                // Caso 3: Falló en un carácter intermedio/final (Error con prefijo PR).
-                
-                String lexemaValido = lexema.substring(0, ultimoCaracterAceptado + 1);
-                String lexemaRestante = lexema.substring(ultimoCaracterAceptado + 1);
-                
-                // 1. Clasificar la parte válida (la subcadena más larga)
-                String tipoPR = TIPO_POR_PR.getOrDefault(lexemaValido.toUpperCase(), "IDENTIFICADOR");
-                resultados.add(new Token(lexemaValido, linea, tipoPR, ultimoEstadoAceptado, true));
-                
-                // 2. Clasificar la parte restante como ERROR LÉXICO
-                String tipoError = determinarTipoLexema(lexemaRestante);
-                resultados.add(new Token(lexemaRestante, linea, tipoError, "N/A", false));
-                
-                continue; 
-                
-            } else {
-                // Caso 4: Error Léxico simple (ej. '$', '234Inválido', 'ERROR_CADENA_INCOMPLETA')
-                tipoFinal = tipoFinalAuxiliar;
-                reconocido = false;
-                
-                // Si fue un error simple, lo añadimos y continuamos.
-                resultados.add(new Token(lexema, linea, tipoFinal, "N/A", reconocido));
-                continue; 
-            }
-
-            // Añadir el token final clasificado (solo para Casos 1 y 2)
-            resultados.add(new Token(lexema, linea, tipoFinal, estadoReporte, reconocido));
+            aceptar(tk.getLexema(), tk.getLinea(), resultados::add);
         }
 
-        return resultados.toArray(new Token[0]);
+        Token[] clasificados = resultados.toArray(new Token[0]);
+        MetricasLexer.terminarClasificacion(evento, tokensTokensIniciales.length, clasificados);
+        return clasificados;
     }
 
-    // -------------------------------------------------------------------
-    // --- LÓGICA AFD SIMULADA PARA TIPOS BÁSICOS (Implementada con AFD) ---
-    // -------------------------------------------------------------------
+    /**
+     * Clasifica un solo lexema y entrega el resultado a la salida.
+     * Normalmente produce un token; en el Caso 3 (prefijo PR seguido de un error)
+     * produce dos. Permite clasificar en flujo sin armar un arreglo de tokens.
+     */
+    public void aceptar(String lexema, int linea, Consumer<Token> resultados) {
+        clasificar(lexema, 0, lexema.length(), linea,
+                (inicio, fin, lineaToken, tipo, estado, reconocido) -> resultados.accept(new Token(
+                        lexema.substring(inicio, fin), lineaToken, tipo, getNombreEstado(estado), reconocido)));
+    }
 
     /**
-     * Implementa un AFD simulado para reconocer números enteros con signo (^([+-]?)\d+$).
+     * Recibe cada token clasificado como un rango [inicio, fin) de la fuente, sin
+     * copiar el lexema. estado identifica el estado final del AFD (el id de la palabra
+     * reservada reconocida) o es ESTADO_NINGUNO.
      */
-    private static boolean esEnteroConSigno(String lexema) {
-        if (lexema == null || lexema.isEmpty()) return false;
-        
-        // Q0: Inicial, Q1: Después de signo, Q2: Aceptación (después de dígito)
-        String estadoActual = "Q0";
-        
-        for (char c : lexema.toCharArray()) {
-            switch (estadoActual) {
-                case "Q0":
-                    if (c == '+' || c == '-') {
-                        estadoActual = "Q1";
-                    } else if (Character.isDigit(c)) {
-                        estadoActual = "Q2";
-                    } else {
-                        return false; 
-                    }
-                    break;
-                    
-                case "Q1":
-                    if (Character.isDigit(c)) {
-                        estadoActual = "Q2";
-                    } else {
-                        return false; 
-                    }
-                    break;
-                    
-                case "Q2":
-                    if (!Character.isDigit(c)) {
-                        return false; 
-                    }
-                    // Si es dígito, permanece en Q2
-                    break;
-            }
-        }
-        
-        // Solo es aceptado si terminó en el estado de aceptación (Q2)
-        return estadoActual.equals("Q2");
+    @FunctionalInterface
+    public interface ReceptorClasificado {
+        void token(int inicio, int fin, int linea, TipoToken tipo, int estado, boolean reconocido);
     }
 
+    // Id de estado usado cuando el token no tiene estado final ("N/A")
+    public static final int ESTADO_NINGUNO = -1;
+
     /**
-     * Implementa un AFD simulado para reconocer literales de cadena ("[^"]*").
+     * Nombre del estado final para el reporte, o "N/A" para ESTADO_NINGUNO.
      */
-    private static boolean esLiteralCadena(String lexema) {
-        if (lexema == null || lexema.isEmpty()) return false;
-        
-        // Q0: Inicial, Q1: Dentro de la cadena, Q2: Aceptación (después de la comilla final)
-        String estadoActual = "Q0";
-
-        for (char c : lexema.toCharArray()) {
-            switch (estadoActual) {
-                case "Q0":
-                    if (c == '"') {
-                        estadoActual = "Q1"; // Inicia la cadena
-                    } else {
-                        return false; // No empieza con comilla
-                    }
-                    break;
-                case "Q1":
-                    if (c == '"') {
-                        estadoActual = "Q2"; // Cierra la cadena
-                    } else {
-                        // Permanece en Q1 (contenido de la cadena)
-                    }
-                    break;
-                case "Q2":
-                    return false; // Carácter extra después de la comilla de cierre
-            }
-        }
-        
-        // Solo es aceptado si terminó en el estado de aceptación (Q2)
-        return estadoActual.equals("Q2");
+    public String getNombreEstado(int estado) {
+        return estado == ESTADO_NINGUNO ? "N/A" : reconocedor.getPalabra(estado);
+    }
+
+    // Los estados finales válidos son 0..getNumEstadosFinales()-1 (y ESTADO_NINGUNO)
+    public int getNumEstadosFinales() {
+        return reconocedor.getNumPalabras();
     }
 
     /**
-     * Implementa un AFD simulado para reconocer identificadores.
-     * Patrón: [A-Za-z_][A-Za-z0-9_]*
+     * Clasifica el lexema fuente[inicio, fin) sin crear cadenas intermedias.
      */
-    private static boolean esIdentificador(String lexema) {
-        if (lexema == null || lexema.isEmpty()) return false;
-
-        // Q0: Inicial, Q1: Aceptación (después de leer el primer carácter válido)
-        String estadoActual = "Q0";
-
-        for (char c : lexema.toCharArray()) {
-            switch (estadoActual) {
-                case "Q0":
-                    // El primer carácter debe ser letra o guion bajo
-                    if (Character.isLetter(c) || c == '_') {
-                        estadoActual = "Q1"; // Pasa al estado de aceptación
-                    } else {
-                        return false; // Inválido
-                    }
-                    break;
-                case "Q1":
-                    // Los caracteres siguientes pueden ser letras, dígitos o guion bajo
-                    if (Character.isLetterOrDigit(c) || c == '_') {
-                        // Permanece en Q1
-                    } else {
-                        return false; // Carácter inválido para identificador
-                    }
-                    break;
+    public void clasificar(CharSequence fuente, int inicio, int fin, int linea, ReceptorClasificado resultados) {
+        // --- 1. CLASIFICACIÓN AUXILIAR RÁPIDA (Operadores/Delimitadores, Números, Cadenas) ---
+        
+        // El lexema se inspecciona una sola vez; el resultado sirve también para el paso 3.
+        TipoToken tipoAuxiliar = clasificarLexema(fuente, inicio, fin);
+
+        // Si es un tipo clasificado por la lógica auxiliar, lo añadimos y pasamos al siguiente token.
+        if (!tipoAuxiliar.esError() && tipoAuxiliar != TipoToken.IDENTIFICADOR) {
+            resultados.token(inicio, fin, linea, tipoAuxiliar, ESTADO_NINGUNO, true);
+            return;
+        }
+        
+        // --- 2. PALABRAS RESERVADAS (Identificadores estructuralmente válidos) ---
+
+        if (tipoAuxiliar == TipoToken.IDENTIFICADOR) {
+            int palabra = reconocedor.reconocer(fuente, inicio, fin);
+            if (palabra != ReconocedorPalabras.NINGUNA) {
+                // Caso 1: El lexema completo es una palabra reservada.
+                TipoToken tipoPR = reconocedor.getTipo(palabra);
+                resultados.token(inicio, fin, linea, tipoPR != null ? tipoPR : TipoToken.IDENTIFICADOR,
+                        palabra, true);
+            } else {
+                // Caso 2: ID genérico.
+                resultados.token(inicio, fin, linea, TipoToken.IDENTIFICADOR, ESTADO_NINGUNO, true);
             }
+            return;
+        }
+
+        // --- 3. RECUPERACIÓN DE ERRORES ---
+
+        int corte = reconocedor.prefijoReservado(fuente, inicio, fin);
+        if (corte != ReconocedorPalabras.NINGUNA) {
+            // Caso 3: Falló en un carácter intermedio/final (Error con prefijo PR).
+
+            // 1. Clasificar la parte válida (la subcadena más larga)
+            int palabra = reconocedor.reconocer(fuente, inicio, corte);
+            TipoToken tipoPR = reconocedor.getTipo(palabra) != null
+                    ? reconocedor.getTipo(palabra) : TipoToken.IDENTIFICADOR;
+            resultados.token(inicio, corte, linea, tipoPR, palabra, true);
+
+            // 2. Clasificar la parte restante como ERROR LÉXICO
+            TipoToken tipoError = clasificarLexema(fuente, corte, fin);
+            resultados.token(corte, fin, linea, tipoError, ESTADO_NINGUNO, false);
+        } else {
+            // Caso 4: Error Léxico simple (ej. '$', '234Inválido', 'ERROR_CADENA_INCOMPLETA')
+            resultados.token(inicio, fin, linea, tipoAuxiliar, ESTADO_NINGUNO, false);
         }
+    }
+
+    // -------------------------------------------------------------------
+    // --- CLASIFICADOR DE TIPOS BÁSICOS (una sola pasada, por tabla) ---
+    // -------------------------------------------------------------------
+
+    // Clases de carácter para el clasificador
+    private static final byte OTRO = 0;
+    private static final byte DIGITO = 1;
+    private static final byte LETRA = 2;     // letras y guion bajo
+    private static final byte SIGNO = 3;     // + y -
+    private static final byte COMILLA = 4;
+
+    private static final byte[] CLASE_ASCII = new byte[128];
 
-        // Es aceptado si terminó en el estado Q1 (al menos un carácter válido)
-        return estadoActual.equals("Q1");
+    // Tipo de los símbolos de un carácter (null si el carácter no es un símbolo del DSL)
+    private static final TipoToken[] TIPO_SIMBOLO = new TipoToken[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) CLASE_ASCII[c] = DIGITO;
+        for (char c = 'A'; c <= 'Z'; c++) CLASE_ASCII[c] = LETRA;
+        for (char c = 'a'; c <= 'z'; c++) CLASE_ASCII[c] = LETRA;
+        CLASE_ASCII['_'] = LETRA;
+        CLASE_ASCII['+'] = SIGNO;
+        CLASE_ASCII['-'] = SIGNO;
+        CLASE_ASCII['"'] = COMILLA;
+
+        TIPO_SIMBOLO[';'] = TipoToken.DELIMITADOR;
+        TIPO_SIMBOLO['('] = TipoToken.PARENTESIS_IZQ;
+        TIPO_SIMBOLO[')'] = TipoToken.PARENTESIS_DER;
+        TIPO_SIMBOLO['['] = TipoToken.CORCHETE_IZQ;
+        TIPO_SIMBOLO[']'] = TipoToken.CORCHETE_DER;
+        TIPO_SIMBOLO[','] = TipoToken.COMA;
+        TIPO_SIMBOLO['='] = TipoToken.ASIGNACION;
+        TIPO_SIMBOLO['+'] = TipoToken.OP_SUMA;
+        TIPO_SIMBOLO['-'] = TipoToken.OP_RESTA;
+        TIPO_SIMBOLO['*'] = TipoToken.OP_MULTIPLICACION;
+        TIPO_SIMBOLO['/'] = TipoToken.OP_DIVISION;
+        TIPO_SIMBOLO['<'] = TipoToken.OP_MENOR_QUE;
+        TIPO_SIMBOLO['>'] = TipoToken.OP_MAYOR_QUE;
+        TIPO_SIMBOLO['{'] = TipoToken.LLAVE_IZQ;
+        TIPO_SIMBOLO['}'] = TipoToken.LLAVE_DER;
+        TIPO_SIMBOLO['.'] = TipoToken.OP_PUNTO;
+    }
+
+    // Fuera de ASCII se conserva el criterio de Character.isDigit / isLetter
+    private static byte claseDe(char c) {
+        if (c < 128) return CLASE_ASCII[c];
+        if (Character.isDigit(c)) return DIGITO;
+        if (Character.isLetter(c)) return LETRA;
+        return OTRO;
     }
 
     /**
@@ -334,63 +267,82 @@ public class AFD {
      * Añade la distinción entre los distintos tipos de ERROR_LEXICO.
      */
     public static String determinarTipoLexema(String lexema) {
-        // 1. Delimitadores y Símbolos Simples y Compuestos (Switch)
-        switch (lexema) {
-            case ";": return "DELIMITADOR";
-            case "(": return "PARENTESIS_IZQ";
-            case ")": return "PARENTESIS_DER";
-            case "[": return "CORCHETE_IZQ";
-            case "]": return "CORCHETE_DER";
-            case ",": return "COMA";
-            case "=": return "ASIGNACION";
-            case "+": return "OP_SUMA";
-            case "-": return "OP_RESTA";
-            case "*": return "OP_MULTIPLICACION";
-            case "/": return "OP_DIVISION";
-            case "<": return "OP_MENOR_QUE";
-            case ">": return "OP_MAYOR_QUE";
-            case "==": return "OP_IGUAL";
-            case "!=": return "OP_DIFERENTE";
-            case "<=": return "OP_MENOR_IGUAL";
-            case ">=": return "OP_MAYOR_IGUAL";
-            case "{": return "LLAVE_IZQ";
-            case "}": return "LLAVE_DER";
-            case "if": return "PC_IF";
-            case "else": return "PC_ELSE";
-            case "&&": return "OP_LOGICO";
-            case "||": return "OP_LOGICO";
-            case ".": return "OP_PUNTO"; 
-        }
+        return clasificarLexema(lexema, 0, lexema.length()).getEtiqueta();
+    }
 
-        // 2. Literales Numéricos (SOLO ENTEROS) - Implementado con AFD simulado
-        if (esEnteroConSigno(lexema)) {
-            return "LITERAL_NUMERICA";
-        }
-        
-        // 3. Literales de Cadena - Implementado con AFD simulado
-        if (esLiteralCadena(lexema)) {
-            return "LITERAL_CADENA";
-        }
+    /**
+     * Clasifica el lexema fuente[inicio, fin) recorriéndolo una sola vez, sin copiarlo.
+     * Reconoce símbolos y operadores, enteros con signo ([+-]?[0-9]+), literales de
+     * cadena ("[^"]*"), identificadores ([A-Za-z_][A-Za-z0-9_]*) y los tres tipos de
+     * error léxico.
+     */
+    public static TipoToken clasificarLexema(CharSequence fuente, int inicio, int fin) {
+        int largo = fin - inicio;
+        if (largo <= 0) return TipoToken.ERROR_TOKEN_MALFORMADO;
 
-        // 4. Identificador - Implementado con AFD simulado
-        if (esIdentificador(lexema)) {
-            return "IDENTIFICADOR";
-        }
-        
-        // --- MANEJO DE ERRORES ESPECÍFICOS ---
-        
-        // ERROR A: Cadena incompleta
-        // Si el lexema comienza con " pero falló la validación completa (es decir, no terminó en Q2)
-        if (lexema.startsWith("\"") && !esLiteralCadena(lexema)) {
-            return "ERROR_CADENA_INCOMPLETA";
+        char primero = fuente.charAt(inicio);
+
+        // 1. Delimitadores, Símbolos Simples y Compuestos y palabras de control en minúscula
+        if (largo == 1) {
+            if (primero < 128 && TIPO_SIMBOLO[primero] != null) return TIPO_SIMBOLO[primero];
+        } else if (largo == 2) {
+            char segundo = fuente.charAt(inicio + 1);
+            if (segundo == '=') {
+                switch (primero) {
+                    case '=': return TipoToken.OP_IGUAL;
+                    case '!': return TipoToken.OP_DIFERENTE;
+                    case '<': return TipoToken.OP_MENOR_IGUAL;
+                    case '>': return TipoToken.OP_MAYOR_IGUAL;
+                }
+            }
+            if ((primero == '&' && segundo == '&') || (primero == '|' && segundo == '|')) return TipoToken.OP_LOGICO;
+            if (primero == 'i' && segundo == 'f') return TipoToken.PC_IF;
+        } else if (largo == 4 && primero == 'e' && fuente.charAt(inicio + 1) == 'l'
+                && fuente.charAt(inicio + 2) == 's' && fuente.charAt(inicio + 3) == 'e') {
+            return TipoToken.PC_ELSE;
         }
-        
-        // ERROR B: Símbolo inválido (token de longitud 1 que no fue reconocido en el switch)
-        if (lexema.length() == 1) {
-            return "ERROR_SIMBOLO_INVALIDO";
+
+        // 2. El primer carácter decide qué forma puede tener el resto
+        switch (claseDe(primero)) {
+            case DIGITO:
+                // Literal numérica: solo dígitos
+                return restoEs(fuente, inicio + 1, fin, DIGITO)
+                        ? TipoToken.LITERAL_NUMERICA : TipoToken.ERROR_TOKEN_MALFORMADO;
+
+            case SIGNO:
+                // Signo seguido de al menos un dígito (el signo solo ya se resolvió arriba)
+                return restoEs(fuente, inicio + 1, fin, DIGITO)
+                        ? TipoToken.LITERAL_NUMERICA : TipoToken.ERROR_TOKEN_MALFORMADO;
+
+            case LETRA:
+                // Identificador: letras, dígitos o guion bajo
+                for (int i = inicio + 1; i < fin; i++) {
+                    byte clase = claseDe(fuente.charAt(i));
+                    if (clase != LETRA && clase != DIGITO) return TipoToken.ERROR_TOKEN_MALFORMADO;
+                }
+                return TipoToken.IDENTIFICADOR;
+
+            case COMILLA:
+                // Cadena: la única otra comilla debe ser el último carácter
+                for (int i = inicio + 1; i < fin; i++) {
+                    if (fuente.charAt(i) == '"') {
+                        return i == fin - 1 ? TipoToken.LITERAL_CADENA : TipoToken.ERROR_CADENA_INCOMPLETA;
+                    }
+                }
+                return TipoToken.ERROR_CADENA_INCOMPLETA;
+
+            default:
+                // --- MANEJO DE ERRORES ESPECÍFICOS ---
+                // Símbolo inválido (un carácter no reconocido) o token malformado
+                return largo == 1 ? TipoToken.ERROR_SIMBOLO_INVALIDO : TipoToken.ERROR_TOKEN_MALFORMADO;
         }
+    }
 
-        // ERROR C: Token malformado (ej. 234Inválido, secuencia inválida larga)
-        return "ERROR_TOKEN_MALFORMADO";
+    // Verifica que todos los caracteres de [inicio, fin) sean de la clase dada
+    private static boolean restoEs(CharSequence fuente, int inicio, int fin, byte clase) {
+        for (int i = inicio; i < fin; i++) {
+            if (claseDe(fuente.charAt(i)) != clase) return false;
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,320 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Analizador sintáctico en flujo de las sentencias del DSL. Recibe los tokens uno
+ * a uno como una SalidaTokens (directamente del lexer con SalidaTokens.analizar,
+ * de un LexerFlujo o de un Token[]) y va agregando comandos a un ProgramaDSL, así
+ * que el análisis sintáctico avanza junto con el léxico, sin armar el arreglo de
+ * tokens. Es una máquina de estados: no necesita ver más de un token por delante.
+ *
+ * Gramática:
+ *   sentencia := OPERACION operando* [EN ESTRUCTURA] ';'
+ *              | if '(' ESTRUCTURA '.' PROPIEDAD ')' '{' sentencia* '}' [else '{' sentencia* '}']
+ *   operando  := número | cadena | identificador   (CON, VALOR y ',' entre operandos se ignoran)
+ * '#' comenta el resto de la línea. Ante un error se registra el mensaje en el
+ * programa y se descarta la sentencia hasta el siguiente ';' o '}'.
+ */
+public class AnalizadorSentencias implements SalidaTokens {
+    // Estados de la máquina
+    private static final int SENTENCIA = 0;        // al inicio de una sentencia
+    private static final int OPERANDOS = 1;        // después de la operación
+    private static final int ESTRUCTURA = 2;       // después de EN
+    private static final int FIN = 3;              // después de la estructura, falta ';'
+    private static final int SI_PARENTESIS = 4;    // if, falta '('
+    private static final int SI_ESTRUCTURA = 5;    // if (, falta la estructura
+    private static final int SI_PUNTO = 6;         // if (X, falta '.'
+    private static final int SI_PROPIEDAD = 7;     // if (X., falta la propiedad
+    private static final int SI_CIERRE = 8;        // if (X.P, falta ')'
+    private static final int LLAVE = 9;            // falta el '{' de un bloque
+    private static final int TRAS_SI = 10;         // después del '}' del if: puede venir else
+    private static final int RECUPERACION = 11;    // descartando hasta ';' o '}'
+
+    // Tipos de bloque abierto
+    private static final byte BLOQUE_SI = 0;
+    private static final byte BLOQUE_SINO = 1;
+
+    private final ProgramaDSL programa;
+    private int estado = SENTENCIA;
+
+    // Sentencia en curso
+    private Operacion operacion;
+    private int estructura;
+    private int lineaSentencia;
+    private int propiedad;
+    private boolean negativo;   // '-' antes de un número (el pre-tokenizador lo separa)
+    private byte bloquePendiente;
+
+    // Bloques abiertos
+    private byte[] bloques = new byte[8];
+    private int profundidad = 0;
+
+    // Línea con un comentario '#' (sus tokens restantes se ignoran)
+    private int lineaComentario = -1;
+
+    public AnalizadorSentencias(ProgramaDSL programa) {
+        this.programa = programa;
+    }
+
+    /**
+     * Analiza léxica y sintácticamente la fuente en una sola pasada.
+     */
+    public static ProgramaDSL analizar(CharSequence fuente, AFD afd) {
+        ProgramaDSL programa = new ProgramaDSL();
+        try (AnalizadorSentencias analizador = new AnalizadorSentencias(programa)) {
+            SalidaTokens.analizar(fuente, afd, analizador);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // el analizador no hace E/S
+        }
+        return programa;
+    }
+
+    /**
+     * Igual que analizar(fuente, afd), leyendo el script por partes con LexerFlujo:
+     * los comandos aparecen antes de terminar de leer la entrada.
+     */
+    public static ProgramaDSL analizar(Reader lector, AFD afd) throws IOException {
+        ProgramaDSL programa = new ProgramaDSL();
+        try (AnalizadorSentencias analizador = new AnalizadorSentencias(programa)) {
+            LexerFlujo.procesar(lector, afd, tk -> analizador.token(tk.getLexema(), 0, tk.getLexema().length(),
+                    tk.getLinea(), tk.getTipo(), tk.getEstadoFinal(), tk.existeSimbolo()));
+        }
+        return programa;
+    }
+
+    public ProgramaDSL getPrograma() {
+        return programa;
+    }
+
+    @Override
+    public void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                      boolean reconocido) {
+        if (linea == lineaComentario) return;
+        if (tipo == TipoToken.ERROR_SIMBOLO_INVALIDO && fuente.charAt(inicio) == '#') {
+            lineaComentario = linea;
+            return;
+        }
+
+        switch (estado) {
+            case SENTENCIA -> inicioSentencia(fuente, inicio, fin, linea, tipo, estadoFinal);
+            case OPERANDOS -> operando(fuente, inicio, fin, linea, tipo, estadoFinal);
+            case ESTRUCTURA -> {
+                estructura = codigoEstructura(tipo, estadoFinal);
+                if (estructura == ProgramaDSL.SIN_ESTRUCTURA) {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba una estructura después de EN");
+                } else {
+                    estado = FIN;
+                }
+            }
+            case FIN -> {
+                if (tipo == TipoToken.DELIMITADOR) {
+                    confirmar();
+                } else {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "falta ';'");
+                }
+            }
+            case SI_PARENTESIS -> esperar(tipo == TipoToken.PARENTESIS_IZQ, SI_ESTRUCTURA,
+                    fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba '(' después de if");
+            case SI_ESTRUCTURA -> {
+                estructura = codigoEstructura(tipo, estadoFinal);
+                esperar(estructura != ProgramaDSL.SIN_ESTRUCTURA, SI_PUNTO,
+                        fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba una estructura en la condición");
+            }
+            case SI_PUNTO -> esperar(tipo == TipoToken.OP_PUNTO, SI_PROPIEDAD,
+                    fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba '.' en la condición");
+            case SI_PROPIEDAD -> {
+                Operacion op = tipo == TipoToken.PALABRA_RESERVADA ? Operacion.desdePalabra(estadoFinal) : null;
+                propiedad = op == null ? -1 : op.ordinal();
+                esperar(op != null && op.esPropiedad(), SI_CIERRE,
+                        fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba una propiedad (VACIAT, LLENAT, ...)");
+            }
+            case SI_CIERRE -> {
+                bloquePendiente = BLOQUE_SI;
+                esperar(tipo == TipoToken.PARENTESIS_DER, LLAVE,
+                        fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba ')' al cerrar la condición");
+            }
+            case LLAVE -> {
+                if (tipo == TipoToken.LLAVE_IZQ) {
+                    abrirBloque();
+                } else {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba '{'");
+                }
+            }
+            case TRAS_SI -> {
+                if (tipo == TipoToken.PC_ELSE) {
+                    programa.agregarComando(Operacion.SINO, ProgramaDSL.SIN_ESTRUCTURA, linea);
+                    bloquePendiente = BLOQUE_SINO;
+                    estado = LLAVE;
+                } else {
+                    programa.agregarComando(Operacion.FIN_SI, ProgramaDSL.SIN_ESTRUCTURA, lineaSentencia);
+                    estado = SENTENCIA;
+                    token(fuente, inicio, fin, linea, tipo, estadoFinal, reconocido);
+                }
+            }
+            default -> recuperar(fuente, inicio, fin, linea, tipo, estadoFinal);
+        }
+    }
+
+    private void inicioSentencia(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo,
+                                 String estadoFinal) {
+        lineaSentencia = linea;
+        estructura = ProgramaDSL.SIN_ESTRUCTURA;
+        switch (tipo) {
+            case PC_IF -> estado = SI_PARENTESIS;
+            case LLAVE_DER -> cerrarBloque(linea);
+            case DELIMITADOR -> {
+                // Sentencia vacía
+            }
+            case PALABRA_RESERVADA -> {
+                operacion = Operacion.desdePalabra(estadoFinal);
+                if (operacion != null) {
+                    estado = OPERANDOS;
+                } else if (Estructura.desdePalabra(estadoFinal) != null) {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba una operación antes de la estructura");
+                } else {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "la palabra no inicia una sentencia");
+                }
+            }
+            default -> error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba una operación");
+        }
+    }
+
+    private void operando(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal) {
+        if (negativo && tipo != TipoToken.LITERAL_NUMERICA) {
+            error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba un número después de '-'");
+            return;
+        }
+        switch (tipo) {
+            case OP_RESTA -> negativo = true;
+            case LITERAL_NUMERICA -> {
+                long valor = 0;
+                int i = inicio;
+                boolean menos = negativo ^ fuente.charAt(i) == '-';
+                negativo = false;
+                if (fuente.charAt(i) == '-' || fuente.charAt(i) == '+') i++;
+                // El léxico acepta dígitos de cualquier alfabeto (Character.isDigit): se
+                // toma su valor decimal, no la distancia a '0'
+                for (; i < fin && valor <= Integer.MAX_VALUE + 1L; i++) valor = valor * 10 + Character.digit(fuente.charAt(i), 10);
+                if (menos) valor = -valor;
+                if (valor < Integer.MIN_VALUE || valor > Integer.MAX_VALUE) {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "número fuera del rango de un entero");
+                } else {
+                    programa.agregarOperando(ProgramaDSL.NUMERO, (int) valor);
+                }
+            }
+            case LITERAL_CADENA -> programa.agregarOperando(ProgramaDSL.CADENA,
+                    programa.internar(fuente, inicio + 1, fin - 1, linea, tipo));
+            case IDENTIFICADOR -> programa.agregarOperando(ProgramaDSL.NOMBRE,
+                    programa.internar(fuente, inicio, fin, linea, tipo));
+            case COMA -> {
+                // Separador opcional entre operandos
+            }
+            case DELIMITADOR -> confirmar();
+            case PALABRA_RESERVADA -> {
+                if ("EN".equals(estadoFinal)) {
+                    estado = ESTRUCTURA;
+                } else if (!"CON".equals(estadoFinal) && !"VALOR".equals(estadoFinal)) {
+                    error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba un operando, EN o ';'");
+                }
+            }
+            default -> error(fuente, inicio, fin, linea, tipo, estadoFinal, "se esperaba un operando, EN o ';'");
+        }
+    }
+
+    private static int codigoEstructura(TipoToken tipo, String estadoFinal) {
+        Estructura e = tipo == TipoToken.PALABRA_RESERVADA ? Estructura.desdePalabra(estadoFinal) : null;
+        return e == null ? ProgramaDSL.SIN_ESTRUCTURA : e.ordinal();
+    }
+
+    private void esperar(boolean correcto, int siguiente, CharSequence fuente, int inicio, int fin, int linea,
+                         TipoToken tipo, String estadoFinal, String mensaje) {
+        if (correcto) {
+            estado = siguiente;
+        } else {
+            error(fuente, inicio, fin, linea, tipo, estadoFinal, mensaje);
+        }
+    }
+
+    private void confirmar() {
+        programa.agregarComando(operacion, estructura, lineaSentencia);
+        estado = SENTENCIA;
+    }
+
+    private void abrirBloque() {
+        if (bloquePendiente == BLOQUE_SI) {
+            programa.agregarOperando(ProgramaDSL.PROPIEDAD, propiedad);
+            programa.agregarComando(Operacion.SI, estructura, lineaSentencia);
+        }
+        if (profundidad == bloques.length) bloques = Arrays.copyOf(bloques, profundidad * 2);
+        bloques[profundidad++] = bloquePendiente;
+        estado = SENTENCIA;
+    }
+
+    private void cerrarBloque(int linea) {
+        if (profundidad == 0) {
+            programa.agregarError(linea, "'}' sin un bloque abierto");
+            return;
+        }
+        if (bloques[--profundidad] == BLOQUE_SI) {
+            lineaSentencia = linea;
+            estado = TRAS_SI;
+        } else {
+            programa.agregarComando(Operacion.FIN_SI, ProgramaDSL.SIN_ESTRUCTURA, linea);
+        }
+    }
+
+    // Registra el error, descarta la sentencia en curso y se recupera en ';', '}' o
+    // en el inicio de la sentencia siguiente (típicamente, cuando falta un ';')
+    private void error(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                       String mensaje) {
+        programa.descartarOperandos();
+        negativo = false;
+        programa.agregarError(linea, mensaje + " (se encontró '" + fuente.subSequence(inicio, fin) + "')");
+        cerrarSinoPendiente(linea);
+        estado = RECUPERACION;
+        recuperar(fuente, inicio, fin, linea, tipo, estadoFinal);
+    }
+
+    private void recuperar(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal) {
+        if (tipo == TipoToken.DELIMITADOR) {
+            estado = SENTENCIA;
+        } else if (tipo == TipoToken.LLAVE_DER) {
+            estado = SENTENCIA;
+            cerrarBloque(linea);
+        } else if (tipo == TipoToken.PC_IF
+                || (tipo == TipoToken.PALABRA_RESERVADA && Operacion.desdePalabra(estadoFinal) != null)) {
+            estado = SENTENCIA;
+            inicioSentencia(fuente, inicio, fin, linea, tipo, estadoFinal);
+        }
+    }
+
+    // Un else sin su '{' ya emitió SINO: se cierra el if para que quede balanceado
+    private void cerrarSinoPendiente(int linea) {
+        if (estado == LLAVE && bloquePendiente == BLOQUE_SINO) {
+            programa.agregarComando(Operacion.FIN_SI, ProgramaDSL.SIN_ESTRUCTURA, linea);
+        }
+    }
+
+    /**
+     * Termina el análisis: cierra el if pendiente y señala la sentencia o los
+     * bloques que quedaron sin terminar.
+     */
+    @Override
+    public void close() {
+        if (estado == TRAS_SI) {
+            programa.agregarComando(Operacion.FIN_SI, ProgramaDSL.SIN_ESTRUCTURA, lineaSentencia);
+        } else if (estado != SENTENCIA && estado != RECUPERACION) {
+            cerrarSinoPendiente(lineaSentencia);
+            programa.descartarOperandos();
+            programa.agregarError(lineaSentencia, "sentencia sin terminar al final del script");
+        }
+        estado = SENTENCIA;
+        while (profundidad > 0) {
+            profundidad--;
+            programa.agregarError(lineaSentencia, "bloque sin cerrar al final del script");
+            // Se cierra igual, para que SI / FIN_SI queden balanceados
+            programa.agregarComando(Operacion.FIN_SI, ProgramaDSL.SIN_ESTRUCTURA, lineaSentencia);
+        }
+    }
+}
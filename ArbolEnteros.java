@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Árbol binario de enteros guardado en arreglos paralelos indexados por nodo:
+ * valor, hijo izquierdo, hijo derecho y padre (NINGUNO si falta), más la
+ * profundidad de cada nodo. Un nodo nuevo siempre es hoja y su profundidad es la del
+ * padre + 1, así que la altura y las hojas del árbol se actualizan en O(1) al
+ * insertar, sin subir por los ancestros. Los extremos izquierdo y derecho se
+ * guardan, de modo que insertar en un extremo tampoco recorre el árbol.
+ *
+ * Los nodos se crean en orden y un padre siempre existe antes que sus hijos: la
+ * raíz es el nodo 0 y padres[n] < n para el resto.
+ *
+ * Los recorridos son iterativos (pila o cola de índices que se reutiliza) y entregan
+ * cada valor a un IntConsumer en cuanto lo visitan, sin armar listas.
+ */
+public final class ArbolEnteros {
+    public static final int NINGUNO = -1;
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private int[] valores = new int[CAPACIDAD_INICIAL];
+    private int[] izquierdos = new int[CAPACIDAD_INICIAL];
+    private int[] derechos = new int[CAPACIDAD_INICIAL];
+    private int[] padres = new int[CAPACIDAD_INICIAL];
+    private int[] profundidades = new int[CAPACIDAD_INICIAL];   // la raíz está en 0
+
+    private int raiz = NINGUNO;
+    private int tamano = 0;
+
+    // Resúmenes del árbol entero (la altura de una hoja sola es 1)
+    private int altura = 0;
+    private int hojas = 0;
+
+    // Nodos a los que se llega siguiendo solo hijos izquierdos / derechos desde la raíz
+    private int extremoIzquierdo = NINGUNO;
+    private int extremoDerecho = NINGUNO;
+
+    // Último nodo insertado con cada valor, para insertar bajo un padre dado
+    private final TablaHashEnteros nodoPorValor = new TablaHashEnteros();
+
+    // Instantánea que aún lee los arreglos de nodos (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    // Pila / cola de los recorridos
+    private int[] trabajo = new int[CAPACIDAD_INICIAL];
+
+    // --- Inserción ---
+
+    private int nuevoNodo(int valor, int padre) {
+        separar();
+        if (tamano == valores.length) {
+            int nueva = tamano * 2;
+            valores = Arrays.copyOf(valores, nueva);
+            izquierdos = Arrays.copyOf(izquierdos, nueva);
+            derechos = Arrays.copyOf(derechos, nueva);
+            padres = Arrays.copyOf(padres, nueva);
+            profundidades = Arrays.copyOf(profundidades, nueva);
+        }
+        int nodo = tamano++;
+        valores[nodo] = valor;
+        izquierdos[nodo] = NINGUNO;
+        derechos[nodo] = NINGUNO;
+        padres[nodo] = padre;
+        profundidades[nodo] = padre == NINGUNO ? 0 : profundidades[padre] + 1;
+        altura = Math.max(altura, profundidades[nodo] + 1);
+        nodoPorValor.poner(valor, nodo);
+        return nodo;
+    }
+
+    private int nuevaRaiz(int valor) {
+        raiz = nuevoNodo(valor, NINGUNO);
+        hojas = 1;
+        extremoIzquierdo = raiz;
+        extremoDerecho = raiz;
+        return raiz;
+    }
+
+    /**
+     * Cuelga un nodo nuevo como hijo (izquierdo o derecho) de padre. El nuevo es una
+     * hoja más salvo que el padre ya lo fuera, y pasa a ser el extremo si el padre lo era.
+     */
+    private int colgar(int valor, int padre, boolean izquierda) {
+        boolean padreEraHoja = izquierdos[padre] == NINGUNO && derechos[padre] == NINGUNO;
+        int nodo = nuevoNodo(valor, padre);
+        if (izquierda) {
+            izquierdos[padre] = nodo;
+            if (padre == extremoIzquierdo) extremoIzquierdo = nodo;
+        } else {
+            derechos[padre] = nodo;
+            if (padre == extremoDerecho) extremoDerecho = nodo;
+        }
+        if (!padreEraHoja) hojas++;
+        return nodo;
+    }
+
+    // Con el árbol vacío el valor es la raíz; si no, va al extremo izquierdo
+    public int insertarIzquierda(int valor) {
+        if (raiz == NINGUNO) return nuevaRaiz(valor);
+        return colgar(valor, extremoIzquierdo, true);
+    }
+
+    // Con el árbol vacío el valor es la raíz; si no, va al extremo derecho
+    public int insertarDerecha(int valor) {
+        if (raiz == NINGUNO) return nuevaRaiz(valor);
+        return colgar(valor, extremoDerecho, false);
+    }
+
+    // Como hijo izquierdo del nodo padre, que no debe tenerlo
+    public int insertarIzquierda(int valor, int padre) {
+        if (izquierdos[padre] != NINGUNO) throw new IllegalStateException("El nodo ya tiene hijo izquierdo");
+        return colgar(valor, padre, true);
+    }
+
+    // Como hijo derecho del nodo padre, que no debe tenerlo
+    public int insertarDerecha(int valor, int padre) {
+        if (derechos[padre] != NINGUNO) throw new IllegalStateException("El nodo ya tiene hijo derecho");
+        return colgar(valor, padre, false);
+    }
+
+    // --- Consulta ---
+
+    // Último nodo insertado con ese valor, o NINGUNO
+    public int buscar(int valor) {
+        return nodoPorValor.obtener(valor, NINGUNO);
+    }
+
+    public int getRaiz() {
+        return raiz;
+    }
+
+    public int valor(int nodo) {
+        return valores[nodo];
+    }
+
+    public int izquierdo(int nodo) {
+        return izquierdos[nodo];
+    }
+
+    public int derecho(int nodo) {
+        return derechos[nodo];
+    }
+
+    public int padre(int nodo) {
+        return padres[nodo];
+    }
+
+    // Número de niveles (0 si está vacío)
+    public int altura() {
+        return altura;
+    }
+
+    public int hojas() {
+        return hojas;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacio() {
+        return tamano == 0;
+    }
+
+    public void limpiar() {
+        raiz = NINGUNO;
+        tamano = 0;
+        altura = 0;
+        hojas = 0;
+        extremoIzquierdo = NINGUNO;
+        extremoDerecho = NINGUNO;
+        nodoPorValor.limpiar();
+    }
+
+    // --- Recorridos ---
+
+    private void asegurarTrabajo() {
+        if (trabajo.length < tamano) trabajo = new int[Math.max(tamano, trabajo.length * 2)];
+    }
+
+    public void preorden(IntConsumer receptor) {
+        if (raiz == NINGUNO) return;
+        asegurarTrabajo();
+        int tope = 0;
+        trabajo[tope++] = raiz;
+        while (tope > 0) {
+            int nodo = trabajo[--tope];
+            receptor.accept(valores[nodo]);
+            // El derecho primero para que el izquierdo salga antes
+            if (derechos[nodo] != NINGUNO) trabajo[tope++] = derechos[nodo];
+            if (izquierdos[nodo] != NINGUNO) trabajo[tope++] = izquierdos[nodo];
+        }
+    }
+
+    public void inorden(IntConsumer receptor) {
+        asegurarTrabajo();
+        int tope = 0;
+        int nodo = raiz;
+        while (nodo != NINGUNO || tope > 0) {
+            while (nodo != NINGUNO) {
+                trabajo[tope++] = nodo;
+                nodo = izquierdos[nodo];
+            }
+            nodo = trabajo[--tope];
+            receptor.accept(valores[nodo]);
+            nodo = derechos[nodo];
+        }
+    }
+
+    // Sin pila: baja y sube con los punteros al padre
+    public void postorden(IntConsumer receptor) {
+        int nodo = raiz;
+        int anterior = NINGUNO;
+        while (nodo != NINGUNO) {
+            if (anterior == padres[nodo]) {
+                // Se llega bajando: primero el subárbol izquierdo, luego el derecho
+                anterior = nodo;
+                if (izquierdos[nodo] != NINGUNO) {
+                    nodo = izquierdos[nodo];
+                    continue;
+                }
+                if (derechos[nodo] != NINGUNO) {
+                    nodo = derechos[nodo];
+                    continue;
+                }
+            } else if (anterior == izquierdos[nodo] && derechos[nodo] != NINGUNO) {
+                anterior = nodo;
+                nodo = derechos[nodo];
+                continue;
+            }
+            // Ya se visitaron sus hijos
+            receptor.accept(valores[nodo]);
+            anterior = nodo;
+            nodo = padres[nodo];
+        }
+    }
+
+    public void porNiveles(IntConsumer receptor) {
+        if (raiz == NINGUNO) return;
+        asegurarTrabajo();
+        int inicio = 0;
+        int fin = 0;
+        trabajo[fin++] = raiz;
+        while (inicio < fin) {
+            int nodo = trabajo[inicio++];
+            receptor.accept(valores[nodo]);
+            if (izquierdos[nodo] != NINGUNO) trabajo[fin++] = izquierdos[nodo];
+            if (derechos[nodo] != NINGUNO) trabajo[fin++] = derechos[nodo];
+        }
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo los arreglos, se trabaja sobre copias
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) {
+            valores = valores.clone();
+            izquierdos = izquierdos.clone();
+            derechos = derechos.clone();
+            padres = padres.clone();
+            profundidades = profundidades.clone();
+        }
+        compartida = null;
+    }
+
+    // Solo los enlaces: profundidades, resúmenes, extremos e índice por valor se rehacen al restaurar
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        return new InstantaneaDSL.Seccion(new int[] {raiz, tamano},
+                new Object[] {valores, izquierdos, derechos, padres},
+                new int[] {tamano, tamano, tamano, tamano});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(2, 4);
+        int n = seccion.escalares[1];
+        int nuevaRaiz = seccion.escalares[0];
+        int[][] arreglos = new int[4][];
+        for (int k = 0; k < 4; k++) {
+            arreglos[k] = seccion.enteros(k);
+            if (arreglos[k].length != n) throw new IllegalArgumentException("Árbol incoherente");
+        }
+        if (n < 0 || (n == 0 ? nuevaRaiz != NINGUNO : nuevaRaiz < 0 || nuevaRaiz >= n)) {
+            throw new IllegalArgumentException("Raíz del árbol fuera de rango: " + nuevaRaiz);
+        }
+        for (int k = 1; k <= 3; k++) {
+            for (int enlace : arreglos[k]) {
+                if (enlace < NINGUNO || enlace >= n) throw new IllegalArgumentException("Enlace del árbol fuera de rango: " + enlace);
+            }
+        }
+        // Padres e hijos deben coincidir y cada padre ser anterior a sus hijos: así no hay
+        // ciclos ni nodos sueltos y los recorridos terminan
+        int[] izq = arreglos[1];
+        int[] der = arreglos[2];
+        int[] pad = arreglos[3];
+        for (int nodo = 0; nodo < n; nodo++) {
+            int padre = pad[nodo];
+            if (nodo == nuevaRaiz ? padre != NINGUNO
+                    : padre == NINGUNO || padre >= nodo || (izq[padre] != nodo && der[padre] != nodo)) {
+                throw new IllegalArgumentException("El nodo " + nodo + " no cuelga de su padre");
+            }
+            if ((izq[nodo] != NINGUNO && (pad[izq[nodo]] != nodo || izq[nodo] == der[nodo]))
+                    || (der[nodo] != NINGUNO && pad[der[nodo]] != nodo)) {
+                throw new IllegalArgumentException("Los hijos del nodo " + nodo + " no apuntan a él");
+            }
+        }
+        return () -> {
+            valores = seccion.enteros(0, CAPACIDAD_INICIAL);
+            izquierdos = seccion.enteros(1, CAPACIDAD_INICIAL);
+            derechos = seccion.enteros(2, CAPACIDAD_INICIAL);
+            padres = seccion.enteros(3, CAPACIDAD_INICIAL);
+            profundidades = new int[valores.length];
+            raiz = nuevaRaiz;
+            tamano = n;
+            compartida = null;
+            // Los padres se crean antes que sus hijos: basta una pasada en orden de creación
+            altura = 0;
+            hojas = 0;
+            nodoPorValor.limpiar();
+            for (int nodo = 0; nodo < n; nodo++) {
+                profundidades[nodo] = padres[nodo] == NINGUNO ? 0 : profundidades[padres[nodo]] + 1;
+                altura = Math.max(altura, profundidades[nodo] + 1);
+                if (izquierdos[nodo] == NINGUNO && derechos[nodo] == NINGUNO) hojas++;
+                // En orden de creación, para que cada valor quede con su último nodo
+                nodoPorValor.poner(valores[nodo], nodo);
+            }
+            extremoIzquierdo = raiz;
+            extremoDerecho = raiz;
+            if (raiz != NINGUNO) {
+                while (izquierdos[extremoIzquierdo] != NINGUNO) extremoIzquierdo = izquierdos[extremoIzquierdo];
+                while (derechos[extremoDerecho] != NINGUNO) extremoDerecho = derechos[extremoDerecho];
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Bicola (y cola) de enteros sobre un anillo int[] de tamaño potencia de 2:
+ * insertar y eliminar por ambos extremos es O(1) y no crea objetos. COLA usa solo
+ * insertarFinal / eliminarInicio.
+ */
+public final class BicolaEnteros {
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private int[] datos = new int[CAPACIDAD_INICIAL];
+    private int inicio = 0;
+    private int tamano = 0;
+
+    // Instantánea que aún lee datos (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    private int posicion(int i) {
+        return (inicio + i) & (datos.length - 1);
+    }
+
+    private void crecer() {
+        int[] nuevos = new int[datos.length * 2];
+        // Se copia en orden, dejando el frente en la posición 0
+        int primerTramo = Math.min(tamano, datos.length - inicio);
+        System.arraycopy(datos, inicio, nuevos, 0, primerTramo);
+        System.arraycopy(datos, 0, nuevos, primerTramo, tamano - primerTramo);
+        datos = nuevos;
+        inicio = 0;
+    }
+
+    public void insertarInicio(int valor) {
+        separar();
+        if (tamano == datos.length) crecer();
+        inicio = (inicio - 1) & (datos.length - 1);
+        datos[inicio] = valor;
+        tamano++;
+    }
+
+    public void insertarFinal(int valor) {
+        separar();
+        if (tamano == datos.length) crecer();
+        datos[posicion(tamano++)] = valor;
+    }
+
+    public int eliminarInicio() {
+        if (tamano == 0) throw new NoSuchElementException("Bicola vacía");
+        int valor = datos[inicio];
+        inicio = posicion(1);
+        tamano--;
+        return valor;
+    }
+
+    public int eliminarFinal() {
+        if (tamano == 0) throw new NoSuchElementException("Bicola vacía");
+        return datos[posicion(--tamano)];
+    }
+
+    public int primero() {
+        if (tamano == 0) throw new NoSuchElementException("Bicola vacía");
+        return datos[inicio];
+    }
+
+    public int ultimo() {
+        if (tamano == 0) throw new NoSuchElementException("Bicola vacía");
+        return datos[posicion(tamano - 1)];
+    }
+
+    // Elemento i contando desde el frente (0 = frente)
+    public int get(int i) {
+        if (i < 0 || i >= tamano) throw new IndexOutOfBoundsException(i);
+        return datos[posicion(i)];
+    }
+
+    // Posición desde el frente, o -1 si no está
+    public int buscar(int valor) {
+        for (int i = 0; i < tamano; i++) {
+            if (datos[posicion(i)] == valor) return i;
+        }
+        return -1;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public void limpiar() {
+        inicio = 0;
+        tamano = 0;
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo el anillo, se trabaja sobre una copia
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) datos = datos.clone();
+        compartida = null;
+    }
+
+    // Se guarda el anillo entero, así inicio sigue valiendo al restaurar
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        return new InstantaneaDSL.Seccion(new int[] {inicio, tamano}, new Object[] {datos}, new int[] {datos.length});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(2, 1);
+        int[] e = seccion.escalares;
+        int[] nuevos = seccion.enteros(0);
+        if (Integer.bitCount(nuevos.length) != 1 || e[0] < 0 || e[0] >= nuevos.length || e[1] < 0 || e[1] > nuevos.length) {
+            throw new IllegalArgumentException("Bicola incoherente");
+        }
+        return () -> {
+            datos = nuevos;
+            inicio = e[0];
+            tamano = e[1];
+            compartida = null;
+        };
+    }
+}
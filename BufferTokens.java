@@ -0,0 +1,257 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Representación compacta de una secuencia de tokens clasificados.
+ * En lugar de un objeto Token por lexema, guarda columnas de arreglos primitivos
+ * (inicio, longitud, línea, código de tipo, estado final y si fue reconocido) que
+ * apuntan a la fuente original; los lexemas solo se copian si alguien los pide.
+ * El código de tipo es el ordinal de TipoToken.
+ * Para quien necesite la interfaz de Token existe una vista reutilizable (Vista).
+ * La fuente puede ser texto o bytes UTF-8 (ver LexerUtf8); en ese caso inicio y
+ * longitud se miden en bytes y el lexema se decodifica al pedirlo.
+ * Con una TablaSimbolos, cada identificador o literal guarda además su id de símbolo.
+ */
+public final class BufferTokens {
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    private final CharSequence fuente;
+    // Fuente en bytes UTF-8 (posiciones absolutas), o null si la fuente es texto
+    private final ByteBuffer fuenteBytes;
+    private final AFD afd;
+    // Tabla donde se internan identificadores y literales, o null
+    private final TablaSimbolos simbolos;
+
+    private int[] inicio;
+    private int[] longitud;
+    private int[] linea;
+    private byte[] tipo;
+    private int[] estado;
+    private boolean[] reconocido;
+    private int[] simbolo; // solo si hay tabla de símbolos
+    private int tamano = 0;
+
+    public BufferTokens(CharSequence fuente, AFD afd) {
+        this(fuente, afd, CAPACIDAD_INICIAL);
+    }
+
+    public BufferTokens(CharSequence fuente, AFD afd, int capacidad) {
+        this(fuente, null, afd, capacidad, null);
+    }
+
+    public BufferTokens(CharSequence fuente, AFD afd, int capacidad, TablaSimbolos simbolos) {
+        this(fuente, null, afd, capacidad, simbolos);
+    }
+
+    private BufferTokens(CharSequence fuente, ByteBuffer fuenteBytes, AFD afd, int capacidad,
+                         TablaSimbolos simbolos) {
+        this.fuente = fuente;
+        this.fuenteBytes = fuenteBytes;
+        this.afd = afd;
+        this.simbolos = simbolos;
+        int c = Math.max(capacidad, 1);
+        this.inicio = new int[c];
+        this.longitud = new int[c];
+        this.linea = new int[c];
+        this.tipo = new byte[c];
+        this.estado = new int[c];
+        this.reconocido = new boolean[c];
+        this.simbolo = simbolos != null ? new int[c] : null;
+    }
+
+    /**
+     * Pre-tokeniza y clasifica la fuente completa guardando el resultado en columnas.
+     */
+    public static BufferTokens analizar(CharSequence fuente, AFD afd) {
+        return analizar(fuente, afd, null);
+    }
+
+    /**
+     * Igual que analizar(fuente, afd), internando identificadores y literales en la
+     * tabla de símbolos dada (puede ser null).
+     */
+    public static BufferTokens analizar(CharSequence fuente, AFD afd, TablaSimbolos simbolos) {
+        // Estimación inicial: un token cada ~6 caracteres
+        BufferTokens buffer = new BufferTokens(fuente, afd, fuente.length() / 6 + 1, simbolos);
+        EscanerLimites.escanear(fuente, 0, fuente.length(), 1,
+                (i, f, lineaLexema) -> afd.clasificar(fuente, i, f, lineaLexema, buffer::agregar));
+        return buffer;
+    }
+
+    /**
+     * Buffer cuyos tokens son rangos de bytes de una fuente UTF-8 (posiciones
+     * absolutas del ByteBuffer); los lexemas se decodifican solo al pedirlos.
+     */
+    public static BufferTokens sobreBytes(ByteBuffer fuente, AFD afd, int capacidad) {
+        return new BufferTokens(null, fuente, afd, capacidad, null);
+    }
+
+    /**
+     * Agrega un token; tiene la misma forma que AFD.ReceptorClasificado.
+     */
+    public void agregar(int inicioToken, int fin, int lineaToken, TipoToken tipoToken, int estadoFinal,
+                        boolean existeSimbolo) {
+        if (tamano == inicio.length) crecer();
+        inicio[tamano] = inicioToken;
+        longitud[tamano] = fin - inicioToken;
+        linea[tamano] = lineaToken;
+        tipo[tamano] = (byte) tipoToken.ordinal();
+        estado[tamano] = estadoFinal;
+        reconocido[tamano] = existeSimbolo;
+        if (simbolos != null) {
+            simbolo[tamano] = TablaSimbolos.esSimbolo(tipoToken)
+                    ? simbolos.internar(fuente, inicioToken, fin, lineaToken, tipoToken)
+                    : TablaSimbolos.SIN_SIMBOLO;
+        }
+        tamano++;
+    }
+
+    private void crecer() {
+        int nueva = inicio.length * 2;
+        inicio = Arrays.copyOf(inicio, nueva);
+        longitud = Arrays.copyOf(longitud, nueva);
+        linea = Arrays.copyOf(linea, nueva);
+        tipo = Arrays.copyOf(tipo, nueva);
+        estado = Arrays.copyOf(estado, nueva);
+        reconocido = Arrays.copyOf(reconocido, nueva);
+        if (simbolo != null) simbolo = Arrays.copyOf(simbolo, nueva);
+    }
+
+    // Getters por posición
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // Fuente de texto, o null si los tokens apuntan a bytes (ver getFuenteBytes)
+    public CharSequence getFuente() {
+        return fuente;
+    }
+
+    public ByteBuffer getFuenteBytes() {
+        return fuenteBytes;
+    }
+
+    public int getInicio(int i) {
+        return inicio[i];
+    }
+
+    public int getLongitud(int i) {
+        return longitud[i];
+    }
+
+    public int getLinea(int i) {
+        return linea[i];
+    }
+
+    public int getCodigoTipo(int i) {
+        return tipo[i];
+    }
+
+    public TipoToken getTipo(int i) {
+        return TipoToken.desdeCodigo(tipo[i]);
+    }
+
+    public String getTipoToken(int i) {
+        return getTipo(i).getEtiqueta();
+    }
+
+    public int getEstado(int i) {
+        return estado[i];
+    }
+
+    public String getEstadoFinal(int i) {
+        return afd.getNombreEstado(estado[i]);
+    }
+
+    public boolean existeSimbolo(int i) {
+        return reconocido[i];
+    }
+
+    // Id en la tabla de símbolos, o TablaSimbolos.SIN_SIMBOLO (también si no hay tabla)
+    public int getSimbolo(int i) {
+        return simbolo != null ? simbolo[i] : TablaSimbolos.SIN_SIMBOLO;
+    }
+
+    public TablaSimbolos getTablaSimbolos() {
+        return simbolos;
+    }
+
+    // Copia el lexema desde la fuente (única operación que crea un String)
+    public String getLexema(int i) {
+        if (fuenteBytes != null) {
+            byte[] bytes = new byte[longitud[i]];
+            fuenteBytes.get(inicio[i], bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return fuente.subSequence(inicio[i], inicio[i] + longitud[i]).toString();
+    }
+
+    public Token aToken(int i) {
+        return new Token(getLexema(i), linea[i], getTipo(i), getEstadoFinal(i), reconocido[i]);
+    }
+
+    public Token[] aTokens() {
+        Token[] tokens = new Token[tamano];
+        for (int i = 0; i < tamano; i++) tokens[i] = aToken(i);
+        return tokens;
+    }
+
+    /**
+     * Crea una vista reutilizable; se mueve con posicionar(i) sin crear objetos nuevos.
+     */
+    public Vista vista() {
+        return new Vista();
+    }
+
+    /**
+     * Vista ligera (flyweight) con los mismos accesores que Token sobre la posición actual.
+     */
+    public final class Vista {
+        private int posicion;
+
+        private Vista() {
+        }
+
+        public Vista posicionar(int i) {
+            if (i < 0 || i >= tamano) {
+                throw new IndexOutOfBoundsException("Posición " + i + " fuera de rango (tamaño " + tamano + ")");
+            }
+            this.posicion = i;
+            return this;
+        }
+
+        public int getPosicion() {
+            return posicion;
+        }
+
+        public String getLexema() {
+            return BufferTokens.this.getLexema(posicion);
+        }
+
+        public int getLinea() {
+            return linea[posicion];
+        }
+
+        public String getTipoToken() {
+            return BufferTokens.this.getTipoToken(posicion);
+        }
+
+        public TipoToken getTipo() {
+            return BufferTokens.this.getTipo(posicion);
+        }
+
+        public String getEstadoFinal() {
+            return BufferTokens.this.getEstadoFinal(posicion);
+        }
+
+        public boolean existeSimbolo() {
+            return reconocido[posicion];
+        }
+
+        public int getSimbolo() {
+            return BufferTokens.this.getSimbolo(posicion);
+        }
+    }
+}
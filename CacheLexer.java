@@ -0,0 +1,368 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de resultados del análisis léxico direccionada por contenido.
+ * La clave es un hash de 128 bits del texto del script combinado con la huella del
+ * AFD (AFD.getHuella), así que un cambio de vocabulario invalida las entradas sin
+ * borrarlas. El valor es la forma compacta del resultado: por token, inicio,
+ * longitud, línea y estado en un int[] y tipo + reconocido en un byte[]; los
+ * lexemas se vuelven a cortar del script al leerlo.
+ *
+ * La clave no es criptográfica: cada entrada en memoria guarda también el script y
+ * cada archivo un SHA-256 del script, y un acierto los compara antes de usar el
+ * resultado, así que una colisión se trata como un fallo.
+ *
+ * La memoria está acotada en bytes con desalojo LRU. Opcionalmente cada resultado
+ * se escribe también en un directorio (un archivo por clave), de modo que un
+ * proceso que reinicia se calienta leyendo del disco en lugar de analizar de nuevo.
+ * Los archivos guardan ordinales de TipoToken e ids de estado, así que su encabezado
+ * lleva una huella de los nombres de ambos: un archivo escrito con otro orden de
+ * TipoToken u otros estados se descarta en lugar de leerse con otro significado.
+ * Es segura para hilos; el análisis de un fallo se hace fuera del candado.
+ */
+public class CacheLexer {
+    // Formato de los archivos del disco
+    private static final int MAGICO = 0x4C584331; // "LXC1"
+    private static final int VERSION = 3;   // 2: huella de tipos y estados; 3: SHA-256 del script
+    private static final int LARGO_RESUMEN = 32;
+    private static final int ENCABEZADO = 4 + 4 + 8 + LARGO_RESUMEN + 4;
+
+    // Bytes fijos estimados por entrada (objetos, arreglos y nodo del mapa)
+    private static final int SOBRECARGA_ENTRADA = 128;
+
+    private final AFD afd;
+    private final long maximoBytes;
+    private final Path directorio;   // null si no hay nivel de disco
+    private final long huellaArchivos;
+
+    private final LinkedHashMap<Clave, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytesEnMemoria = 0;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder aciertosDisco = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder desalojos = new LongAdder();
+    private final LongAdder erroresDisco = new LongAdder();
+
+    public CacheLexer(AFD afd, long maximoBytes) {
+        this(afd, maximoBytes, null);
+    }
+
+    /**
+     * @param directorio directorio del nivel de disco (se crea si no existe), o null
+     */
+    public CacheLexer(AFD afd, long maximoBytes, Path directorio) {
+        if (maximoBytes <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo debe ser positivo: " + maximoBytes);
+        }
+        this.afd = afd;
+        this.maximoBytes = maximoBytes;
+        this.directorio = directorio;
+        this.huellaArchivos = huellaArchivos(afd);
+        if (directorio != null) {
+            try {
+                Files.createDirectories(directorio);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("No se pudo crear el directorio de la caché: " + directorio, e);
+            }
+        }
+    }
+
+    // Huella del significado de los códigos que guarda un archivo: nombres de TipoToken
+    // en orden (TipoToken.huellaCodigos) y nombre de cada id de estado
+    private static long huellaArchivos(AFD afd) {
+        long h = TipoToken.huellaCodigos();
+        for (int estado = 0; estado < afd.getNumEstadosFinales(); estado++) {
+            String nombre = afd.getNombreEstado(estado);
+            for (int i = 0; i < nombre.length(); i++) h = (h ^ nombre.charAt(i)) * 0x100000001B3L;
+            h = (h ^ '\n') * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    // Clave: dos hashes de 64 bits independientes del texto, ya mezclados con la huella
+    // (también la usa CompiladorDSL)
+    static final class Clave {
+        final long a;
+        final long b;
+        final int largo;
+
+        Clave(long a, long b, int largo) {
+            this.a = a;
+            this.b = b;
+            this.largo = largo;
+        }
+
+        static Clave de(long huella, CharSequence texto) {
+            long a = huella;
+            long b = ~huella;
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                a = (a ^ c) * 0x100000001B3L;
+                b = (b + c) * 0x9E3779B97F4A7C15L;
+                b ^= b >>> 29;
+            }
+            return new Clave(a, b, texto.length());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Clave)) return false;
+            Clave otra = (Clave) o;
+            return a == otra.a && b == otra.b && largo == otra.largo;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (a ^ (a >>> 32));
+        }
+
+        String nombreArchivo() {
+            return String.format("%016x%016x-%d.lxc", a, b, largo);
+        }
+    }
+
+    // Resultado compacto: 4 ints por token (inicio, longitud, línea, estado) y un byte,
+    // con el script del que salió
+    private static final class Entrada {
+        final String script;
+        final int[] datos;
+        final byte[] tipos; // ordinal de TipoToken, con el bit 0x80 si fue reconocido
+
+        Entrada(String script, int[] datos, byte[] tipos) {
+            this.script = script;
+            this.datos = datos;
+            this.tipos = tipos;
+        }
+
+        long bytes() {
+            return SOBRECARGA_ENTRADA + 2L * script.length() + 4L * datos.length + tipos.length;
+        }
+    }
+
+    /**
+     * Devuelve lo mismo que afd.aceptar(DSLCore.tokenizador(script)), analizando solo
+     * si el resultado no está en memoria ni en disco.
+     */
+    public Token[] analizar(String script) {
+        Clave clave = clave(script);
+
+        Entrada entrada;
+        synchronized (this) {
+            entrada = entradas.get(clave);
+        }
+        if (entrada != null && entrada.script.equals(script)) {
+            aciertos.increment();
+            return reconstruir(script, entrada);
+        }
+
+        entrada = leerDisco(clave, script);
+        if (entrada != null) {
+            aciertosDisco.increment();
+        } else {
+            fallos.increment();
+            entrada = compactar(script);
+            escribirDisco(clave, entrada);
+        }
+        guardar(clave, entrada);
+        return reconstruir(script, entrada);
+    }
+
+    private synchronized void guardar(Clave clave, Entrada entrada) {
+        if (entrada.bytes() > maximoBytes) return;
+        Entrada anterior = entradas.put(clave, entrada);
+        if (anterior != null) bytesEnMemoria -= anterior.bytes();
+        bytesEnMemoria += entrada.bytes();
+
+        // Desalojo de las menos usadas recientemente
+        Iterator<Map.Entry<Clave, Entrada>> it = entradas.entrySet().iterator();
+        while (bytesEnMemoria > maximoBytes && it.hasNext()) {
+            bytesEnMemoria -= it.next().getValue().bytes();
+            it.remove();
+            desalojos.increment();
+        }
+    }
+
+    private Clave clave(String script) {
+        return Clave.de(afd.getHuella(), script);
+    }
+
+    private Entrada compactar(String script) {
+        BufferTokens buffer = BufferTokens.analizar(script, afd);
+        int n = buffer.tamano();
+        int[] datos = new int[4 * n];
+        byte[] tipos = new byte[n];
+        for (int i = 0; i < n; i++) {
+            datos[4 * i] = buffer.getInicio(i);
+            datos[4 * i + 1] = buffer.getLongitud(i);
+            datos[4 * i + 2] = buffer.getLinea(i);
+            datos[4 * i + 3] = buffer.getEstado(i);
+            tipos[i] = (byte) (buffer.getCodigoTipo(i) | (buffer.existeSimbolo(i) ? 0x80 : 0));
+        }
+        return new Entrada(script, datos, tipos);
+    }
+
+    private Token[] reconstruir(String script, Entrada entrada) {
+        Token[] tokens = new Token[entrada.tipos.length];
+        for (int i = 0; i < tokens.length; i++) {
+            int inicio = entrada.datos[4 * i];
+            int fin = inicio + entrada.datos[4 * i + 1];
+            byte tipo = entrada.tipos[i];
+            tokens[i] = new Token(script.substring(inicio, fin), entrada.datos[4 * i + 2],
+                    TipoToken.desdeCodigo(tipo & 0x7F), afd.getNombreEstado(entrada.datos[4 * i + 3]),
+                    (tipo & 0x80) != 0);
+        }
+        return tokens;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Nivel de disco ---
+    // -------------------------------------------------------------------
+
+    /**
+     * Entrada del disco para ese script, o null. Un archivo de otra huella, cuyo tamaño
+     * no cuadra con su número de tokens, o con tokens fuera del script o códigos
+     * inválidos, se trata como un fallo (y se cuenta en erroresDisco): se vuelve a analizar.
+     */
+    private Entrada leerDisco(Clave clave, String script) {
+        if (directorio == null) return null;
+        Path archivo = directorio.resolve(clave.nombreArchivo());
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (buffer.remaining() < ENCABEZADO || buffer.getInt() != MAGICO || buffer.getInt() != VERSION
+                    || buffer.getLong() != huellaArchivos) {
+                erroresDisco.increment();
+                return null;
+            }
+            // Otro script con la misma clave: no es un archivo dañado, solo un fallo
+            byte[] guardado = new byte[LARGO_RESUMEN];
+            buffer.get(guardado);
+            if (!MessageDigest.isEqual(guardado, resumen(script))) return null;
+            int n = buffer.getInt();
+            // Se comprueba antes de reservar: 4 ints y un byte por token
+            if (n < 0 || ENCABEZADO + 17L * n != canal.size()) {
+                erroresDisco.increment();
+                return null;
+            }
+            int[] datos = new int[4 * n];
+            byte[] tipos = new byte[n];
+            buffer.asIntBuffer().get(datos);
+            buffer.position(buffer.position() + 4 * datos.length);
+            buffer.get(tipos);
+            Entrada entrada = new Entrada(script, datos, tipos);
+            if (!valida(entrada, script)) {
+                erroresDisco.increment();
+                return null;
+            }
+            return entrada;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Archivo ilegible: se trata como un fallo
+            erroresDisco.increment();
+            return null;
+        }
+    }
+
+    // Que reconstruir() no pueda fallar: rangos dentro del script y códigos conocidos
+    private boolean valida(Entrada entrada, String script) {
+        int numTipos = TipoToken.values().length;
+        int numEstados = afd.getNumEstadosFinales();
+        for (int i = 0; i < entrada.tipos.length; i++) {
+            int inicio = entrada.datos[4 * i];
+            int longitud = entrada.datos[4 * i + 1];
+            int estado = entrada.datos[4 * i + 3];
+            if (inicio < 0 || longitud < 0 || inicio > script.length() - longitud) return false;
+            if ((entrada.tipos[i] & 0x7F) >= numTipos) return false;
+            if (estado != AFD.ESTADO_NINGUNO && (estado < 0 || estado >= numEstados)) return false;
+        }
+        return true;
+    }
+
+    private static byte[] resumen(String script) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(script.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Toda JVM trae SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Se escribe a un archivo temporal y se renombra, para no dejar archivos a medias
+    private void escribirDisco(Clave clave, Entrada entrada) {
+        if (directorio == null) return;
+        ByteBuffer buffer = ByteBuffer.allocate(ENCABEZADO + 4 * entrada.datos.length + entrada.tipos.length);
+        buffer.putInt(MAGICO).putInt(VERSION).putLong(huellaArchivos).put(resumen(entrada.script))
+                .putInt(entrada.tipos.length);
+        buffer.asIntBuffer().put(entrada.datos);
+        buffer.position(buffer.position() + 4 * entrada.datos.length);
+        buffer.put(entrada.tipos);
+        buffer.flip();
+
+        Path destino = directorio.resolve(clave.nombreArchivo());
+        try {
+            Path temporal = Files.createTempFile(directorio, "lxc", ".tmp");
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) canal.write(buffer);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // El disco es solo una optimización; el resultado sigue en memoria
+            erroresDisco.increment();
+        }
+    }
+
+    // -------------------------------------------------------------------
+    // --- Métricas ---
+    // -------------------------------------------------------------------
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    // Resultados que no estaban en memoria pero sí en disco
+    public long getAciertosDisco() {
+        return aciertosDisco.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getDesalojos() {
+        return desalojos.sum();
+    }
+
+    // Archivos del disco que no se pudieron escribir o que se descartaron al leerlos
+    public long getErroresDisco() {
+        return erroresDisco.sum();
+    }
+
+    public synchronized long getBytesEnMemoria() {
+        return bytesEnMemoria;
+    }
+
+    public synchronized int getNumEntradas() {
+        return entradas.size();
+    }
+
+    public synchronized void limpiar() {
+        entradas.clear();
+        bytesEnMemoria = 0;
+    }
+}
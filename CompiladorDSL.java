@@ -0,0 +1,766 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compila un ProgramaDSL a una clase oculta (MethodHandles.Lookup.defineHiddenClass)
+ * que implementa ProgramaCompilado. El bytecode se escribe a mano porque Java 17 no
+ * trae la API java.lang.classfile.
+ *
+ * Cada comando se vuelve una llamada directa sobre la estructura, que la clase
+ * guarda en variables locales: APILAR 5 EN PILA es pila.apilar(5) con el 5 como
+ * constante, de modo que el JIT puede integrar el programa entero. Las
+ * eliminaciones comprueban antes que la estructura no esté vacía. Lo que puede
+ * fallar o escribe salida (consultas, recorridos, posiciones) se delega en
+ * InterpreteDSL.ejecutarComando, así que errores y salida son los mismos que al
+ * interpretar. Los if se compilan a saltos.
+ *
+ * Los comandos de nivel superior se reparten en métodos de menos de 8000 bytes, el
+ * máximo que HotSpot compila con el JIT. Un if tan grande que no cabe en uno solo
+ * (cientos de comandos) no se compila: se devuelve un ProgramaCompilado que interpreta.
+ *
+ * Las instancias guardan los programas compilados por hash del script (la misma
+ * clave de 128 bits que CacheLexer, con la huella del AFD) con desalojo LRU. La clave
+ * no es criptográfica y los scripts vienen de los usuarios, así que cada entrada
+ * guarda también el texto y un acierto lo compara: una colisión es un fallo.
+ */
+public class CompiladorDSL {
+    // Bytes de código por método: HotSpot no compila con el JIT los de más de 8000
+    // (HugeMethodLimit), así que un método más largo correría siempre interpretado
+    private static final int LIMITE_METODO = 7_500;
+
+    private final AFD afd;
+    private final int maximoEntradas;
+    private final LinkedHashMap<CacheLexer.Clave, Compilado> compilados =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    // Programa compilado con el texto del que salió
+    private static final class Compilado {
+        final String script;
+        final ProgramaCompilado programa;
+
+        Compilado(String script, ProgramaCompilado programa) {
+            this.script = script;
+            this.programa = programa;
+        }
+    }
+
+    public CompiladorDSL(AFD afd, int maximoEntradas) {
+        if (maximoEntradas <= 0) {
+            throw new IllegalArgumentException("El número de entradas debe ser positivo: " + maximoEntradas);
+        }
+        this.afd = afd;
+        this.maximoEntradas = maximoEntradas;
+    }
+
+    /**
+     * Analiza y compila el script, o devuelve la versión ya compilada si el mismo
+     * texto se compiló antes con este vocabulario. Un acierto todavía recorre el texto
+     * para calcular la clave; en un bucle conviene guardar el ProgramaCompilado.
+     *
+     * @throws IllegalArgumentException si el script tiene errores de sintaxis
+     */
+    public ProgramaCompilado compilar(String script) {
+        CacheLexer.Clave clave = CacheLexer.Clave.de(afd.getHuella(), script);
+        Compilado entrada;
+        synchronized (this) {
+            entrada = compilados.get(clave);
+        }
+        if (entrada != null && entrada.script.equals(script)) {
+            aciertos.increment();
+            return entrada.programa;
+        }
+        fallos.increment();
+        ProgramaDSL programa = AnalizadorSentencias.analizar(script, afd);
+        if (!programa.getErrores().isEmpty()) {
+            throw new IllegalArgumentException("El script tiene errores de sintaxis: " + programa.getErrores());
+        }
+        ProgramaCompilado compilado = compilar(programa);
+        synchronized (this) {
+            compilados.put(clave, new Compilado(script, compilado));
+            Iterator<CacheLexer.Clave> it = compilados.keySet().iterator();
+            while (compilados.size() > maximoEntradas && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        return compilado;
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    /**
+     * Genera y carga la clase oculta del programa. Si no se puede compilar (un if
+     * demasiado grande o demasiadas constantes) devuelve uno que lo interpreta.
+     */
+    public static ProgramaCompilado compilar(ProgramaDSL programa) {
+        byte[] clase = new GeneradorClase(programa).generar();
+        if (clase == null) return interprete -> interprete.ejecutar(programa);
+        try {
+            MethodHandles.Lookup oculta = MethodHandles.lookup().defineHiddenClass(clase, true);
+            return (ProgramaCompilado) oculta
+                    .findConstructor(oculta.lookupClass(), MethodType.methodType(void.class, ProgramaDSL.class))
+                    .invoke(programa);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("No se pudo cargar el programa compilado", e);
+        }
+    }
+
+    // -------------------------------------------------------------------
+    // --- Generación del bytecode ---
+    // -------------------------------------------------------------------
+
+    // Códigos de operación usados
+    private static final int ALOAD_0 = 0x2A;
+    private static final int ALOAD = 0x19;
+    private static final int ASTORE = 0x3A;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int ICONST_0 = 0x03;
+    private static final int LDC_W = 0x13;
+    private static final int POP = 0x57;
+    private static final int ISHL = 0x78;
+    private static final int IOR = 0x80;
+    private static final int IFEQ = 0x99;
+    private static final int IFNE = 0x9A;
+    private static final int GOTO = 0xA7;
+    private static final int RETURN = 0xB1;
+    private static final int GETSTATIC = 0xB2;
+    private static final int GETFIELD = 0xB4;
+    private static final int PUTFIELD = 0xB5;
+    private static final int INVOKEVIRTUAL = 0xB6;
+    private static final int INVOKESPECIAL = 0xB7;
+
+    // Variables locales de los métodos de comandos: this, el intérprete y las estructuras
+    private static final int LOCAL_INTERPRETE = 1;
+    private static final Estructura[] ESTRUCTURAS = {
+        Estructura.PILA, Estructura.PILA_CIRCULAR, Estructura.COLA, Estructura.BICOLAS,
+        Estructura.LISTA_ENLAZADAS, Estructura.LISTA_DOBLE_ENLAZADA, Estructura.LISTA_CIRCULAR,
+        Estructura.GRAFOS, Estructura.ARBOL_BINARIO, Estructura.TABLAS_HASH
+    };
+    private static final int NUM_LOCALES = 2 + ESTRUCTURAS.length;
+    private static final int MAXIMO_PILA = 6;
+
+    private static final String NOMBRE_CLASE = "ScriptCompilado";
+    private static final String INTERPRETE = "InterpreteDSL";
+    private static final String PROGRAMA = "ProgramaDSL";
+
+    // Clase Java que guarda cada estructura y el getter de InterpreteDSL que la da
+    private static String claseDe(Estructura e) {
+        return switch (e) {
+            case PILA, PILA_CIRCULAR -> "PilaEnteros";
+            case COLA, BICOLAS -> "BicolaEnteros";
+            case LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA, LISTA_CIRCULAR -> "ListaEnteros";
+            case GRAFOS -> "GrafoEnteros";
+            case ARBOL_BINARIO -> "ArbolEnteros";
+            default -> "TablaHashEnteros";
+        };
+    }
+
+    private static String getterDe(Estructura e) {
+        return switch (e) {
+            case PILA -> "getPila";
+            case PILA_CIRCULAR -> "getPilaCircular";
+            case COLA -> "getCola";
+            case BICOLAS -> "getBicola";
+            case GRAFOS -> "getGrafo";
+            case ARBOL_BINARIO -> "getArbol";
+            case TABLAS_HASH -> "getTabla";
+            default -> "getLista";
+        };
+    }
+
+    private static int localDe(Estructura e) {
+        for (int k = 0; k < ESTRUCTURAS.length; k++) {
+            if (ESTRUCTURAS[k] == e) return 2 + k;
+        }
+        throw new IllegalArgumentException(e.toString());
+    }
+
+    /** Constantes de la clase (constant pool), sin repetir entradas. */
+    private static final class Constantes {
+        private final Bytes datos = new Bytes();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int siguiente = 1;
+
+        private int agregar(String clave, int etiqueta, Bytes contenido) {
+            Integer indice = indices.get(clave);
+            if (indice != null) return indice;
+            datos.u1(etiqueta);
+            datos.agregar(contenido);
+            indices.put(clave, siguiente);
+            return siguiente++;
+        }
+
+        int utf8(String texto) {
+            byte[] b = texto.getBytes(StandardCharsets.UTF_8);
+            Bytes c = new Bytes();
+            c.u2(b.length);
+            c.agregar(b, b.length);
+            return agregar("U" + texto, 1, c);
+        }
+
+        int entero(int valor) {
+            Bytes c = new Bytes();
+            c.u4(valor);
+            return agregar("I" + valor, 3, c);
+        }
+
+        int clase(String nombre) {
+            Bytes c = new Bytes();
+            c.u2(utf8(nombre));
+            return agregar("C" + nombre, 7, c);
+        }
+
+        private int nombreYTipo(String nombre, String descriptor) {
+            Bytes c = new Bytes();
+            c.u2(utf8(nombre));
+            c.u2(utf8(descriptor));
+            return agregar("N" + nombre + ":" + descriptor, 12, c);
+        }
+
+        int campo(String clase, String nombre, String descriptor) {
+            Bytes c = new Bytes();
+            c.u2(clase(clase));
+            c.u2(nombreYTipo(nombre, descriptor));
+            return agregar("F" + clase + "." + nombre + ":" + descriptor, 9, c);
+        }
+
+        int metodo(String clase, String nombre, String descriptor) {
+            Bytes c = new Bytes();
+            c.u2(clase(clase));
+            c.u2(nombreYTipo(nombre, descriptor));
+            return agregar("M" + clase + "." + nombre + ":" + descriptor, 10, c);
+        }
+
+        int cantidad() {
+            return siguiente;
+        }
+    }
+
+    /** Arreglo de bytes que crece, con escritura big-endian. */
+    private static final class Bytes {
+        private byte[] datos = new byte[64];
+        private int tamano = 0;
+
+        void u1(int v) {
+            if (tamano == datos.length) datos = Arrays.copyOf(datos, tamano * 2);
+            datos[tamano++] = (byte) v;
+        }
+
+        void u2(int v) {
+            u1(v >>> 8);
+            u1(v);
+        }
+
+        void u4(int v) {
+            u2(v >>> 16);
+            u2(v);
+        }
+
+        void agregar(byte[] b, int n) {
+            for (int i = 0; i < n; i++) u1(b[i]);
+        }
+
+        void agregar(Bytes otro) {
+            agregar(otro.datos, otro.tamano);
+        }
+
+        // Reescribe un u2 ya escrito (desplazamiento de un salto)
+        void parchear2(int posicion, int v) {
+            datos[posicion] = (byte) (v >>> 8);
+            datos[posicion + 1] = (byte) v;
+        }
+
+        int tamano() {
+            return tamano;
+        }
+    }
+
+    /** Destino de saltos dentro de una unidad; los saltos anteriores se parchean al colocarla. */
+    private static final class Etiqueta {
+        int posicion = -1;
+        final List<Integer> saltos = new ArrayList<>(2);
+    }
+
+    /**
+     * Código de una unidad (un comando de nivel superior o un if completo con todo
+     * lo que contiene). Todos sus saltos quedan dentro, así que las unidades se
+     * pueden concatenar sin tocar los desplazamientos; solo se corren los marcos.
+     */
+    private static final class Unidad {
+        final Bytes codigo = new Bytes();
+        final List<Integer> marcos = new ArrayList<>();
+
+        void salto(int opcode, Etiqueta destino) {
+            destino.saltos.add(codigo.tamano());
+            codigo.u1(opcode);
+            codigo.u2(0);
+        }
+
+        void colocar(Etiqueta etiqueta) {
+            etiqueta.posicion = codigo.tamano();
+            for (int salto : etiqueta.saltos) codigo.parchear2(salto + 1, etiqueta.posicion - salto);
+            // Varios destinos en la misma posición comparten marco
+            if (marcos.isEmpty() || marcos.get(marcos.size() - 1) != etiqueta.posicion) marcos.add(etiqueta.posicion);
+        }
+    }
+
+    private static final class GeneradorClase {
+        private final ProgramaDSL programa;
+        private final Constantes constantes = new Constantes();
+
+        GeneradorClase(ProgramaDSL programa) {
+            this.programa = programa;
+        }
+
+        // Bytes de la clase, o null si el programa no se puede compilar
+        byte[] generar() {
+            // Unidades de nivel superior
+            List<Unidad> unidades = new ArrayList<>();
+            int i = 0;
+            while (i < programa.tamano()) {
+                Unidad unidad = new Unidad();
+                i = compilarUnidad(unidad, i);
+                if (unidad.codigo.tamano() > LIMITE_METODO) return null;
+                unidades.add(unidad);
+            }
+
+            // Reparto en métodos
+            Bytes metodos = new Bytes();
+            int numMetodos = 0;
+            List<String> partes = new ArrayList<>();
+            int u = 0;
+            while (u < unidades.size()) {
+                int desde = u;
+                int bytes = 0;
+                while (u < unidades.size() && (u == desde || bytes + unidades.get(u).codigo.tamano() <= LIMITE_METODO)) {
+                    bytes += unidades.get(u++).codigo.tamano();
+                }
+                String nombre = "parte" + partes.size();
+                partes.add(nombre);
+                escribirParte(metodos, nombre, unidades.subList(desde, u));
+                numMetodos++;
+            }
+            escribirConstructor(metodos);
+            escribirEjecutar(metodos, partes);
+            numMetodos += 2;
+
+            int estaClase = constantes.clase(NOMBRE_CLASE);
+            int superclase = constantes.clase("java/lang/Object");
+            int interfaz = constantes.clase("ProgramaCompilado");
+            int nombreCampo = constantes.utf8("programa");
+            int tipoCampo = constantes.utf8("L" + PROGRAMA + ";");
+            if (constantes.cantidad() > 0xFFFF) return null;
+
+            Bytes clase = new Bytes();
+            clase.u4(0xCAFEBABE);
+            clase.u2(0);
+            clase.u2(61); // Java 17
+            clase.u2(constantes.cantidad());
+            clase.agregar(constantes.datos);
+            clase.u2(0x0010 | 0x0020); // ACC_FINAL | ACC_SUPER
+            clase.u2(estaClase);
+            clase.u2(superclase);
+            clase.u2(1);
+            clase.u2(interfaz);
+            clase.u2(1);
+            clase.u2(0x0002 | 0x0010); // private final ProgramaDSL programa
+            clase.u2(nombreCampo);
+            clase.u2(tipoCampo);
+            clase.u2(0);
+            clase.u2(numMetodos);
+            clase.agregar(metodos);
+            clase.u2(0);
+            return Arrays.copyOf(clase.datos, clase.tamano());
+        }
+
+        // Compila el comando i (y, si es un SI, todo su bloque); devuelve el siguiente
+        private int compilarUnidad(Unidad unidad, int i) {
+            int profundidad = 0;
+            List<Etiqueta[]> abiertos = new ArrayList<>();
+            do {
+                switch (programa.getOperacion(i)) {
+                    case SI -> {
+                        // [falso, fin]
+                        Etiqueta[] etiquetas = { new Etiqueta(), new Etiqueta() };
+                        abiertos.add(etiquetas);
+                        delegar(unidad, i, "condicion", "(L" + PROGRAMA + ";I)Z");
+                        unidad.salto(IFEQ, etiquetas[0]);
+                        profundidad++;
+                    }
+                    case SINO -> {
+                        Etiqueta[] etiquetas = abiertos.get(abiertos.size() - 1);
+                        unidad.salto(GOTO, etiquetas[1]);
+                        unidad.colocar(etiquetas[0]);
+                    }
+                    case FIN_SI -> {
+                        Etiqueta[] etiquetas = abiertos.remove(abiertos.size() - 1);
+                        if (etiquetas[0].posicion < 0) unidad.colocar(etiquetas[0]);
+                        if (!etiquetas[1].saltos.isEmpty()) unidad.colocar(etiquetas[1]);
+                        profundidad--;
+                    }
+                    default -> compilarComando(unidad, i);
+                }
+                i++;
+            } while (profundidad > 0 && i < programa.tamano());
+            return i;
+        }
+
+        // interprete.metodo(programa, i)
+        private void delegar(Unidad unidad, int i, String metodo, String descriptor) {
+            Bytes c = unidad.codigo;
+            c.u1(ALOAD_0 + LOCAL_INTERPRETE);
+            c.u1(ALOAD_0);
+            c.u1(GETFIELD);
+            c.u2(constantes.campo(NOMBRE_CLASE, "programa", "L" + PROGRAMA + ";"));
+            indiceComando(c, i);
+            c.u1(INVOKEVIRTUAL);
+            c.u2(constantes.metodo(INTERPRETE, metodo, descriptor));
+        }
+
+        // Comando sin la versión directa: interprete.ejecutarComando(programa, i) y vuelco de salida
+        private void generico(Unidad unidad, int i) {
+            delegar(unidad, i, "ejecutarComando", "(L" + PROGRAMA + ";I)V");
+            unidad.codigo.u1(ALOAD_0 + LOCAL_INTERPRETE);
+            unidad.codigo.u1(INVOKEVIRTUAL);
+            unidad.codigo.u2(constantes.metodo(INTERPRETE, "comprobarSalida", "()V"));
+        }
+
+        // Los índices grandes se arman con (alto << 15) | bajo para no gastar una constante por comando
+        private void indiceComando(Bytes c, int i) {
+            if (i <= Short.MAX_VALUE) {
+                constante(c, i);
+                return;
+            }
+            c.u1(SIPUSH);
+            c.u2(i >>> 15);
+            c.u1(BIPUSH);
+            c.u1(15);
+            c.u1(ISHL);
+            c.u1(SIPUSH);
+            c.u2(i & 0x7FFF);
+            c.u1(IOR);
+        }
+
+        private void constante(Bytes c, int v) {
+            if (v >= -1 && v <= 5) {
+                c.u1(ICONST_0 + v);
+            } else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) {
+                c.u1(BIPUSH);
+                c.u1(v);
+            } else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+                c.u1(SIPUSH);
+                c.u2(v);
+            } else {
+                c.u1(LDC_W);
+                c.u2(constantes.entero(v));
+            }
+        }
+
+        // Exactamente n operandos numéricos
+        private boolean numeros(int i, int n) {
+            if (programa.getNumOperandos(i) != n) return false;
+            for (int k = 0; k < n; k++) {
+                if (programa.getTipoOperando(i, k) != ProgramaDSL.NUMERO) return false;
+            }
+            return true;
+        }
+
+        // estructura.metodo(operandos...) descartando el resultado si lo hay
+        private void directo(Unidad unidad, int i, Estructura e, String metodo, String descriptor, int operandos) {
+            Bytes c = unidad.codigo;
+            c.u1(ALOAD);
+            c.u1(localDe(e));
+            for (int k = 0; k < operandos; k++) constante(c, programa.getOperando(i, k));
+            c.u1(INVOKEVIRTUAL);
+            c.u2(constantes.metodo(claseDe(e), metodo, descriptor));
+            if (!descriptor.endsWith("V")) c.u1(POP);
+        }
+
+        // if (!estructura.vacia()) estructura.metodo(); else ejecutarComando (que da el error)
+        private void eliminacion(Unidad unidad, int i, Estructura e, String metodo) {
+            Etiqueta vacia = new Etiqueta();
+            Etiqueta fin = new Etiqueta();
+            Bytes c = unidad.codigo;
+            c.u1(ALOAD);
+            c.u1(localDe(e));
+            c.u1(INVOKEVIRTUAL);
+            c.u2(constantes.metodo(claseDe(e), "estaVacia", "()Z"));
+            unidad.salto(IFNE, vacia);
+            directo(unidad, i, e, metodo, "()I", 0);
+            unidad.salto(GOTO, fin);
+            unidad.colocar(vacia);
+            generico(unidad, i);
+            unidad.colocar(fin);
+        }
+
+        /**
+         * Las mismas reglas que InterpreteDSL para las operaciones que no escriben
+         * salida y no fallan con operandos constantes; el resto se delega.
+         */
+        private void compilarComando(Unidad unidad, int i) {
+            Operacion op = programa.getOperacion(i);
+            Estructura e = programa.getEstructura(i);
+            int n = programa.getNumOperandos(i);
+            if (e == null) {
+                generico(unidad, i);
+                return;
+            }
+            switch (e) {
+                case PILA, PILA_CIRCULAR -> {
+                    switch (op) {
+                        case APILAR, PUSH, INSERTAR -> {
+                            if (numeros(i, 1)) {
+                                directo(unidad, i, e, "apilar", "(I)V", 1);
+                                return;
+                            }
+                        }
+                        case DESAPILAR, POP, ELIMINAR -> {
+                            if (n == 0) {
+                                eliminacion(unidad, i, e, "desapilar");
+                                return;
+                            }
+                        }
+                        default -> {
+                            // Se delega
+                        }
+                    }
+                }
+                case COLA, BICOLAS -> {
+                    switch (op) {
+                        case ENCOLAR, ENQUEUE, INSERTAR, INSERTAR_FINAL -> {
+                            if (numeros(i, 1)) {
+                                directo(unidad, i, e, "insertarFinal", "(I)V", 1);
+                                return;
+                            }
+                        }
+                        case DESENCOLAR, DEQUEUE, ELIMINAR, ELIMINAR_FRENTE, ELIMINAR_INICIO -> {
+                            if (n == 0) {
+                                eliminacion(unidad, i, e, "eliminarInicio");
+                                return;
+                            }
+                        }
+                        case INSERTAR_INICIO -> {
+                            if (e == Estructura.BICOLAS && numeros(i, 1)) {
+                                directo(unidad, i, e, "insertarInicio", "(I)V", 1);
+                                return;
+                            }
+                        }
+                        case ELIMINAR_FINAL -> {
+                            if (e == Estructura.BICOLAS && n == 0) {
+                                eliminacion(unidad, i, e, "eliminarFinal");
+                                return;
+                            }
+                        }
+                        default -> {
+                            // Se delega
+                        }
+                    }
+                }
+                case LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA, LISTA_CIRCULAR -> {
+                    switch (op) {
+                        case INSERTAR, INSERTAR_FINAL -> {
+                            if (numeros(i, 1)) {
+                                directo(unidad, i, e, "insertarFinal", "(I)V", 1);
+                                return;
+                            }
+                        }
+                        case INSERTAR_INICIO -> {
+                            if (numeros(i, 1)) {
+                                directo(unidad, i, e, "insertarInicio", "(I)V", 1);
+                                return;
+                            }
+                        }
+                        case ELIMINAR_INICIO, ELIMINAR_FRENTE -> {
+                            if (n == 0) {
+                                eliminacion(unidad, i, e, "eliminarInicio");
+                                return;
+                            }
+                        }
+                        case ELIMINAR_FINAL -> {
+                            if (n == 0) {
+                                eliminacion(unidad, i, e, "eliminarFinal");
+                                return;
+                            }
+                        }
+                        default -> {
+                            // Se delega
+                        }
+                    }
+                }
+                case GRAFOS -> {
+                    if (op == Operacion.AGREGARNODO && numeros(i, 1)) {
+                        directo(unidad, i, e, "agregarNodo", "(I)Z", 1);
+                        return;
+                    }
+                    // Sin peso vale 1; un peso negativo se delega para que dé el error
+                    if (op == Operacion.AGREGARARISTA && (numeros(i, 2)
+                            || (numeros(i, 3) && programa.getOperando(i, 2) >= 0))) {
+                        Bytes c = unidad.codigo;
+                        c.u1(ALOAD);
+                        c.u1(localDe(e));
+                        constante(c, programa.getOperando(i, 0));
+                        constante(c, programa.getOperando(i, 1));
+                        constante(c, n == 3 ? programa.getOperando(i, 2) : 1);
+                        c.u1(INVOKEVIRTUAL);
+                        c.u2(constantes.metodo(claseDe(e), "agregarArista", "(III)V"));
+                        return;
+                    }
+                }
+                case ARBOL_BINARIO -> {
+                    if (op == Operacion.INSERTARIZQUIERDA && numeros(i, 1)) {
+                        directo(unidad, i, e, "insertarIzquierda", "(I)I", 1);
+                        return;
+                    }
+                    if (op == Operacion.INSERTARDERECHA && numeros(i, 1)) {
+                        directo(unidad, i, e, "insertarDerecha", "(I)I", 1);
+                        return;
+                    }
+                }
+                case TABLAS_HASH -> {
+                    if ((op == Operacion.CLAVE || op == Operacion.INSERTAR) && numeros(i, 2)) {
+                        directo(unidad, i, e, "poner", "(II)Z", 2);
+                        return;
+                    }
+                }
+                default -> {
+                    // Se delega
+                }
+            }
+            generico(unidad, i);
+        }
+
+        // private void parteN(InterpreteDSL): carga las estructuras y ejecuta sus unidades
+        private void escribirParte(Bytes metodos, String nombre, List<Unidad> unidades) {
+            Bytes codigo = new Bytes();
+            for (int k = 0; k < ESTRUCTURAS.length; k++) {
+                Estructura e = ESTRUCTURAS[k];
+                codigo.u1(ALOAD_0 + LOCAL_INTERPRETE);
+                if (claseDe(e).equals("ListaEnteros")) {
+                    codigo.u1(GETSTATIC);
+                    codigo.u2(constantes.campo("Estructura", e.name(), "LEstructura;"));
+                    codigo.u1(INVOKEVIRTUAL);
+                    codigo.u2(constantes.metodo(INTERPRETE, getterDe(e), "(LEstructura;)LListaEnteros;"));
+                } else {
+                    codigo.u1(INVOKEVIRTUAL);
+                    codigo.u2(constantes.metodo(INTERPRETE, getterDe(e), "()L" + claseDe(e) + ";"));
+                }
+                codigo.u1(ASTORE);
+                codigo.u1(2 + k);
+            }
+            List<Integer> marcos = new ArrayList<>();
+            for (Unidad unidad : unidades) {
+                int base = codigo.tamano();
+                for (int marco : unidad.marcos) marcos.add(base + marco);
+                codigo.agregar(unidad.codigo);
+            }
+            codigo.u1(RETURN);
+
+            Bytes tabla = null;
+            if (!marcos.isEmpty()) {
+                // Las locales son las mismas en todos los destinos: un marco completo y luego "same_frame"
+                tabla = new Bytes();
+                tabla.u2(marcos.size());
+                int anterior = -1;
+                for (int marco : marcos) {
+                    int delta = anterior < 0 ? marco : marco - anterior - 1;
+                    if (anterior < 0) {
+                        tabla.u1(255);
+                        tabla.u2(delta);
+                        tabla.u2(NUM_LOCALES);
+                        tabla.u1(7);
+                        tabla.u2(constantes.clase(NOMBRE_CLASE));
+                        tabla.u1(7);
+                        tabla.u2(constantes.clase(INTERPRETE));
+                        for (Estructura e : ESTRUCTURAS) {
+                            tabla.u1(7);
+                            tabla.u2(constantes.clase(claseDe(e)));
+                        }
+                        tabla.u2(0);
+                    } else if (delta < 64) {
+                        tabla.u1(delta);
+                    } else {
+                        tabla.u1(251);
+                        tabla.u2(delta);
+                    }
+                    anterior = marco;
+                }
+            }
+            escribirMetodo(metodos, 0x0002, nombre, "(L" + INTERPRETE + ";)V", MAXIMO_PILA, NUM_LOCALES, codigo, tabla);
+        }
+
+        // ScriptCompilado(ProgramaDSL programa)
+        private void escribirConstructor(Bytes metodos) {
+            Bytes codigo = new Bytes();
+            codigo.u1(ALOAD_0);
+            codigo.u1(INVOKESPECIAL);
+            codigo.u2(constantes.metodo("java/lang/Object", "<init>", "()V"));
+            codigo.u1(ALOAD_0);
+            codigo.u1(ALOAD_0 + 1);
+            codigo.u1(PUTFIELD);
+            codigo.u2(constantes.campo(NOMBRE_CLASE, "programa", "L" + PROGRAMA + ";"));
+            codigo.u1(RETURN);
+            escribirMetodo(metodos, 0x0001, "<init>", "(L" + PROGRAMA + ";)V", 2, 2, codigo, null);
+        }
+
+        // public void ejecutar(InterpreteDSL): llama a las partes en orden y vuelca la salida
+        private void escribirEjecutar(Bytes metodos, List<String> partes) {
+            Bytes codigo = new Bytes();
+            for (String parte : partes) {
+                codigo.u1(ALOAD_0);
+                codigo.u1(ALOAD_0 + LOCAL_INTERPRETE);
+                codigo.u1(INVOKESPECIAL);
+                codigo.u2(constantes.metodo(NOMBRE_CLASE, parte, "(L" + INTERPRETE + ";)V"));
+            }
+            codigo.u1(ALOAD_0 + LOCAL_INTERPRETE);
+            codigo.u1(INVOKEVIRTUAL);
+            codigo.u2(constantes.metodo(INTERPRETE, "vaciar", "()V"));
+            codigo.u1(RETURN);
+            escribirMetodo(metodos, 0x0001, "ejecutar", "(L" + INTERPRETE + ";)V", 2, 2, codigo, null);
+        }
+
+        private void escribirMetodo(Bytes metodos, int acceso, String nombre, String descriptor,
+                                    int maximoPila, int locales, Bytes codigo, Bytes marcos) {
+            metodos.u2(acceso);
+            metodos.u2(constantes.utf8(nombre));
+            metodos.u2(constantes.utf8(descriptor));
+            metodos.u2(1);
+            metodos.u2(constantes.utf8("Code"));
+            int atributoMarcos = marcos == null ? 0 : 6 + marcos.tamano();
+            metodos.u4(12 + codigo.tamano() + atributoMarcos);
+            metodos.u2(maximoPila);
+            metodos.u2(locales);
+            metodos.u4(codigo.tamano());
+            metodos.agregar(codigo);
+            metodos.u2(0); // sin tabla de excepciones
+            if (marcos == null) {
+                metodos.u2(0);
+            } else {
+                metodos.u2(1);
+                metodos.u2(constantes.utf8("StackMapTable"));
+                metodos.u4(marcos.tamano());
+                metodos.agregar(marcos);
+            }
+        }
+    }
+}
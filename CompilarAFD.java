@@ -0,0 +1,22 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Paso de compilación del autómata: genera el AFD del DSL, lo minimiza y lo guarda
+ * en un archivo binario. Los procesos de corta duración pueden cargarlo con
+ * -Ddsl.afd=ruta (ver DSLCore.obtenerAFD) en lugar de reconstruirlo en cada arranque.
+ *
+ * Uso: java CompilarAFD dsl.afd
+ */
+public class CompilarAFD {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java CompilarAFD <archivo de salida>");
+            System.exit(1);
+        }
+        Path destino = Path.of(args[0]);
+        DSLCore.crearAFD().guardar(destino);
+        System.out.println("AFD compilado guardado en " + destino);
+    }
+}
@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.function.BiConsumer;
 
@@ -10,25 +15,10 @@ public class DSLCore {
 
     // --- 1. Definición de Palabras Reservadas Finales ---
 
-    // Conjunto de estados de aceptación (Palabras Reservadas completas). 
-    // Esta es la ÚNICA lista manual necesaria.
+    // Conjunto de estados de aceptación (Palabras Reservadas completas).
+    // Sale del registro único PalabrasReservadas, que también da el tipo de cada palabra.
     private static Set<String> getEstadosAceptacionDSL() {
-        return Set.of(
-            // Estructuras
-            "PILA", "PILA_CIRCULAR", "COLA", "BICOLAS", "LISTA_ENLAZADAS", "LISTA_DOBLE_ENLAZADA", "LISTA_CIRCULAR", "ARBOL_BINARIO", "TABLAS_HASH", "GRAFOS",
-            // Acciones/Operaciones
-            "INSERTAR", "INSERTAR_FINAL", "INSERTAR_INICIO", "INSERTAR_EN_POSICION", "INSERTARIZQUIERDA", "INSERTARDERECHA", "AGREGARNODO", "APILAR", "ENCOLAR", "PUSH", "ENQUEUE",
-            "ELIMINAR", "ELIMINAR_INICIO", "ELIMINAR_FINAL", "ELIMINAR_FRENTE", "ELIMINAR_POSICION", "ELIMINARNODO", "DESAPILAR", "POP", "DESENCOLAR", "DEQUEUE",
-            "BUSCAR", "TOPE", "FRENTE", "PEEK", "VERFILA", "FRONT", "CLAVE",
-            "RECORRER", "RECORRERADELANTE", "RECORRERATRAS", "PREORDEN", "INORDEN", "POSTORDEN", "RECORRIDOPORNIVELES",
-            "ACTUALIZAR", "REHASH", "AGREGARARISTA", "ELIMINARARISTA", "VECINOS", "BFS", "DFS", "CAMINOCORTO",
-            // Propiedades/Verificación
-            "VACIAT", "LLENAT", "TAMAÑO", "ALTURA", "HOJAS", "NODOS",
-            // Auxiliares
-            "EN", "CON", "VALOR",
-            // Palabras Clave de Control
-             "MOSTRAR"
-        );
+        return PalabrasReservadas.palabras();
     }
 
     // --- 2. Generación Dinámica del AFD ---
@@ -67,24 +57,24 @@ public class DSLCore {
         for (String pr : getEstadosAceptacionDSL()) {
             //String estadoOrigen = "INICIO";
             // recorre desde 0 hasta su tamaño
+            // el primer origen es el estado inicial; después, el destino anterior
+            String origen = "INICIO";
             for (int i = 0; i < pr.length(); i++) {
                 // variable simbolo
                 char simbolo = pr.charAt(i);
                // esta letra ira a una posicion mas de su resultado
                 String estadoDestino = pr.substring(0, i + 1);
-                
-               // se valida que no sea el primer estado
-                String origen = (i == 0) ? "INICIO" : pr.substring(0, i);
 
                 transiciones.get(origen)
                             .put(simbolo, estadoDestino); // define la transicion al estado de destino 
+                origen = estadoDestino;
             }
         }
         return transiciones;
     }
 
     // Conjunto de caracteres en mayúsculas, dígitos y '_' (necesario para el AFD)
-    private static Set<Character> getAlfabetoDSL() {
+    static Set<Character> getAlfabetoDSL() {
         Set<Character> alfabeto = new HashSet<>();
         for (char c = 'A'; c <= 'Z'; c++) alfabeto.add(c);
         for (char c = '0'; c <= '9'; c++) alfabeto.add(c);
@@ -92,62 +82,174 @@ public class DSLCore {
         return alfabeto;
     }
     
-    // --- 3. Funciones de Tokenización (Pre-procesamiento) ---
+    /**
+     * Construye el AFD del DSL a partir de las palabras reservadas.
+     */
+    public static AFD crearAFD() {
+        return crearAFD(AFD.Motor.TRIE);
+    }
+
+    /**
+     * Construye el AFD del DSL con el motor de palabras reservadas indicado.
+     */
+    public static AFD crearAFD(AFD.Motor motor) {
+        if (motor == AFD.Motor.HASH_PERFECTO) {
+            return AFD.conReconocedor(ReconocedorHash.generar(PalabrasReservadas.TIPOS));
+        }
+        return new AFD(
+            getEstadosDSL(),
+            getAlfabetoDSL(),
+            getTransicionesDSL(),
+            "INICIO",
+            getEstadosAceptacionDSL()
+        );
+    }
+
+    // Propiedad del sistema con la ruta de un AFD ya compilado (ver CompilarAFD)
+    public static final String PROPIEDAD_AFD_COMPILADO = "dsl.afd";
+
+    // Propiedad del sistema con el motor de palabras reservadas (TRIE o HASH_PERFECTO)
+    public static final String PROPIEDAD_MOTOR = "dsl.motor";
+
+    // Propiedad del sistema con un archivo de palabras reservadas recargable (ver VocabularioDinamico)
+    public static final String PROPIEDAD_PALABRAS = "dsl.palabras";
+
+    // Propiedad del sistema con un archivo de instantánea: se restaura antes de ejecutar y se guarda después
+    public static final String PROPIEDAD_INSTANTANEA = "dsl.instantanea";
+
+    /**
+     * AFD compartido del DSL. Como es inmutable, se construye una sola vez por proceso;
+     * si la propiedad dsl.afd apunta a un autómata compilado, se carga de ese archivo
+     * en lugar de generarlo. La propiedad dsl.motor elige el motor de palabras reservadas.
+     * Con dsl.palabras las palabras salen de ese archivo y cada cambio del archivo
+     * publica un AFD nuevo: quien llama a obtenerAFD() recibe la versión vigente.
+     */
+    public static AFD obtenerAFD() {
+        VocabularioDinamico vocabulario = AFDCompartido.VOCABULARIO;
+        return vocabulario != null ? vocabulario.obtener() : AFDCompartido.INSTANCIA;
+    }
+
+    private static final class AFDCompartido {
+        static final AFD.Motor MOTOR = leerMotor();
+        static final VocabularioDinamico VOCABULARIO = cargarVocabulario();
+        static final AFD INSTANCIA = VOCABULARIO == null ? cargarOCrear() : null;
+
+        private static VocabularioDinamico cargarVocabulario() {
+            String ruta = System.getProperty(PROPIEDAD_PALABRAS);
+            if (ruta == null) return null;
+            try {
+                VocabularioDinamico vocabulario = new VocabularioDinamico(Path.of(ruta), MOTOR);
+                vocabulario.vigilar();
+                return vocabulario;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("No se pudo cargar el vocabulario (" + ruta + "): " + e.getMessage()
+                        + ". Se usan las palabras reservadas integradas.");
+                return null;
+            }
+        }
+
+        private static AFD cargarOCrear() {
+            String ruta = System.getProperty(PROPIEDAD_AFD_COMPILADO);
+            if (ruta != null) {
+                try {
+                    // Un archivo de una versión anterior del registro se descarta y se regenera
+                    return AFD.cargar(Path.of(ruta), PalabrasReservadas.TIPOS);
+                } catch (IOException e) {
+                    System.err.println("No se pudo cargar el AFD compilado (" + ruta + "): " + e.getMessage()
+                            + ". Se genera de nuevo.");
+                }
+            }
+            return crearAFD(MOTOR);
+        }
+
+        // Un valor desconocido se informa y usa TRIE: un error aquí inutilizaría obtenerAFD() para siempre
+        private static AFD.Motor leerMotor() {
+            String nombre = System.getProperty(PROPIEDAD_MOTOR, AFD.Motor.TRIE.name());
+            try {
+                return AFD.Motor.valueOf(nombre);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Motor de palabras reservadas desconocido (" + nombre + "). Se usa TRIE.");
+                return AFD.Motor.TRIE;
+            }
+        }
+    }
     
     /**
-     * Pre-tokeniza una línea separando lexemas por espacios y delimitadores.
+     * Especificación léxica completa del DSL para GeneradorLexer: todas las clases de
+     * token (palabras reservadas, identificadores, literales, operadores y errores)
+     * en un solo lugar, en orden de prioridad.
      */
-    public static String[] tokenizarLinea(String entrada) {
-        // Manejo de comentarios
-        int indiceComentario = entrada.indexOf("//");
-        if (indiceComentario != -1) {
-            entrada = entrada.substring(0, indiceComentario);
+    public static EspecificacionLexica especificacionLexica() {
+        EspecificacionLexica especificacion = new EspecificacionLexica()
+            // Espacios, saltos de línea y comentarios // hasta el fin de línea
+            .omitir("[ \t\u000B\f\r\n]+")
+            .omitir("//[^\n]*")
+            // Palabras reservadas (ganan sobre el identificador de la misma longitud)
+            .palabras(PalabrasReservadas.TIPOS)
+            .patron("[\\L_][\\L\\D_]*", TipoToken.IDENTIFICADOR)
+            // Literales
+            .patron("\\D+", TipoToken.LITERAL_NUMERICA)
+            .patron("\"[^\"\\n]*\"", TipoToken.LITERAL_CADENA)
+            .patron("\"[^\"\\n]*", TipoToken.ERROR_CADENA_INCOMPLETA)
+            // Operadores compuestos
+            .literal("==", TipoToken.OP_IGUAL)
+            .literal("!=", TipoToken.OP_DIFERENTE)
+            .literal("<=", TipoToken.OP_MENOR_IGUAL)
+            .literal(">=", TipoToken.OP_MAYOR_IGUAL)
+            .literal("&&", TipoToken.OP_LOGICO)
+            .literal("||", TipoToken.OP_LOGICO);
+
+        // Delimitadores y operadores de un carácter
+        String simbolos = ";()[],=+-*/<>{}.";
+        TipoToken[] tipos = {
+            TipoToken.DELIMITADOR, TipoToken.PARENTESIS_IZQ, TipoToken.PARENTESIS_DER,
+            TipoToken.CORCHETE_IZQ, TipoToken.CORCHETE_DER, TipoToken.COMA, TipoToken.ASIGNACION,
+            TipoToken.OP_SUMA, TipoToken.OP_RESTA, TipoToken.OP_MULTIPLICACION, TipoToken.OP_DIVISION,
+            TipoToken.OP_MENOR_QUE, TipoToken.OP_MAYOR_QUE, TipoToken.LLAVE_IZQ, TipoToken.LLAVE_DER,
+            TipoToken.OP_PUNTO
+        };
+        for (int i = 0; i < simbolos.length(); i++) {
+            especificacion.literal(String.valueOf(simbolos.charAt(i)), tipos[i]);
         }
-        
-        // Normalizar espacios
-        String tokenizada = entrada.trim().replaceAll("\\s+", " ");
 
-        // Separar operadores y delimitadores
-        tokenizada = tokenizada.replaceAll("([\\Q(){}[]|,;=+-*/<>\u0021&|.\\E])", " $1 ");
+        return especificacion
+            // Errores: número pegado a letras, y cualquier otro carácter suelto
+            .patron("\\D+[\\L\\D_]+", TipoToken.ERROR_TOKEN_MALFORMADO)
+            .patron(".", TipoToken.ERROR_SIMBOLO_INVALIDO);
+    }
 
-        // Normalizar espacios y limpiar
-        tokenizada = tokenizada.trim().replaceAll("\\s+", " ");
+    /**
+     * Genera el analizador léxico de una sola pasada (un único AFD combinado) a partir
+     * de especificacionLexica().
+     */
+    public static LexerGenerado crearLexerGenerado() {
+        return GeneradorLexer.generar(especificacionLexica());
+    }
 
-        if (tokenizada.isEmpty()) return new String[0];
-        String[] tokens = tokenizada.split(" ");
-        
+    // --- 3. Funciones de Tokenización (Pre-procesamiento) ---
+    
+    /**
+     * Pre-tokeniza una línea separando lexemas por espacios y delimitadores.
+     * Usa el escáner de una sola pasada de PreTokenizador (sin expresiones regulares).
+     */
+    public static String[] tokenizarLinea(String entrada) {
         List<String> listaTokens = new ArrayList<>();
-        for (int i = 0; i < tokens.length; i++) {
-            String t = tokens[i];
-            
-         
-            listaTokens.add(t);
-        }
+        PreTokenizador.escanear(entrada, 0, entrada.length(), 1,
+                (inicio, fin, linea) -> listaTokens.add(entrada.substring(inicio, fin)));
         return listaTokens.toArray(new String[0]);
     }
 
     /**
-     * Itera sobre todas las líneas del código fuente para generar tokens iniciales.
+     * Recorre el código fuente completo en una sola pasada para generar tokens iniciales.
+     * Usa EscanerLimites, que busca los límites con la Vector API cuando está disponible.
      */
-    
-   
     public static Token[] tokenizador(String entrada) {
-        // Hace un arreglo de tipo string con las lineas, separandolas por cada salto de linea
-        String[] lineas = entrada.split("\n");
-   
-        // Crea un listatokens
+        // Crea un listatokens; el escáner lleva la cuenta de las líneas
+        MetricasLexer.EventoFase evento = MetricasLexer.iniciar();
         List<Token> listaTokens = new ArrayList<>();
-        int numLinea = 1;
-        //Recorre todas las linea 
-        for (String linea : lineas) {
-            String[] toks = tokenizarLinea(linea);
-            for (String t : toks) {
-                if (!t.trim().isEmpty()) {
-                    listaTokens.add(new Token(t, numLinea));
-                }
-            }
-            numLinea++;
-        }
+        EscanerLimites.escanear(entrada, 0, entrada.length(), 1,
+                (inicio, fin, linea) -> listaTokens.add(new Token(entrada.substring(inicio, fin), linea)));
+        MetricasLexer.terminarPreTokenizacion(evento, entrada.length(), listaTokens.size());
         return listaTokens.toArray(new Token[0]);
     }
     
@@ -157,13 +259,7 @@ public class DSLCore {
     public static void main(String[] args) {
         
         // 1. Inicialización del AFD con las reglas del DSL
-        AFD afd = new AFD(
-            getEstadosDSL(),
-            getAlfabetoDSL(),
-            getTransicionesDSL(),
-            "INICIO",
-            getEstadosAceptacionDSL()
-        );
+        AFD afd = obtenerAFD();
 
         // 2. Código de prueba con la sintaxis del DSL EXPANDIDA
         String codigo = """
@@ -202,24 +298,78 @@ public class DSLCore {
         Token[] tablaSimbolos = afd.aceptar(tokens);
         
         System.out.println("\n=== Fase 2: Tabla de Símbolos (Clasificación Léxica) ===");
-        System.out.println("Lexema\t\t\tLínea\tTipoToken\t\tEstado Final\tReconocido");
-        System.out.println("--------------------\t-----\t------------------\t------------\t----------");
-        
+        // La tabla se escribe con una salida de ancho fijo sobre System.out (sin printf por token)
+        try (SalidaTexto salida = new SalidaTexto(Channels.newChannel(System.out), false)) {
+            salida.escribir(tablaSimbolos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
         int erroresEncontrados = 0;
         for (Token tk : tablaSimbolos) {
-            System.out.printf("%-20s\t%-5d\t%-18s\t%-12s\t%-10s\n",
-                tk.getLexema(),
-                tk.getLinea(),
-                tk.getTipoToken(),
-                tk.getEstadoFinal(),
-                tk.existeSimbolo() ? "Sí" : "No"
-            );
-            if (tk.getTipoToken().startsWith("ERROR")) {
+            if (tk.getTipo().esError()) {
                 erroresEncontrados++;
             }
         }
         
         System.out.println("\nResumen: " + tablaSimbolos.length + " tokens procesados. " +
                            erroresEncontrados + " errores léxicos.");
+
+        // 5. Tabla de símbolos real: cada identificador y literal una sola vez, con su id
+        TablaSimbolos simbolos = new TablaSimbolos();
+        simbolos.registrar(tablaSimbolos);
+
+        System.out.println("\n=== Identificadores y Literales (Tabla de Símbolos internada) ===");
+        System.out.println("Id\tSímbolo\t\t\tTipoToken\t\tApariciones\tLíneas");
+        for (int id = 0; id < simbolos.tamano(); id++) {
+            System.out.printf("%-4d\t%-20s\t%-18s\t%-11d\t%d-%d\n",
+                id,
+                simbolos.getTexto(id),
+                simbolos.getTipo(id).getEtiqueta(),
+                simbolos.getOcurrencias(id),
+                simbolos.getPrimeraLinea(id),
+                simbolos.getUltimaLinea(id)
+            );
+        }
+
+        // 6. Fase 3: comandos (el análisis sintáctico va en la misma pasada que el léxico)
+        ProgramaDSL programa = AnalizadorSentencias.analizar(codigo, afd);
+        System.out.println("\n=== Fase 3: Comandos ===");
+        for (int i = 0; i < programa.tamano(); i++) {
+            System.out.println(programa.getLinea(i) + "\t" + programa.describir(i));
+        }
+        for (String error : programa.getErrores()) {
+            System.out.println("Error sintáctico: " + error);
+        }
+
+        // 7. Fase 4: ejecución de los comandos sobre las estructuras
+        System.out.println("\n=== Fase 4: Ejecución ===");
+        InterpreteDSL interprete = new InterpreteDSL(System.out);
+        String rutaInstantanea = System.getProperty(PROPIEDAD_INSTANTANEA);
+        Path instantanea = rutaInstantanea == null ? null : Path.of(rutaInstantanea);
+        if (instantanea != null && Files.exists(instantanea)) {
+            try {
+                InstantaneaDSL.restaurar(instantanea, interprete);
+            } catch (IOException e) {
+                System.err.println("No se pudo restaurar la instantánea (" + instantanea + "): " + e.getMessage()
+                        + ". Se empieza con las estructuras vacías.");
+            }
+        }
+        interprete.ejecutar(programa);
+        for (String error : interprete.getErrores()) {
+            System.out.println("Error de ejecución: " + error);
+        }
+        if (instantanea != null) {
+            try {
+                InstantaneaDSL.guardar(interprete, instantanea);
+            } catch (IOException e) {
+                System.err.println("No se pudo guardar la instantánea (" + instantanea + "): " + e.getMessage());
+            }
+        }
+
+        if (MetricasLexer.activas()) {
+            System.out.println("\n=== Métricas del analizador ===");
+            System.out.print(MetricasLexer.reporte());
+        }
     }
 }
@@ -0,0 +1,119 @@
+/**
+ * Pre-tokenizador por bloques con búsqueda vectorial de límites.
+ * Copia el texto en bloques de BLOQUE caracteres y un Marcador construye, para cada
+ * bloque, una máscara de bits con las posiciones que cierran un lexema (espacios,
+ * saltos de línea y delimitadores). Luego solo se visitan los bits encendidos: los
+ * lexemas son los tramos entre límites y los operadores compuestos y comentarios
+ * se resuelven como en PreTokenizador, con el mismo resultado.
+ *
+ * El marcador vectorial (vector/MarcadorVectorial.java) usa jdk.incubator.vector
+ * y se compila y ejecuta con --add-modules jdk.incubator.vector. Si el módulo o la
+ * clase no están disponibles (o con -Ddsl.simd=false) se usa PreTokenizador.
+ */
+public final class EscanerLimites {
+    // Caracteres por bloque (múltiplo de 64)
+    static final int BLOQUE = 4096;
+
+    // Propiedad del sistema para desactivar el marcador vectorial
+    public static final String PROPIEDAD_SIMD = "dsl.simd";
+
+    private static final String MODULO_VECTORIAL = "jdk.incubator.vector";
+    private static final String CLASE_VECTORIAL = "MarcadorVectorial";
+
+    /**
+     * Marca en mascara (bit i % 64 de mascara[i / 64]) cada posición i de
+     * bloque[0, largo) donde PreTokenizador.esLimite es verdadero.
+     */
+    interface Marcador {
+        void marcar(char[] bloque, int largo, long[] mascara);
+    }
+
+    // null si no hay marcador vectorial
+    private static final Marcador MARCADOR = cargarMarcador();
+
+    private EscanerLimites() {
+    }
+
+    private static Marcador cargarMarcador() {
+        if (!Boolean.parseBoolean(System.getProperty(PROPIEDAD_SIMD, "true"))) return null;
+        if (ModuleLayer.boot().findModule(MODULO_VECTORIAL).isEmpty()) return null;
+        try {
+            return (Marcador) Class.forName(CLASE_VECTORIAL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    // true si se está usando el marcador vectorial
+    public static boolean esVectorial() {
+        return MARCADOR != null;
+    }
+
+    /**
+     * Mismo contrato que PreTokenizador.escanear.
+     */
+    public static int escanear(CharSequence texto, int inicio, int fin, int lineaInicial,
+                               PreTokenizador.ReceptorLexema receptor) {
+        if (MARCADOR == null) {
+            return PreTokenizador.escanear(texto, inicio, fin, lineaInicial, receptor);
+        }
+        return escanear(texto, inicio, fin, lineaInicial, receptor, MARCADOR);
+    }
+
+    static int escanear(CharSequence texto, int inicio, int fin, int lineaInicial,
+                        PreTokenizador.ReceptorLexema receptor, Marcador marcador) {
+        char[] bloque = new char[BLOQUE];
+        long[] mascara = new long[BLOQUE / 64];
+        String cadena = texto instanceof String ? (String) texto : null;
+
+        int linea = lineaInicial;
+        int inicioLexema = inicio; // posición donde empezaría el siguiente lexema
+        int saltarHasta = inicio;  // los límites antes de esta posición ya se procesaron
+
+        for (int base = inicio; base < fin; base += BLOQUE) {
+            int largo = Math.min(BLOQUE, fin - base);
+            if (cadena != null) {
+                cadena.getChars(base, base + largo, bloque, 0);
+            } else {
+                for (int k = 0; k < largo; k++) bloque[k] = texto.charAt(base + k);
+            }
+            marcador.marcar(bloque, largo, mascara);
+
+            for (int w = 0; w < (largo + 63) >>> 6; w++) {
+                long bits = mascara[w];
+                while (bits != 0) {
+                    int i = base + (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (i < saltarHasta) continue;
+
+                    // El límite cierra el lexema en curso
+                    if (i > inicioLexema) receptor.lexema(inicioLexema, i, linea);
+
+                    char c = texto.charAt(i);
+                    if (c == '\n') {
+                        linea++;
+                        saltarHasta = i + 1;
+                    } else if (c == '/' && i + 1 < fin && texto.charAt(i + 1) == '/') {
+                        // Comentario: se salta hasta el salto de línea (que se procesa como límite)
+                        int j = i + 2;
+                        while (j < fin && texto.charAt(j) != '\n') j++;
+                        saltarHasta = j;
+                    } else if (c > ' ') {
+                        // Delimitador u operador (todos los espacios son <= ' ')
+                        int largoOperador = (i + 1 < fin && PreTokenizador.esOperadorCompuesto(c, texto.charAt(i + 1)))
+                                ? 2 : 1;
+                        receptor.lexema(i, i + largoOperador, linea);
+                        saltarHasta = i + largoOperador;
+                    } else {
+                        // Espacio
+                        saltarHasta = i + 1;
+                    }
+                    inicioLexema = saltarHasta;
+                }
+            }
+        }
+
+        if (fin > inicioLexema) receptor.lexema(inicioLexema, fin, linea);
+        return linea;
+    }
+}
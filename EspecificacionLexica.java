@@ -0,0 +1,104 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Especificación de las clases de token para GeneradorLexer: una lista ordenada de
+ * reglas, cada una con un patrón y el tipo que produce. Cuando dos reglas reconocen
+ * el mismo lexema más largo gana la que se declaró primero (prioridad por orden).
+ *
+ * Los patrones son expresiones regulares pequeñas:
+ *   c        el carácter c (los metacaracteres ( ) [ ] * + ? | . \ se escapan con \)
+ *   .        cualquier carácter
+ *   [a-z_]   clase de caracteres; [^...] es su complemento
+ *   \L  \D   letra (Character.isLetter) y dígito (Character.isDigit)
+ *   \n \t \r \f   saltos y espacios de control
+ *   r*  r+  r?  r|s  (r)
+ */
+public final class EspecificacionLexica {
+
+    /**
+     * Una regla de la especificación. tipo null indica que el lexema se omite
+     * (espacios, comentarios); nombre, si no es null, es el estado final que se
+     * reporta para los tokens de esta regla.
+     */
+    public static final class Regla {
+        private final String patron;
+        private final boolean literal;
+        private final boolean sinMayusculas;
+        private final TipoToken tipo;
+        private final String nombre;
+
+        Regla(String patron, boolean literal, boolean sinMayusculas, TipoToken tipo, String nombre) {
+            this.patron = patron;
+            this.literal = literal;
+            this.sinMayusculas = sinMayusculas;
+            this.tipo = tipo;
+            this.nombre = nombre;
+        }
+
+        public String getPatron() {
+            return patron;
+        }
+
+        // true si el patrón es un texto fijo y no una expresión regular
+        public boolean esLiteral() {
+            return literal;
+        }
+
+        // true si el texto fijo se reconoce sin distinguir mayúsculas de minúsculas
+        public boolean esSinMayusculas() {
+            return sinMayusculas;
+        }
+
+        public TipoToken getTipo() {
+            return tipo;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    private final List<Regla> reglas = new ArrayList<>();
+
+    /**
+     * Regla con un patrón (expresión regular) que produce el tipo dado.
+     */
+    public EspecificacionLexica patron(String patron, TipoToken tipo) {
+        reglas.add(new Regla(patron, false, false, tipo, null));
+        return this;
+    }
+
+    /**
+     * Texto fijo que produce el tipo dado (operadores y delimitadores).
+     */
+    public EspecificacionLexica literal(String texto, TipoToken tipo) {
+        reglas.add(new Regla(texto, true, false, tipo, null));
+        return this;
+    }
+
+    /**
+     * Palabras reservadas: cada una es un texto fijo sin distinguir mayúsculas, y la
+     * propia palabra es el estado final que se reporta.
+     */
+    public EspecificacionLexica palabras(Map<String, TipoToken> tipoPorPalabra) {
+        for (Map.Entry<String, TipoToken> e : tipoPorPalabra.entrySet()) {
+            reglas.add(new Regla(e.getKey(), true, true, e.getValue(), e.getKey()));
+        }
+        return this;
+    }
+
+    /**
+     * Patrón cuyos lexemas se reconocen pero no generan token.
+     */
+    public EspecificacionLexica omitir(String patron) {
+        reglas.add(new Regla(patron, false, false, null, null));
+        return this;
+    }
+
+    public List<Regla> getReglas() {
+        return Collections.unmodifiableList(reglas);
+    }
+}
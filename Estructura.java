@@ -0,0 +1,35 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estructuras de datos del DSL, con el mismo nombre que su palabra reservada.
+ */
+public enum Estructura {
+    PILA,
+    PILA_CIRCULAR,
+    COLA,
+    BICOLAS,
+    LISTA_ENLAZADAS,
+    LISTA_DOBLE_ENLAZADA,
+    LISTA_CIRCULAR,
+    ARBOL_BINARIO,
+    TABLAS_HASH,
+    GRAFOS;
+
+    private static final Estructura[] VALORES = values();
+    private static final Map<String, Estructura> POR_PALABRA = new HashMap<>();
+
+    static {
+        for (Estructura e : VALORES) POR_PALABRA.put(e.name(), e);
+    }
+
+    // Estructura de una palabra reservada (en mayúsculas), o null si no es una estructura
+    public static Estructura desdePalabra(String palabra) {
+        return POR_PALABRA.get(palabra);
+    }
+
+    // Inversa de ordinal()
+    public static Estructura desdeCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+}
@@ -0,0 +1,489 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generador de analizadores léxicos: compila todas las reglas de una
+ * EspecificacionLexica a un único AFD que reconoce cualquier clase de token.
+ *
+ * 1. Cada patrón se traduce a un fragmento de AFN (construcción de Thompson) y
+ *    todos se unen desde un estado inicial común.
+ * 2. Los caracteres se agrupan en clases de equivalencia: dos caracteres van en la
+ *    misma clase si pertenecen a los mismos conjuntos de los patrones.
+ * 3. El AFN se determiniza por subconjuntos; cada estado del AFD acepta la regla
+ *    de mayor prioridad (la primera declarada) entre sus estados del AFN.
+ * 4. El AFD se minimiza refinando particiones (algoritmo de Moore), empezando por
+ *    separar los estados según la regla que aceptan.
+ *
+ * El resultado es un LexerGenerado que escanea por la coincidencia más larga.
+ */
+public final class GeneradorLexer {
+
+    private GeneradorLexer() {
+    }
+
+    public static LexerGenerado generar(EspecificacionLexica especificacion) {
+        List<EspecificacionLexica.Regla> reglas = especificacion.getReglas();
+        AFN afn = new AFN();
+
+        // 1. Un fragmento por regla, todos alcanzables desde el inicial
+        int inicial = afn.nuevoEstado();
+        for (int r = 0; r < reglas.size(); r++) {
+            EspecificacionLexica.Regla regla = reglas.get(r);
+            int[] fragmento = regla.esLiteral()
+                    ? afn.literal(regla.getPatron(), regla.esSinMayusculas())
+                    : new Analizador(regla.getPatron(), afn).analizar();
+            afn.epsilon(inicial, fragmento[0]);
+            afn.reglaAceptada.set(fragmento[1], r);
+        }
+
+        // 2. Clases de equivalencia de caracteres
+        short[] clasePorCaracter = new short[Character.MAX_VALUE + 1];
+        int numClases = 1;
+        for (BitSet conjunto : afn.conjuntos) {
+            // Cada clase se parte en dos: la parte dentro del conjunto y la de fuera
+            int[] division = new int[numClases * 2];
+            Arrays.fill(division, -1);
+            int siguiente = 0;
+            short[] nuevas = new short[clasePorCaracter.length];
+            for (int c = 0; c < clasePorCaracter.length; c++) {
+                int clave = clasePorCaracter[c] * 2 + (conjunto.get(c) ? 1 : 0);
+                if (division[clave] < 0) division[clave] = siguiente++;
+                nuevas[c] = (short) division[clave];
+            }
+            clasePorCaracter = nuevas;
+            numClases = siguiente;
+        }
+        if (numClases > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Demasiadas clases de caracteres: " + numClases);
+        }
+        char[] representante = new char[numClases];
+        for (int c = clasePorCaracter.length - 1; c >= 0; c--) representante[clasePorCaracter[c]] = (char) c;
+
+        // Clases incluidas en cada conjunto de los patrones
+        boolean[][] clasesDeConjunto = new boolean[afn.conjuntos.size()][numClases];
+        for (int a = 0; a < afn.conjuntos.size(); a++) {
+            for (int k = 0; k < numClases; k++) {
+                clasesDeConjunto[a][k] = afn.conjuntos.get(a).get(representante[k]);
+            }
+        }
+
+        // 3. Determinización por subconjuntos
+        List<BitSet> subconjuntos = new ArrayList<>();
+        Map<BitSet, Integer> idPorSubconjunto = new HashMap<>();
+        List<int[]> filas = new ArrayList<>();
+        ArrayDeque<Integer> pendientes = new ArrayDeque<>();
+
+        BitSet arranque = new BitSet();
+        arranque.set(inicial);
+        afn.clausura(arranque);
+        subconjuntos.add(arranque);
+        idPorSubconjunto.put(arranque, 0);
+        pendientes.add(0);
+
+        while (!pendientes.isEmpty()) {
+            int id = pendientes.poll();
+            BitSet actual = subconjuntos.get(id);
+            int[] fila = new int[numClases];
+            for (int k = 0; k < numClases; k++) {
+                BitSet siguiente = new BitSet();
+                for (int s = actual.nextSetBit(0); s >= 0; s = actual.nextSetBit(s + 1)) {
+                    int conjunto = afn.conjuntoDe.get(s);
+                    if (conjunto >= 0 && clasesDeConjunto[conjunto][k]) siguiente.set(afn.destinoDe.get(s));
+                }
+                if (siguiente.isEmpty()) {
+                    fila[k] = LexerGenerado.SIN_TRANSICION;
+                    continue;
+                }
+                afn.clausura(siguiente);
+                Integer destino = idPorSubconjunto.get(siguiente);
+                if (destino == null) {
+                    destino = subconjuntos.size();
+                    subconjuntos.add(siguiente);
+                    idPorSubconjunto.put(siguiente, destino);
+                    pendientes.add(destino);
+                }
+                fila[k] = destino;
+            }
+            filas.add(fila);
+        }
+
+        int numEstados = subconjuntos.size();
+        int[] aceptada = new int[numEstados];
+        for (int id = 0; id < numEstados; id++) {
+            int mejor = -1;
+            BitSet conjunto = subconjuntos.get(id);
+            for (int s = conjunto.nextSetBit(0); s >= 0; s = conjunto.nextSetBit(s + 1)) {
+                int r = afn.reglaAceptada.get(s);
+                if (r >= 0 && (mejor < 0 || r < mejor)) mejor = r;
+            }
+            aceptada[id] = mejor;
+        }
+
+        // 4. Minimización (Moore): se refina hasta que el número de bloques no cambia
+        int[] bloque = new int[numEstados];
+        int numBloques = particionar(aceptada, bloque, numEstados);
+        while (true) {
+            Map<List<Integer>, Integer> firmas = new HashMap<>();
+            int[] nuevo = new int[numEstados];
+            for (int s = 0; s < numEstados; s++) {
+                List<Integer> firma = new ArrayList<>(numClases + 1);
+                firma.add(bloque[s]);
+                for (int k = 0; k < numClases; k++) {
+                    int d = filas.get(s)[k];
+                    firma.add(d == LexerGenerado.SIN_TRANSICION ? -1 : bloque[d]);
+                }
+                Integer b = firmas.get(firma);
+                if (b == null) {
+                    b = firmas.size();
+                    firmas.put(firma, b);
+                }
+                nuevo[s] = b;
+            }
+            bloque = nuevo;
+            if (firmas.size() == numBloques) break;
+            numBloques = firmas.size();
+        }
+
+        // Renumerar para que el inicial sea el 0
+        int inicio = bloque[0];
+        int[] transiciones = new int[numBloques * numClases];
+        int[] reglaPorEstado = new int[numBloques];
+        for (int s = 0; s < numEstados; s++) {
+            int b = renumerar(bloque[s], inicio);
+            reglaPorEstado[b] = aceptada[s];
+            for (int k = 0; k < numClases; k++) {
+                int d = filas.get(s)[k];
+                transiciones[b * numClases + k] =
+                        d == LexerGenerado.SIN_TRANSICION ? LexerGenerado.SIN_TRANSICION : renumerar(bloque[d], inicio);
+            }
+        }
+
+        TipoToken[] tipos = new TipoToken[reglas.size()];
+        String[] nombres = new String[reglas.size()];
+        for (int r = 0; r < reglas.size(); r++) {
+            tipos[r] = reglas.get(r).getTipo();
+            nombres[r] = reglas.get(r).getNombre();
+        }
+        return new LexerGenerado(clasePorCaracter, numClases, transiciones, reglaPorEstado, tipos, nombres);
+    }
+
+    // Partición inicial: un bloque por regla aceptada (y uno para los que no aceptan)
+    private static int particionar(int[] aceptada, int[] bloque, int numEstados) {
+        Map<Integer, Integer> porRegla = new HashMap<>();
+        for (int s = 0; s < numEstados; s++) {
+            Integer b = porRegla.get(aceptada[s]);
+            if (b == null) {
+                b = porRegla.size();
+                porRegla.put(aceptada[s], b);
+            }
+            bloque[s] = b;
+        }
+        return porRegla.size();
+    }
+
+    // Intercambia el bloque del estado inicial con el bloque 0
+    private static int renumerar(int b, int inicio) {
+        if (b == inicio) return 0;
+        if (b == 0) return inicio;
+        return b;
+    }
+
+    // -------------------------------------------------------------------
+    // --- AFN de Thompson ---
+    // -------------------------------------------------------------------
+
+    /**
+     * AFN con a lo sumo una transición por carácter en cada estado (sobre un conjunto
+     * de caracteres) más cualquier número de transiciones vacías. Un fragmento es el
+     * par {inicio, fin}; el fin no tiene transiciones salientes hasta que se enlaza.
+     */
+    private static final class AFN {
+        final List<List<Integer>> epsilons = new ArrayList<>();
+        final List<Integer> conjuntoDe = new ArrayList<>();
+        final List<Integer> destinoDe = new ArrayList<>();
+        final List<Integer> reglaAceptada = new ArrayList<>();
+
+        // Conjuntos de caracteres distintos usados por los patrones
+        final List<BitSet> conjuntos = new ArrayList<>();
+        private final Map<BitSet, Integer> idPorConjunto = new HashMap<>();
+        private final Map<Character, Integer> conjuntoSinMayusculas = new HashMap<>();
+
+        int nuevoEstado() {
+            epsilons.add(new ArrayList<>());
+            conjuntoDe.add(-1);
+            destinoDe.add(-1);
+            reglaAceptada.add(-1);
+            return epsilons.size() - 1;
+        }
+
+        void epsilon(int desde, int hasta) {
+            epsilons.get(desde).add(hasta);
+        }
+
+        int conjunto(BitSet caracteres) {
+            Integer id = idPorConjunto.get(caracteres);
+            if (id == null) {
+                id = conjuntos.size();
+                conjuntos.add(caracteres);
+                idPorConjunto.put(caracteres, id);
+            }
+            return id;
+        }
+
+        int[] caracteres(BitSet caracteres) {
+            int inicio = nuevoEstado();
+            int fin = nuevoEstado();
+            conjuntoDe.set(inicio, conjunto(caracteres));
+            destinoDe.set(inicio, fin);
+            return new int[] {inicio, fin};
+        }
+
+        int[] vacio() {
+            int inicio = nuevoEstado();
+            int fin = nuevoEstado();
+            epsilon(inicio, fin);
+            return new int[] {inicio, fin};
+        }
+
+        int[] concatenar(int[] a, int[] b) {
+            epsilon(a[1], b[0]);
+            return new int[] {a[0], b[1]};
+        }
+
+        int[] alternar(int[] a, int[] b) {
+            int inicio = nuevoEstado();
+            int fin = nuevoEstado();
+            epsilon(inicio, a[0]);
+            epsilon(inicio, b[0]);
+            epsilon(a[1], fin);
+            epsilon(b[1], fin);
+            return new int[] {inicio, fin};
+        }
+
+        int[] repetir(int[] a, boolean permiteCero, boolean permiteVarias) {
+            int inicio = nuevoEstado();
+            int fin = nuevoEstado();
+            epsilon(inicio, a[0]);
+            epsilon(a[1], fin);
+            if (permiteCero) epsilon(inicio, fin);
+            if (permiteVarias) epsilon(a[1], a[0]);
+            return new int[] {inicio, fin};
+        }
+
+        // Texto fijo; sin mayúsculas, cada carácter acepta todo lo que se pliega a él
+        int[] literal(String texto, boolean sinMayusculas) {
+            int[] resultado = vacio();
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                int[] paso;
+                if (sinMayusculas) {
+                    paso = caracteresSinMayusculas(Character.toUpperCase(c));
+                } else {
+                    BitSet uno = new BitSet();
+                    uno.set(c);
+                    paso = caracteres(uno);
+                }
+                resultado = concatenar(resultado, paso);
+            }
+            return resultado;
+        }
+
+        // Mismo plegado que la tabla de clases de TablaAFD
+        private int[] caracteresSinMayusculas(char mayuscula) {
+            Integer id = conjuntoSinMayusculas.get(mayuscula);
+            if (id == null) {
+                BitSet plegados = new BitSet();
+                plegados.set(mayuscula);
+                for (int c = 0; c <= Character.MAX_VALUE; c++) {
+                    if (Character.toUpperCase((char) c) == mayuscula) plegados.set(c);
+                }
+                id = conjunto(plegados);
+                conjuntoSinMayusculas.put(mayuscula, id);
+            }
+            int inicio = nuevoEstado();
+            int fin = nuevoEstado();
+            conjuntoDe.set(inicio, id);
+            destinoDe.set(inicio, fin);
+            return new int[] {inicio, fin};
+        }
+
+        // Agrega al conjunto todos los estados alcanzables por transiciones vacías
+        void clausura(BitSet estados) {
+            ArrayDeque<Integer> pila = new ArrayDeque<>();
+            for (int s = estados.nextSetBit(0); s >= 0; s = estados.nextSetBit(s + 1)) pila.push(s);
+            while (!pila.isEmpty()) {
+                for (int d : epsilons.get(pila.pop())) {
+                    if (!estados.get(d)) {
+                        estados.set(d);
+                        pila.push(d);
+                    }
+                }
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------
+    // --- Analizador de patrones (descenso recursivo) ---
+    // -------------------------------------------------------------------
+
+    private static final class Analizador {
+        private final String patron;
+        private final AFN afn;
+        private int pos = 0;
+
+        Analizador(String patron, AFN afn) {
+            this.patron = patron;
+            this.afn = afn;
+        }
+
+        int[] analizar() {
+            int[] resultado = alternativa();
+            if (pos < patron.length()) throw error("')' sin '(' correspondiente");
+            return resultado;
+        }
+
+        // alternativa := secuencia ('|' secuencia)*
+        private int[] alternativa() {
+            int[] resultado = secuencia();
+            while (pos < patron.length() && patron.charAt(pos) == '|') {
+                pos++;
+                resultado = afn.alternar(resultado, secuencia());
+            }
+            return resultado;
+        }
+
+        // secuencia := repeticion*
+        private int[] secuencia() {
+            int[] resultado = afn.vacio();
+            while (pos < patron.length() && patron.charAt(pos) != '|' && patron.charAt(pos) != ')') {
+                resultado = afn.concatenar(resultado, repeticion());
+            }
+            return resultado;
+        }
+
+        // repeticion := atomo ('*' | '+' | '?')*
+        private int[] repeticion() {
+            int[] resultado = atomo();
+            while (pos < patron.length()) {
+                char c = patron.charAt(pos);
+                if (c == '*') {
+                    resultado = afn.repetir(resultado, true, true);
+                } else if (c == '+') {
+                    resultado = afn.repetir(resultado, false, true);
+                } else if (c == '?') {
+                    resultado = afn.repetir(resultado, true, false);
+                } else {
+                    break;
+                }
+                pos++;
+            }
+            return resultado;
+        }
+
+        private int[] atomo() {
+            char c = patron.charAt(pos++);
+            switch (c) {
+                case '(': {
+                    int[] grupo = alternativa();
+                    if (pos >= patron.length() || patron.charAt(pos) != ')') throw error("falta ')'");
+                    pos++;
+                    return grupo;
+                }
+                case '[':
+                    return afn.caracteres(clase());
+                case '.': {
+                    BitSet todos = new BitSet();
+                    todos.set(0, Character.MAX_VALUE + 1);
+                    return afn.caracteres(todos);
+                }
+                case '\\':
+                    return afn.caracteres(escape());
+                case '*':
+                case '+':
+                case '?':
+                    throw error("'" + c + "' sin nada que repetir");
+                default: {
+                    BitSet uno = new BitSet();
+                    uno.set(c);
+                    return afn.caracteres(uno);
+                }
+            }
+        }
+
+        // Clase [..] (el '[' ya se consumió)
+        private BitSet clase() {
+            BitSet resultado = new BitSet();
+            boolean negada = pos < patron.length() && patron.charAt(pos) == '^';
+            if (negada) pos++;
+            while (true) {
+                if (pos >= patron.length()) throw error("falta ']'");
+                char c = patron.charAt(pos++);
+                if (c == ']') break;
+                BitSet parte;
+                if (c == '\\') {
+                    parte = escape();
+                } else {
+                    parte = new BitSet();
+                    parte.set(c);
+                }
+                if (parte.cardinality() == 1 && pos + 1 < patron.length()
+                        && patron.charAt(pos) == '-' && patron.charAt(pos + 1) != ']') {
+                    // Rango a-z
+                    pos++;
+                    char hasta = patron.charAt(pos++);
+                    if (hasta == '\\') hasta = (char) escape().nextSetBit(0);
+                    int desde = parte.nextSetBit(0);
+                    if (hasta < desde) throw error("rango invertido");
+                    parte.set(desde, hasta + 1);
+                }
+                resultado.or(parte);
+            }
+            if (negada) resultado.flip(0, Character.MAX_VALUE + 1);
+            return resultado;
+        }
+
+        // Secuencia de escape (la '\' ya se consumió)
+        private BitSet escape() {
+            if (pos >= patron.length()) throw error("'\\' al final del patrón");
+            char c = patron.charAt(pos++);
+            BitSet resultado = new BitSet();
+            switch (c) {
+                case 'L':
+                    for (int x = 0; x <= Character.MAX_VALUE; x++) {
+                        if (Character.isLetter((char) x)) resultado.set(x);
+                    }
+                    break;
+                case 'D':
+                    for (int x = 0; x <= Character.MAX_VALUE; x++) {
+                        if (Character.isDigit((char) x)) resultado.set(x);
+                    }
+                    break;
+                case 'n':
+                    resultado.set('\n');
+                    break;
+                case 't':
+                    resultado.set('\t');
+                    break;
+                case 'r':
+                    resultado.set('\r');
+                    break;
+                case 'f':
+                    resultado.set('\f');
+                    break;
+                default:
+                    resultado.set(c);
+            }
+            return resultado;
+        }
+
+        private IllegalArgumentException error(String mensaje) {
+            return new IllegalArgumentException("Patrón inválido \"" + patron + "\" en la posición " + pos
+                    + ": " + mensaje);
+        }
+    }
+}
@@ -0,0 +1,596 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grafo no dirigido y ponderado cuyos nodos son enteros (los números del script).
+ * Las aristas se acumulan en arreglos (origen, destino, peso) mientras el grafo
+ * cambia; al recorrerlo se congela en CSR (compressed sparse row): por nodo, su
+ * rango en un único arreglo de vecinos y otro de pesos. Agregar o eliminar aristas
+ * vuelve a la forma mutable y el siguiente recorrido congela de nuevo.
+ *
+ * Los nodos se numeran internamente (índices 0..n-1) en el orden en que aparecen.
+ * BFS es paralelo y con cambio de dirección (top-down mientras la frontera es
+ * pequeña, bottom-up cuando cubre buena parte de las aristas) sobre un ForkJoinPool;
+ * DFS es iterativo con pila explícita y CAMINOCORTO es Dijkstra con un montículo
+ * binario de enteros. Los recorridos reutilizan sus arreglos de trabajo.
+ */
+public final class GrafoEnteros {
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    // Nodos o aristas por tarea antes de dividir el trabajo de un nivel del BFS
+    private static final int UMBRAL_TAREA = 2048;
+
+    // Cambio de dirección del BFS (valores de Beamer et al.)
+    private static final int ALFA = 14;
+    private static final int BETA = 24;
+
+    private static final VarHandle ELEMENTO = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final ForkJoinPool pool;
+
+    // Nodos: id externo por índice, y tabla de dispersión id -> índice + 1 (0 = libre)
+    private int[] ids = new int[CAPACIDAD_INICIAL];
+    private int[] clavesTabla = new int[CAPACIDAD_INICIAL * 2];
+    private int[] indicesTabla = new int[CAPACIDAD_INICIAL * 2];
+    private int numNodos = 0;
+
+    // Forma mutable: lista de aristas
+    private int[] origenes = new int[CAPACIDAD_INICIAL];
+    private int[] destinos = new int[CAPACIDAD_INICIAL];
+    private int[] pesos = new int[CAPACIDAD_INICIAL];
+    private int numAristas = 0;
+
+    // Forma congelada (CSR): vecinos de i en [desplazamientos[i], desplazamientos[i + 1])
+    private int[] desplazamientos;
+    private int[] adyacentes;
+    private int[] pesosAdyacentes;
+    private boolean congelado = false;
+
+    // Instantánea que aún lee la forma mutable (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    // Arreglos de trabajo de los recorridos
+    private int[] distancia = new int[0];
+    private int[] frontera = new int[0];
+    private int[] siguienteFrontera = new int[0];
+    private long[] mapaFrontera = new long[0];
+    private int[] predecesor = new int[0];
+    private int[] cursor = new int[0];
+    private long[] costo = new long[0];
+    private int[] monticulo = new int[0];
+    private int[] posicionMonticulo = new int[0];
+
+    public GrafoEnteros() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GrafoEnteros(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // --- Nodos ---
+
+    private static int dispersar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Índice del nodo, o -1 si no existe
+    public int indice(int id) {
+        int mascara = clavesTabla.length - 1;
+        for (int p = dispersar(id) & mascara; indicesTabla[p] != 0; p = (p + 1) & mascara) {
+            if (clavesTabla[p] == id) return indicesTabla[p] - 1;
+        }
+        return -1;
+    }
+
+    // Id externo del nodo con ese índice
+    public int id(int indice) {
+        return ids[indice];
+    }
+
+    public boolean contiene(int id) {
+        return indice(id) >= 0;
+    }
+
+    private int indiceOAgregar(int id) {
+        int mascara = clavesTabla.length - 1;
+        int p = dispersar(id) & mascara;
+        for (; indicesTabla[p] != 0; p = (p + 1) & mascara) {
+            if (clavesTabla[p] == id) return indicesTabla[p] - 1;
+        }
+        separar();
+        if (numNodos == ids.length) ids = Arrays.copyOf(ids, numNodos * 2);
+        ids[numNodos] = id;
+        clavesTabla[p] = id;
+        indicesTabla[p] = ++numNodos;
+        congelado = false;
+        // Factor de carga máximo 1/2
+        if (numNodos * 2 > clavesTabla.length) redimensionarTabla();
+        return numNodos - 1;
+    }
+
+    private void redimensionarTabla() {
+        int capacidad = clavesTabla.length * 2;
+        clavesTabla = new int[capacidad];
+        indicesTabla = new int[capacidad];
+        for (int i = 0; i < numNodos; i++) {
+            int p = dispersar(ids[i]) & (capacidad - 1);
+            while (indicesTabla[p] != 0) p = (p + 1) & (capacidad - 1);
+            clavesTabla[p] = ids[i];
+            indicesTabla[p] = i + 1;
+        }
+    }
+
+    // Devuelve false si el nodo ya existía
+    public boolean agregarNodo(int id) {
+        int antes = numNodos;
+        indiceOAgregar(id);
+        return numNodos > antes;
+    }
+
+    // --- Aristas (forma mutable) ---
+
+    public void agregarArista(int a, int b, int peso) {
+        if (peso < 0) throw new IllegalArgumentException("Peso negativo: " + peso);
+        int i = indiceOAgregar(a);
+        int j = indiceOAgregar(b);
+        separar();
+        if (numAristas == origenes.length) {
+            int nueva = numAristas * 2;
+            origenes = Arrays.copyOf(origenes, nueva);
+            destinos = Arrays.copyOf(destinos, nueva);
+            pesos = Arrays.copyOf(pesos, nueva);
+        }
+        origenes[numAristas] = i;
+        destinos[numAristas] = j;
+        pesos[numAristas++] = peso;
+        congelado = false;
+    }
+
+    /**
+     * Elimina una arista entre a y b (en cualquier sentido). Recorre la lista de
+     * aristas, así que es O(E); el orden de las restantes se conserva.
+     */
+    public boolean eliminarArista(int a, int b) {
+        int i = indice(a);
+        int j = indice(b);
+        if (i < 0 || j < 0) return false;
+        for (int e = 0; e < numAristas; e++) {
+            if ((origenes[e] == i && destinos[e] == j) || (origenes[e] == j && destinos[e] == i)) {
+                separar();
+                int resto = numAristas - e - 1;
+                System.arraycopy(origenes, e + 1, origenes, e, resto);
+                System.arraycopy(destinos, e + 1, destinos, e, resto);
+                System.arraycopy(pesos, e + 1, pesos, e, resto);
+                numAristas--;
+                congelado = false;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int numNodos() {
+        return numNodos;
+    }
+
+    public int numAristas() {
+        return numAristas;
+    }
+
+    public void limpiar() {
+        separar();
+        Arrays.fill(indicesTabla, 0);
+        numNodos = 0;
+        numAristas = 0;
+        congelado = false;
+    }
+
+    // --- Forma congelada ---
+
+    /**
+     * Construye el CSR con un conteo por nodo (O(n + E)). Cada arista aparece en la
+     * lista de sus dos extremos (un lazo, una sola vez), en el orden en que se agregó.
+     */
+    public void congelar() {
+        if (congelado) return;
+        int[] inicio = new int[numNodos + 1];
+        for (int e = 0; e < numAristas; e++) {
+            inicio[origenes[e] + 1]++;
+            if (origenes[e] != destinos[e]) inicio[destinos[e] + 1]++;
+        }
+        for (int i = 0; i < numNodos; i++) inicio[i + 1] += inicio[i];
+        int[] vecinos = new int[inicio[numNodos]];
+        int[] pesosVecinos = new int[inicio[numNodos]];
+        int[] siguiente = Arrays.copyOf(inicio, numNodos);
+        for (int e = 0; e < numAristas; e++) {
+            int o = origenes[e];
+            int d = destinos[e];
+            vecinos[siguiente[o]] = d;
+            pesosVecinos[siguiente[o]++] = pesos[e];
+            if (o != d) {
+                vecinos[siguiente[d]] = o;
+                pesosVecinos[siguiente[d]++] = pesos[e];
+            }
+        }
+        desplazamientos = inicio;
+        adyacentes = vecinos;
+        pesosAdyacentes = pesosVecinos;
+        congelado = true;
+    }
+
+    // Vecinos del nodo de índice i: posiciones [inicioVecinos(i), finVecinos(i)) de vecino() / peso()
+    public int inicioVecinos(int i) {
+        congelar();
+        return desplazamientos[i];
+    }
+
+    public int finVecinos(int i) {
+        congelar();
+        return desplazamientos[i + 1];
+    }
+
+    // Índice del vecino en la posición k del CSR
+    public int vecino(int k) {
+        return adyacentes[k];
+    }
+
+    public int peso(int k) {
+        return pesosAdyacentes[k];
+    }
+
+    private void prepararTrabajo() {
+        congelar();
+        if (distancia.length < numNodos) {
+            int capacidad = Math.max(numNodos, distancia.length * 2);
+            distancia = new int[capacidad];
+            frontera = new int[capacidad];
+            siguienteFrontera = new int[capacidad];
+            mapaFrontera = new long[(capacidad + 63) >>> 6];
+            predecesor = new int[capacidad];
+            cursor = new int[capacidad + 1];
+            costo = new long[capacidad];
+            monticulo = new int[capacidad];
+            posicionMonticulo = new int[capacidad];
+        }
+    }
+
+    // --- BFS ---
+
+    /**
+     * Recorrido en anchura desde origen. Deja en orden los ids alcanzados, nivel por
+     * nivel; dentro de un nivel salen en el orden en que se agregaron los nodos, así
+     * que el resultado no depende del reparto entre hilos.
+     */
+    public void bfs(int origen, BicolaEnteros orden) {
+        int s = indice(origen);
+        if (s < 0) throw new IllegalArgumentException("No existe el nodo " + origen);
+        int niveles = distancias(s);
+        // Conteo por nivel (cursor tiene sitio para niveles + 1) para listar los nodos en orden estable
+        int[] porNivel = cursor;
+        Arrays.fill(porNivel, 0, niveles + 1, 0);
+        for (int i = 0; i < numNodos; i++) {
+            if (distancia[i] >= 0) porNivel[distancia[i] + 1]++;
+        }
+        for (int d = 0; d < niveles; d++) porNivel[d + 1] += porNivel[d];
+        for (int i = 0; i < numNodos; i++) {
+            if (distancia[i] >= 0) frontera[porNivel[distancia[i]]++] = i;
+        }
+        orden.limpiar();
+        int alcanzados = porNivel[niveles - 1];
+        for (int k = 0; k < alcanzados; k++) orden.insertarFinal(ids[frontera[k]]);
+    }
+
+    /**
+     * Distancia en aristas desde el índice s a cada nodo (-1 si no se alcanza), en
+     * distancia[]. Devuelve el número de niveles.
+     */
+    private int distancias(int s) {
+        prepararTrabajo();
+        Arrays.fill(distancia, 0, numNodos, -1);
+        distancia[s] = 0;
+        frontera[0] = s;
+        int tamFrontera = 1;
+        int nivel = 0;
+        long aristasFrontera = grado(s);
+        long aristasSinExplorar = adyacentes.length - aristasFrontera;
+        boolean abajoArriba = false;
+        AtomicInteger contador = new AtomicInteger();
+
+        while (tamFrontera > 0) {
+            if (!abajoArriba && aristasFrontera > aristasSinExplorar / ALFA) {
+                abajoArriba = true;
+            } else if (abajoArriba && tamFrontera < numNodos / BETA) {
+                abajoArriba = false;
+            }
+            contador.set(0);
+            NivelBfs tarea;
+            if (abajoArriba) {
+                Arrays.fill(mapaFrontera, 0, (numNodos + 63) >>> 6, 0L);
+                for (int k = 0; k < tamFrontera; k++) {
+                    mapaFrontera[frontera[k] >>> 6] |= 1L << frontera[k];
+                }
+                tarea = new NivelBfs(true, nivel, 0, numNodos, contador);
+            } else {
+                tarea = new NivelBfs(false, nivel, 0, tamFrontera, contador);
+            }
+            // Los niveles pequeños se hacen en el hilo actual, sin pasar por el pool
+            if ((abajoArriba ? numNodos : aristasFrontera) > UMBRAL_TAREA) {
+                pool.invoke(tarea);
+            } else {
+                tarea.compute();
+            }
+
+            int[] t = frontera;
+            frontera = siguienteFrontera;
+            siguienteFrontera = t;
+            tamFrontera = contador.get();
+            nivel++;
+            aristasFrontera = 0;
+            for (int k = 0; k < tamFrontera; k++) aristasFrontera += grado(frontera[k]);
+            aristasSinExplorar -= aristasFrontera;
+        }
+        return nivel;
+    }
+
+    private int grado(int i) {
+        return desplazamientos[i + 1] - desplazamientos[i];
+    }
+
+    /**
+     * Un nivel del BFS sobre un rango: de la frontera (top-down) o de todos los
+     * nodos (bottom-up). Los descubiertos se juntan en un buffer local y se copian a
+     * siguienteFrontera reservando un bloque con el contador compartido.
+     */
+    private final class NivelBfs extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final boolean abajoArriba;
+        private final int nivel;
+        private final int desde;
+        private final int hasta;
+        private final AtomicInteger contador;
+
+        NivelBfs(boolean abajoArriba, int nivel, int desde, int hasta, AtomicInteger contador) {
+            this.abajoArriba = abajoArriba;
+            this.nivel = nivel;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.contador = contador;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > UMBRAL_TAREA) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new NivelBfs(abajoArriba, nivel, desde, medio, contador),
+                          new NivelBfs(abajoArriba, nivel, medio, hasta, contador));
+                return;
+            }
+            int[] encontrados = new int[Math.min(hasta - desde, 64)];
+            int n = 0;
+            if (abajoArriba) {
+                // Cada nodo sin visitar busca un padre en la frontera; solo esta tarea escribe su distancia
+                for (int v = desde; v < hasta; v++) {
+                    if (distancia[v] >= 0) continue;
+                    for (int k = desplazamientos[v]; k < desplazamientos[v + 1]; k++) {
+                        int u = adyacentes[k];
+                        if ((mapaFrontera[u >>> 6] & (1L << u)) != 0) {
+                            distancia[v] = nivel + 1;
+                            if (n == encontrados.length) encontrados = Arrays.copyOf(encontrados, n * 2);
+                            encontrados[n++] = v;
+                            break;
+                        }
+                    }
+                }
+            } else {
+                // Cada nodo de la frontera reclama a sus vecinos sin visitar con un CAS
+                for (int f = desde; f < hasta; f++) {
+                    int u = frontera[f];
+                    for (int k = desplazamientos[u]; k < desplazamientos[u + 1]; k++) {
+                        int v = adyacentes[k];
+                        if (distancia[v] < 0 && ELEMENTO.compareAndSet(distancia, v, -1, nivel + 1)) {
+                            if (n == encontrados.length) encontrados = Arrays.copyOf(encontrados, Math.max(n * 2, 1));
+                            encontrados[n++] = v;
+                        }
+                    }
+                }
+            }
+            if (n > 0) System.arraycopy(encontrados, 0, siguienteFrontera, contador.getAndAdd(n), n);
+        }
+    }
+
+    // --- DFS ---
+
+    /**
+     * Recorrido en profundidad (preorden) desde origen con una pila de (nodo,
+     * siguiente vecino): visita a los vecinos en el orden de la lista de adyacencia,
+     * como la versión recursiva, sin riesgo de desbordar la pila de Java.
+     */
+    public void dfs(int origen, BicolaEnteros orden) {
+        int s = indice(origen);
+        if (s < 0) throw new IllegalArgumentException("No existe el nodo " + origen);
+        prepararTrabajo();
+        int[] visitado = distancia;
+        int[] pila = frontera;
+        Arrays.fill(visitado, 0, numNodos, 0);
+        orden.limpiar();
+
+        int tope = 0;
+        pila[tope++] = s;
+        cursor[s] = desplazamientos[s];
+        visitado[s] = 1;
+        orden.insertarFinal(ids[s]);
+        while (tope > 0) {
+            int u = pila[tope - 1];
+            if (cursor[u] == desplazamientos[u + 1]) {
+                tope--;
+                continue;
+            }
+            int v = adyacentes[cursor[u]++];
+            if (visitado[v] == 0) {
+                visitado[v] = 1;
+                orden.insertarFinal(ids[v]);
+                cursor[v] = desplazamientos[v];
+                pila[tope++] = v;
+            }
+        }
+    }
+
+    // --- CAMINOCORTO (Dijkstra) ---
+
+    /**
+     * Camino de menor peso de origen a destino. Deja los ids del camino en camino
+     * (vacío si no hay) y devuelve su peso total, o -1 si destino no se alcanza.
+     * El montículo guarda índices de nodo con su posición para bajar claves en sitio.
+     */
+    public long caminoCorto(int origen, int destino, BicolaEnteros camino) {
+        int s = indice(origen);
+        int t = indice(destino);
+        if (s < 0) throw new IllegalArgumentException("No existe el nodo " + origen);
+        if (t < 0) throw new IllegalArgumentException("No existe el nodo " + destino);
+        prepararTrabajo();
+        Arrays.fill(costo, 0, numNodos, Long.MAX_VALUE);
+        Arrays.fill(posicionMonticulo, 0, numNodos, -1);
+        camino.limpiar();
+
+        costo[s] = 0;
+        predecesor[s] = -1;
+        int tamano = 0;
+        monticulo[tamano] = s;
+        posicionMonticulo[s] = tamano++;
+        while (tamano > 0) {
+            int u = monticulo[0];
+            posicionMonticulo[u] = -2; // cerrado
+            tamano--;
+            if (tamano > 0) {
+                monticulo[0] = monticulo[tamano];
+                posicionMonticulo[monticulo[0]] = 0;
+                hundir(0, tamano);
+            }
+            if (u == t) break;
+            for (int k = desplazamientos[u]; k < desplazamientos[u + 1]; k++) {
+                int v = adyacentes[k];
+                long nuevo = costo[u] + pesosAdyacentes[k];
+                if (posicionMonticulo[v] == -2 || nuevo >= costo[v]) continue;
+                costo[v] = nuevo;
+                predecesor[v] = u;
+                if (posicionMonticulo[v] < 0) {
+                    monticulo[tamano] = v;
+                    posicionMonticulo[v] = tamano++;
+                }
+                flotar(posicionMonticulo[v]);
+            }
+        }
+        if (costo[t] == Long.MAX_VALUE) return -1;
+        for (int v = t; v != -1; v = predecesor[v]) camino.insertarInicio(ids[v]);
+        return costo[t];
+    }
+
+    private void flotar(int p) {
+        int nodo = monticulo[p];
+        while (p > 0) {
+            int padre = (p - 1) >>> 1;
+            if (costo[monticulo[padre]] <= costo[nodo]) break;
+            monticulo[p] = monticulo[padre];
+            posicionMonticulo[monticulo[p]] = p;
+            p = padre;
+        }
+        monticulo[p] = nodo;
+        posicionMonticulo[nodo] = p;
+    }
+
+    private void hundir(int p, int tamano) {
+        int nodo = monticulo[p];
+        while (true) {
+            int hijo = 2 * p + 1;
+            if (hijo >= tamano) break;
+            if (hijo + 1 < tamano && costo[monticulo[hijo + 1]] < costo[monticulo[hijo]]) hijo++;
+            if (costo[monticulo[hijo]] >= costo[nodo]) break;
+            monticulo[p] = monticulo[hijo];
+            posicionMonticulo[monticulo[p]] = p;
+            p = hijo;
+        }
+        monticulo[p] = nodo;
+        posicionMonticulo[nodo] = p;
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo los arreglos, se trabaja sobre copias
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) {
+            ids = ids.clone();
+            clavesTabla = clavesTabla.clone();
+            indicesTabla = indicesTabla.clone();
+            origenes = origenes.clone();
+            destinos = destinos.clone();
+            pesos = pesos.clone();
+        }
+        compartida = null;
+    }
+
+    // Se guarda la forma mutable con la tabla de ids; el CSR se reconstruye al recorrer
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        int t = clavesTabla.length;
+        return new InstantaneaDSL.Seccion(new int[] {numNodos, numAristas},
+                new Object[] {ids, clavesTabla, indicesTabla, origenes, destinos, pesos},
+                new int[] {numNodos, t, t, numAristas, numAristas, numAristas});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(2, 6);
+        int n = seccion.escalares[0];
+        int m = seccion.escalares[1];
+        int[] nuevosIds = seccion.enteros(0);
+        int[] nuevasClaves = seccion.enteros(1);
+        int[] nuevosIndices = seccion.enteros(2);
+        int[] nuevosOrigenes = seccion.enteros(3);
+        int[] nuevosDestinos = seccion.enteros(4);
+        int[] nuevosPesos = seccion.enteros(5);
+        int t = nuevasClaves.length;
+        if (n < 0 || m < 0 || nuevosIds.length != n || Integer.bitCount(t) != 1 || nuevosIndices.length != t
+                || n * 2 > t || nuevosOrigenes.length != m || nuevosDestinos.length != m || nuevosPesos.length != m) {
+            throw new IllegalArgumentException("Grafo incoherente");
+        }
+        int ocupadas = 0;
+        for (int p = 0; p < t; p++) {
+            if (nuevosIndices[p] < 0 || nuevosIndices[p] > n) throw new IllegalArgumentException("Índice de nodo fuera de rango");
+            if (nuevosIndices[p] != 0) ocupadas++;
+        }
+        // Con exactamente n casillas ocupadas (n <= t / 2) el sondeo siempre encuentra una
+        // libre, y cada id debe hallarse en la suya: sin duplicados ni casillas sueltas
+        if (ocupadas != n) throw new IllegalArgumentException("Tabla de nodos con " + ocupadas + " casillas para " + n + " nodos");
+        for (int k = 0; k < n; k++) {
+            int p = dispersar(nuevosIds[k]) & (t - 1);
+            while (nuevosIndices[p] != 0 && nuevasClaves[p] != nuevosIds[k]) p = (p + 1) & (t - 1);
+            if (nuevosIndices[p] != k + 1) throw new IllegalArgumentException("El nodo " + nuevosIds[k] + " no está en la tabla de nodos");
+        }
+        for (int e = 0; e < m; e++) {
+            if (nuevosOrigenes[e] < 0 || nuevosOrigenes[e] >= n || nuevosDestinos[e] < 0 || nuevosDestinos[e] >= n
+                    || nuevosPesos[e] < 0) {
+                throw new IllegalArgumentException("Arista " + e + " incoherente");
+            }
+        }
+        return () -> {
+            ids = seccion.enteros(0, CAPACIDAD_INICIAL);
+            clavesTabla = nuevasClaves;
+            indicesTabla = nuevosIndices;
+            numNodos = n;
+            origenes = seccion.enteros(3, CAPACIDAD_INICIAL);
+            destinos = seccion.enteros(4, CAPACIDAD_INICIAL);
+            pesos = seccion.enteros(5, CAPACIDAD_INICIAL);
+            numAristas = m;
+            congelado = false;
+            compartida = null;
+        };
+    }
+}
@@ -0,0 +1,376 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Instantánea del estado de las estructuras de un InterpreteDSL en un archivo, para
+ * retomar una sesión sin volver a ejecutar el script.
+ *
+ * Capturar no copia nada: cada estructura entrega sus arreglos primitivos tal como
+ * están y queda marcada con la Lectura de la instantánea. Si la estructura va a
+ * escribir en esos arreglos mientras la instantánea los sigue leyendo, primero los
+ * clona (copia en escritura); si no, la escritura es directa. Así el intérprete solo
+ * se detiene lo que cuesta la captura y el archivo se puede escribir en otro hilo.
+ *
+ * Formato (enteros little-endian, el orden nativo de x86 y ARM, para que restaurar
+ * sea una copia de memoria sin invertir bytes):
+ *   MAGICO, VERSION, numSecciones, 0
+ *   por sección: estructura (ordinal), numEscalares, numArreglos, escalares,
+ *     y por arreglo: tipo (ENTERO o BYTE), largo, elementos, relleno hasta múltiplo de 4
+ *
+ * Restaurar proyecta el archivo en memoria (FileChannel.map): solo se leen del disco
+ * las páginas que se copian a cada arreglo, sin buffers intermedios. Un archivo debe
+ * caber en una proyección (2 GB).
+ */
+public final class InstantaneaDSL {
+    static final int MAGICO = 0x44534E31; // "DSN1"
+    static final int VERSION = 2;   // 2: el árbol guarda solo valores y enlaces
+
+    private static final int ENCABEZADO = 16;
+    private static final int ENTERO = 0;
+    private static final int BYTE = 1;
+
+    // Ninguna estructura guarda más que esto; un valor mayor es un archivo dañado
+    private static final int MAXIMO_CAMPOS = 16;
+
+    private static final int TAMANO_ESCRITURA = 1 << 20;
+
+    private static final Estructura[] ESTRUCTURAS = Estructura.values();
+
+    private InstantaneaDSL() {
+    }
+
+    /**
+     * Marca compartida entre una instantánea y las estructuras que capturó: mientras
+     * no esté terminada, la estructura no puede escribir en los arreglos capturados.
+     */
+    static final class Lectura {
+        private volatile boolean terminada;
+
+        boolean terminada() {
+            return terminada;
+        }
+
+        void terminar() {
+            terminada = true;
+        }
+    }
+
+    /**
+     * Estado de una estructura: enteros sueltos (tamaños, índices) y sus arreglos
+     * (int[] o byte[]) con cuántos elementos de cada uno cuentan. Al restaurar, cada
+     * arreglo mide exactamente su largo.
+     */
+    static final class Seccion {
+        final int[] escalares;
+        final Object[] arreglos;
+        final int[] largos;
+
+        Seccion(int[] escalares, Object[] arreglos, int[] largos) {
+            this.escalares = escalares;
+            this.arreglos = arreglos;
+            this.largos = largos;
+        }
+
+        int[] enteros(int k) {
+            if (!(arreglos[k] instanceof int[] a)) throw new IllegalArgumentException("El arreglo " + k + " no es de enteros");
+            return a;
+        }
+
+        // El arreglo k con al menos esa capacidad (solo se copia si es más corto)
+        int[] enteros(int k, int capacidadMinima) {
+            int[] a = enteros(k);
+            return a.length >= capacidadMinima ? a : Arrays.copyOf(a, capacidadMinima);
+        }
+
+        byte[] bytes(int k) {
+            if (!(arreglos[k] instanceof byte[] a)) throw new IllegalArgumentException("El arreglo " + k + " no es de bytes");
+            return a;
+        }
+
+        // Comprueba la forma antes de que la estructura use la sección
+        void exigir(int numEscalares, int numArreglos) {
+            if (escalares.length != numEscalares || arreglos.length != numArreglos) {
+                throw new IllegalArgumentException("Sección con " + escalares.length + " escalares y "
+                        + arreglos.length + " arreglos; se esperaban " + numEscalares + " y " + numArreglos);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------
+    // --- Guardar ---
+    // -------------------------------------------------------------------
+
+    /**
+     * Captura el estado y lo escribe en el archivo antes de volver. Se llama entre
+     * dos ejecuciones (nunca a mitad de un programa), desde el hilo del intérprete.
+     */
+    public static void guardar(InterpreteDSL interprete, Path archivo) throws IOException {
+        Lectura lectura = new Lectura();
+        Seccion[] secciones = capturar(interprete, lectura);
+        try {
+            escribir(secciones, archivo);
+        } finally {
+            lectura.terminar();
+        }
+    }
+
+    /**
+     * Captura el estado ahora y lo escribe con el ejecutor dado; el intérprete puede
+     * seguir ejecutando mientras tanto. La captura refleja el estado de este momento
+     * aunque las estructuras cambien antes de que termine la escritura.
+     */
+    public static CompletableFuture<Path> guardarEnSegundoPlano(InterpreteDSL interprete, Path archivo, Executor ejecutor) {
+        Lectura lectura = new Lectura();
+        Seccion[] secciones = capturar(interprete, lectura);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                escribir(secciones, archivo);
+                return archivo;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lectura.terminar();
+            }
+        }, ejecutor);
+    }
+
+    private static Seccion[] capturar(InterpreteDSL interprete, Lectura lectura) {
+        Seccion[] secciones = new Seccion[ESTRUCTURAS.length];
+        for (Estructura estructura : ESTRUCTURAS) {
+            secciones[estructura.ordinal()] = switch (estructura) {
+                case PILA -> interprete.getPila().capturar(lectura);
+                case PILA_CIRCULAR -> interprete.getPilaCircular().capturar(lectura);
+                case COLA -> interprete.getCola().capturar(lectura);
+                case BICOLAS -> interprete.getBicola().capturar(lectura);
+                case LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA, LISTA_CIRCULAR ->
+                        interprete.getLista(estructura).capturar(lectura);
+                case ARBOL_BINARIO -> interprete.getArbol().capturar(lectura);
+                case TABLAS_HASH -> interprete.getTabla().capturar(lectura);
+                case GRAFOS -> interprete.getGrafo().capturar(lectura);
+            };
+        }
+        return secciones;
+    }
+
+    // Se escribe a un archivo temporal y se renombra, para no dejar instantáneas a medias
+    private static void escribir(Seccion[] secciones, Path archivo) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Path temporal = Files.createTempFile(directorio, "dsn", ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+                Escritor escritor = new Escritor(canal);
+                escritor.entero(MAGICO);
+                escritor.entero(VERSION);
+                escritor.entero(secciones.length);
+                escritor.entero(0);
+                for (int s = 0; s < secciones.length; s++) {
+                    Seccion seccion = secciones[s];
+                    escritor.entero(s);
+                    escritor.entero(seccion.escalares.length);
+                    escritor.entero(seccion.arreglos.length);
+                    for (int valor : seccion.escalares) escritor.entero(valor);
+                    for (int k = 0; k < seccion.arreglos.length; k++) {
+                        if (seccion.arreglos[k] instanceof int[] enteros) {
+                            escritor.entero(ENTERO);
+                            escritor.entero(seccion.largos[k]);
+                            escritor.enteros(enteros, seccion.largos[k]);
+                        } else {
+                            escritor.entero(BYTE);
+                            escritor.entero(seccion.largos[k]);
+                            escritor.bytes((byte[]) seccion.arreglos[k], seccion.largos[k]);
+                        }
+                    }
+                }
+                escritor.vaciar();
+                canal.force(false);
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+    }
+
+    // Escritura por bloques de un buffer directo: los arreglos no se copian enteros al heap
+    private static final class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_ESCRITURA).order(ByteOrder.LITTLE_ENDIAN);
+
+        Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        void entero(int valor) throws IOException {
+            if (buffer.remaining() < 4) vaciar();
+            buffer.putInt(valor);
+        }
+
+        void enteros(int[] arreglo, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                if (buffer.remaining() < 4) vaciar();
+                int k = Math.min(n - i, buffer.remaining() >>> 2);
+                buffer.asIntBuffer().put(arreglo, i, k);
+                buffer.position(buffer.position() + 4 * k);
+                i += k;
+            }
+        }
+
+        void bytes(byte[] arreglo, int n) throws IOException {
+            for (int i = 0; i < n; ) {
+                if (!buffer.hasRemaining()) vaciar();
+                int k = Math.min(n - i, buffer.remaining());
+                buffer.put(arreglo, i, k);
+                i += k;
+            }
+            for (int r = rellenoA4(n); r > 0; r--) {
+                if (!buffer.hasRemaining()) vaciar();
+                buffer.put((byte) 0);
+            }
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) canal.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static int rellenoA4(int n) {
+        return (4 - (n & 3)) & 3;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Restaurar ---
+    // -------------------------------------------------------------------
+
+    /**
+     * Reemplaza el estado de las estructuras del intérprete por el de la instantánea
+     * (la capacidad de PILA_CIRCULAR también sale del archivo). Primero se lee todo el
+     * archivo y cada estructura valida su sección (preparar); solo si todas son
+     * coherentes se aplican, así que un archivo truncado, de otra versión o con una
+     * sola sección dañada no toca nada. Las que no aparecen en el archivo quedan
+     * vacías. Los errores de ejecución y la salida no forman parte de la instantánea.
+     */
+    public static void restaurar(Path archivo, InterpreteDSL interprete) throws IOException {
+        Seccion[] secciones;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Instantánea demasiado grande para proyectarla: " + archivo);
+            }
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            datos.order(ByteOrder.LITTLE_ENDIAN);
+            secciones = leer(datos);
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Instantánea truncada: " + archivo, e);
+        }
+
+        Runnable[] cambios = new Runnable[ESTRUCTURAS.length];
+        try {
+            for (Estructura estructura : ESTRUCTURAS) {
+                Seccion seccion = secciones[estructura.ordinal()];
+                cambios[estructura.ordinal()] = switch (estructura) {
+                    case PILA -> preparar(interprete.getPila(), seccion);
+                    case PILA_CIRCULAR -> preparar(interprete.getPilaCircular(), seccion);
+                    case COLA -> preparar(interprete.getCola(), seccion);
+                    case BICOLAS -> preparar(interprete.getBicola(), seccion);
+                    case LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA, LISTA_CIRCULAR ->
+                            preparar(interprete.getLista(estructura), seccion);
+                    case ARBOL_BINARIO -> preparar(interprete.getArbol(), seccion);
+                    case TABLAS_HASH -> preparar(interprete.getTabla(), seccion);
+                    case GRAFOS -> preparar(interprete.getGrafo(), seccion);
+                };
+            }
+        } catch (IllegalArgumentException e) {
+            // Datos bien enmarcados pero incoherentes (índices o tamaños imposibles)
+            throw new IOException("Instantánea dañada (" + archivo + "): " + e.getMessage(), e);
+        }
+        for (Runnable cambio : cambios) cambio.run();
+    }
+
+    // Una sección ausente deja la estructura vacía
+    private static Runnable preparar(PilaEnteros pila, Seccion seccion) {
+        return seccion == null ? pila::limpiar : pila.preparar(seccion);
+    }
+
+    private static Runnable preparar(BicolaEnteros bicola, Seccion seccion) {
+        return seccion == null ? bicola::limpiar : bicola.preparar(seccion);
+    }
+
+    private static Runnable preparar(ListaEnteros lista, Seccion seccion) {
+        return seccion == null ? lista::limpiar : lista.preparar(seccion);
+    }
+
+    private static Runnable preparar(ArbolEnteros arbol, Seccion seccion) {
+        return seccion == null ? arbol::limpiar : arbol.preparar(seccion);
+    }
+
+    private static Runnable preparar(TablaHashEnteros tabla, Seccion seccion) {
+        return seccion == null ? tabla::limpiar : tabla.preparar(seccion);
+    }
+
+    private static Runnable preparar(GrafoEnteros grafo, Seccion seccion) {
+        return seccion == null ? grafo::limpiar : grafo.preparar(seccion);
+    }
+
+    private static Seccion[] leer(MappedByteBuffer datos) throws IOException {
+        if (datos.limit() < ENCABEZADO || datos.getInt() != MAGICO) {
+            throw new IOException("No es una instantánea del DSL");
+        }
+        int version = datos.getInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+        int numSecciones = datos.getInt();
+        datos.getInt();
+
+        Seccion[] secciones = new Seccion[ESTRUCTURAS.length];
+        for (int s = 0; s < numSecciones; s++) {
+            int codigo = datos.getInt();
+            int numEscalares = datos.getInt();
+            int numArreglos = datos.getInt();
+            if (codigo < 0 || codigo >= ESTRUCTURAS.length || secciones[codigo] != null) {
+                throw new IOException("Sección de estructura inválida: " + codigo);
+            }
+            if (numEscalares < 0 || numEscalares > MAXIMO_CAMPOS || numArreglos < 0 || numArreglos > MAXIMO_CAMPOS) {
+                throw new IOException("Sección de " + ESTRUCTURAS[codigo] + " dañada");
+            }
+            int[] escalares = new int[numEscalares];
+            for (int i = 0; i < numEscalares; i++) escalares[i] = datos.getInt();
+            Object[] arreglos = new Object[numArreglos];
+            int[] largos = new int[numArreglos];
+            for (int k = 0; k < numArreglos; k++) {
+                int tipo = datos.getInt();
+                int largo = datos.getInt();
+                long bytes = tipo == ENTERO ? 4L * largo : largo + rellenoA4(largo);
+                if ((tipo != ENTERO && tipo != BYTE) || largo < 0 || bytes > datos.remaining()) {
+                    throw new IOException("Arreglo " + k + " de " + ESTRUCTURAS[codigo] + " dañado o truncado");
+                }
+                if (tipo == ENTERO) {
+                    int[] arreglo = new int[largo];
+                    datos.asIntBuffer().get(arreglo);
+                    arreglos[k] = arreglo;
+                } else {
+                    byte[] arreglo = new byte[largo];
+                    datos.get(datos.position(), arreglo);
+                    arreglos[k] = arreglo;
+                }
+                datos.position(datos.position() + (int) bytes);
+                largos[k] = largo;
+            }
+            secciones[codigo] = new Seccion(escalares, arreglos, largos);
+        }
+        return secciones;
+    }
+}
@@ -0,0 +1,708 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Ejecuta los comandos de un ProgramaDSL sobre una instancia de cada estructura.
+ * Todas guardan los enteros en arreglos primitivos: PilaEnteros, BicolaEnteros y
+ * ListaEnteros para las lineales, GrafoEnteros (CSR, BFS en paralelo) para GRAFOS,
+ * ArbolEnteros para ARBOL_BINARIO y TablaHashEnteros para TABLAS_HASH. La operación
+ * y la estructura se leen como códigos de ProgramaDSL y los resultados se acumulan
+ * en un StringBuilder que se vuelca a la salida por bloques, también a mitad de un
+ * recorrido largo; ejecutar un comando lineal no crea objetos.
+ *
+ * Cada consulta (TOPE, FRENTE, TAMAÑO, VACIAT, BUSCAR, MOSTRAR, ...) escribe una
+ * línea. Los errores de ejecución (desapilar una pila vacía, una posición fuera de
+ * rango, una operación que la estructura no admite) no detienen el programa: se
+ * guardan como en ProgramaDSL ("Línea N: ...") y se sigue con el comando siguiente.
+ */
+public class InterpreteDSL {
+    // Capacidad de PILA_CIRCULAR si no se indica otra
+    public static final int CAPACIDAD_CIRCULAR = 1024;
+
+    // Capacidad que REHASH acepta siempre; más allá, solo hasta 4 veces las entradas
+    private static final int REHASH_MAXIMO = 1 << 20;
+
+    // Caracteres acumulados antes de volcar a la salida
+    private static final int TAMANO_BLOQUE = 8192;
+
+    private final PilaEnteros pila = new PilaEnteros();
+    private final PilaEnteros pilaCircular;
+    private final BicolaEnteros cola = new BicolaEnteros();
+    private final BicolaEnteros bicola = new BicolaEnteros();
+    private final ListaEnteros listaEnlazada = new ListaEnteros();
+    private final ListaEnteros listaDoble = new ListaEnteros();
+    private final ListaEnteros listaCircular = new ListaEnteros();
+    private final GrafoEnteros grafo = new GrafoEnteros();
+
+    private final ArbolEnteros arbol = new ArbolEnteros();
+    private final TablaHashEnteros tabla = new TablaHashEnteros();
+
+    // Resultado de BFS, DFS y CAMINOCORTO (se reutiliza)
+    private final BicolaEnteros recorrido = new BicolaEnteros();
+
+    private final Appendable salida;
+    private final StringBuilder buffer = new StringBuilder(TAMANO_BLOQUE * 2);
+    private final List<String> errores = new ArrayList<>();
+
+    // Receptores de los recorridos: escriben cada elemento directamente en el buffer
+    private final IntConsumer escritorElemento = this::escribirElemento;
+    private final TablaHashEnteros.ReceptorEntrada escritorEntrada = this::escribirEntrada;
+    private boolean primerElemento;
+
+    public InterpreteDSL(Appendable salida) {
+        this(salida, CAPACIDAD_CIRCULAR);
+    }
+
+    public InterpreteDSL(Appendable salida, int capacidadCircular) {
+        this.salida = salida;
+        this.pilaCircular = PilaEnteros.circular(capacidadCircular);
+    }
+
+    /**
+     * Ejecuta todos los comandos del programa. Las estructuras conservan su estado
+     * entre llamadas, así que se pueden ejecutar varios programas seguidos.
+     */
+    public void ejecutar(ProgramaDSL programa) {
+        int[] saltos = calcularSaltos(programa);
+        for (int i = 0; i < programa.tamano(); i++) {
+            switch (programa.getOperacion(i)) {
+                // Condición falsa: a la rama else (tras el SINO) o tras el FIN_SI
+                case SI -> {
+                    if (!condicion(programa, i)) i = saltos[i];
+                }
+                // Se llega al SINO al terminar la rama verdadera: se salta la else
+                case SINO -> i = saltos[i];
+                case FIN_SI -> {
+                    // Nada que hacer
+                }
+                default -> ejecutarComando(programa, i);
+            }
+            comprobarSalida();
+        }
+        vaciar();
+    }
+
+    /**
+     * Destino de cada SI (su SINO, o su FIN_SI si no tiene) y de cada SINO (su
+     * FIN_SI). El analizador garantiza que las marcas están balanceadas.
+     */
+    private static int[] calcularSaltos(ProgramaDSL programa) {
+        int[] saltos = new int[programa.tamano()];
+        int[] abiertos = new int[16];
+        int profundidad = 0;
+        for (int i = 0; i < programa.tamano(); i++) {
+            switch (programa.getOperacion(i)) {
+                case SI -> {
+                    if (profundidad == abiertos.length) abiertos = Arrays.copyOf(abiertos, profundidad * 2);
+                    abiertos[profundidad++] = i;
+                }
+                case SINO -> {
+                    saltos[abiertos[profundidad - 1]] = i;
+                    abiertos[profundidad - 1] = i;
+                }
+                case FIN_SI -> {
+                    int abierto = abiertos[--profundidad];
+                    saltos[abierto] = i;
+                }
+                default -> {
+                    // No salta
+                }
+            }
+        }
+        return saltos;
+    }
+
+    // Visible en el paquete: también lo llama el código que genera CompiladorDSL
+    boolean condicion(ProgramaDSL programa, int i) {
+        Estructura estructura = programa.getEstructura(i);
+        Operacion propiedad = Operacion.desdeCodigo(programa.getOperando(i, 0));
+        if (!esEjecutable(estructura)) {
+            error(programa, i, estructura + " aún no se puede ejecutar");
+            return false;
+        }
+        switch (propiedad) {
+            case VACIAT:
+                return tamano(estructura) == 0;
+            case LLENAT:
+                return estaLlena(estructura);
+            case TAMAÑO:
+            case NODOS:
+                return tamano(estructura) != 0;
+            case ALTURA:
+            case HOJAS:
+                if (estructura == Estructura.ARBOL_BINARIO) {
+                    return (propiedad == Operacion.ALTURA ? arbol.altura() : arbol.hojas()) != 0;
+                }
+                error(programa, i, propiedad + " no se aplica a " + estructura);
+                return false;
+            default:
+                error(programa, i, propiedad + " no se aplica a " + estructura);
+                return false;
+        }
+    }
+
+    private static boolean esEjecutable(Estructura estructura) {
+        return switch (estructura) {
+            case PILA, PILA_CIRCULAR, COLA, BICOLAS, LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA, LISTA_CIRCULAR, GRAFOS,
+                 ARBOL_BINARIO, TABLAS_HASH -> true;
+            default -> false;
+        };
+    }
+
+    private int tamano(Estructura estructura) {
+        switch (estructura) {
+            case PILA: return pila.tamano();
+            case PILA_CIRCULAR: return pilaCircular.tamano();
+            case COLA: return cola.tamano();
+            case BICOLAS: return bicola.tamano();
+            case LISTA_ENLAZADAS: return listaEnlazada.tamano();
+            case LISTA_DOBLE_ENLAZADA: return listaDoble.tamano();
+            case LISTA_CIRCULAR: return listaCircular.tamano();
+            case GRAFOS: return grafo.numNodos();
+            case ARBOL_BINARIO: return arbol.tamano();
+            case TABLAS_HASH: return tabla.tamano();
+            default: return 0;
+        }
+    }
+
+    // Solo PILA_CIRCULAR tiene capacidad fija; las demás crecen
+    private boolean estaLlena(Estructura estructura) {
+        return estructura == Estructura.PILA_CIRCULAR && pilaCircular.estaLlena();
+    }
+
+    // Ejecuta un comando que no es de control (también desde el código de CompiladorDSL)
+    void ejecutarComando(ProgramaDSL programa, int i) {
+        Operacion op = programa.getOperacion(i);
+        Estructura estructura = programa.getEstructura(i);
+        if (estructura == null) {
+            if (op == Operacion.MOSTRAR) {
+                mostrarOperandos(programa, i);
+            } else {
+                error(programa, i, op + " necesita una estructura (EN ...)");
+            }
+            return;
+        }
+        if (!esEjecutable(estructura)) {
+            error(programa, i, estructura + " aún no se puede ejecutar");
+            return;
+        }
+        // Propiedades comunes a todas las estructuras
+        switch (op) {
+            case TAMAÑO -> {
+                escribirValor(tamano(estructura));
+                return;
+            }
+            case VACIAT -> {
+                escribirBooleano(tamano(estructura) == 0);
+                return;
+            }
+            case LLENAT -> {
+                escribirBooleano(estaLlena(estructura));
+                return;
+            }
+            default -> {
+                // Depende de la estructura
+            }
+        }
+        boolean ejecutado = switch (estructura) {
+            case PILA -> pila(programa, i, op, pila);
+            case PILA_CIRCULAR -> pila(programa, i, op, pilaCircular);
+            case COLA -> cola(programa, i, op, cola, false);
+            case BICOLAS -> cola(programa, i, op, bicola, true);
+            case GRAFOS -> grafo(programa, i, op);
+            case ARBOL_BINARIO -> arbol(programa, i, op);
+            case TABLAS_HASH -> tabla(programa, i, op);
+            default -> lista(programa, i, op, getLista(estructura));
+        };
+        if (!ejecutado) {
+            error(programa, i, op + " no se aplica a " + estructura);
+        }
+    }
+
+    // --- Estructuras lineales (devuelven false si no admiten la operación) ---
+
+    private boolean pila(ProgramaDSL programa, int i, Operacion op, PilaEnteros p) {
+        switch (op) {
+            case APILAR, PUSH, INSERTAR -> {
+                if (numeros(programa, i, 1)) p.apilar(programa.getOperando(i, 0));
+            }
+            case DESAPILAR, POP, ELIMINAR -> {
+                if (noVacia(programa, i, p.tamano())) p.desapilar();
+            }
+            case TOPE, PEEK -> {
+                if (noVacia(programa, i, p.tamano())) escribirValor(p.tope());
+            }
+            case BUSCAR -> {
+                if (numeros(programa, i, 1)) escribirValor(p.buscar(programa.getOperando(i, 0)));
+            }
+            // Del fondo al tope
+            case MOSTRAR, RECORRER -> {
+                abrirLista();
+                for (int k = 0; k < p.tamano(); k++) escribirElemento(p.get(k));
+                cerrarLista();
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean cola(ProgramaDSL programa, int i, Operacion op, BicolaEnteros c, boolean dobleExtremo) {
+        switch (op) {
+            case ENCOLAR, ENQUEUE, INSERTAR, INSERTAR_FINAL -> {
+                if (numeros(programa, i, 1)) c.insertarFinal(programa.getOperando(i, 0));
+            }
+            case DESENCOLAR, DEQUEUE, ELIMINAR, ELIMINAR_FRENTE, ELIMINAR_INICIO -> {
+                if (noVacia(programa, i, c.tamano())) c.eliminarInicio();
+            }
+            case FRENTE, FRONT, PEEK, VERFILA -> {
+                if (noVacia(programa, i, c.tamano())) escribirValor(c.primero());
+            }
+            case BUSCAR -> {
+                if (numeros(programa, i, 1)) escribirValor(c.buscar(programa.getOperando(i, 0)));
+            }
+            // Del frente al final
+            case MOSTRAR, RECORRER -> {
+                abrirLista();
+                for (int k = 0; k < c.tamano(); k++) escribirElemento(c.get(k));
+                cerrarLista();
+            }
+            default -> {
+                if (!dobleExtremo) return false;
+                // Operaciones que solo tiene la bicola
+                switch (op) {
+                    case INSERTAR_INICIO -> {
+                        if (numeros(programa, i, 1)) c.insertarInicio(programa.getOperando(i, 0));
+                    }
+                    case ELIMINAR_FINAL -> {
+                        if (noVacia(programa, i, c.tamano())) c.eliminarFinal();
+                    }
+                    case TOPE -> {
+                        if (noVacia(programa, i, c.tamano())) escribirValor(c.ultimo());
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean lista(ProgramaDSL programa, int i, Operacion op, ListaEnteros l) {
+        switch (op) {
+            case INSERTAR, INSERTAR_FINAL -> {
+                if (numeros(programa, i, 1)) l.insertarFinal(programa.getOperando(i, 0));
+            }
+            case INSERTAR_INICIO -> {
+                if (numeros(programa, i, 1)) l.insertarInicio(programa.getOperando(i, 0));
+            }
+            // INSERTAR_EN_POSICION valor posicion (posiciones desde 0)
+            case INSERTAR_EN_POSICION -> {
+                if (numeros(programa, i, 2)) {
+                    int posicion = programa.getOperando(i, 1);
+                    if (enRango(programa, i, posicion, l.tamano() + 1, l.tamano())) l.insertarEn(posicion, programa.getOperando(i, 0));
+                }
+            }
+            // ELIMINAR valor: la primera aparición
+            case ELIMINAR -> {
+                if (numeros(programa, i, 1) && !l.eliminarValor(programa.getOperando(i, 0))) {
+                    error(programa, i, "el valor " + programa.getOperando(i, 0) + " no está en la lista");
+                }
+            }
+            case ELIMINAR_INICIO, ELIMINAR_FRENTE -> {
+                if (noVacia(programa, i, l.tamano())) l.eliminarInicio();
+            }
+            case ELIMINAR_FINAL -> {
+                if (noVacia(programa, i, l.tamano())) l.eliminarFinal();
+            }
+            case ELIMINAR_POSICION -> {
+                if (numeros(programa, i, 1)) {
+                    int posicion = programa.getOperando(i, 0);
+                    if (enRango(programa, i, posicion, l.tamano(), l.tamano())) l.eliminarEn(posicion);
+                }
+            }
+            case BUSCAR -> {
+                if (numeros(programa, i, 1)) escribirValor(l.buscar(programa.getOperando(i, 0)));
+            }
+            case FRENTE -> {
+                if (noVacia(programa, i, l.tamano())) escribirValor(l.valor(l.primero()));
+            }
+            case MOSTRAR, RECORRER, RECORRERADELANTE -> {
+                abrirLista();
+                for (int nodo = l.primero(); nodo != ListaEnteros.NINGUNO; nodo = l.siguiente(nodo)) {
+                    escribirElemento(l.valor(nodo));
+                }
+                cerrarLista();
+            }
+            case RECORRERATRAS -> {
+                abrirLista();
+                for (int nodo = l.ultimo(); nodo != ListaEnteros.NINGUNO; nodo = l.anterior(nodo)) {
+                    escribirElemento(l.valor(nodo));
+                }
+                cerrarLista();
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Grafo ---
+
+    private boolean grafo(ProgramaDSL programa, int i, Operacion op) {
+        switch (op) {
+            case AGREGARNODO -> {
+                if (numeros(programa, i, 1)) grafo.agregarNodo(programa.getOperando(i, 0));
+            }
+            // AGREGARARISTA a b [peso]; sin peso vale 1
+            case AGREGARARISTA -> {
+                if (numeros(programa, i, 2, 3)) {
+                    int peso = programa.getNumOperandos(i) == 3 ? programa.getOperando(i, 2) : 1;
+                    if (peso < 0) {
+                        error(programa, i, "el peso de una arista no puede ser negativo");
+                    } else {
+                        grafo.agregarArista(programa.getOperando(i, 0), programa.getOperando(i, 1), peso);
+                    }
+                }
+            }
+            case ELIMINARARISTA -> {
+                if (numeros(programa, i, 2) && !grafo.eliminarArista(programa.getOperando(i, 0), programa.getOperando(i, 1))) {
+                    error(programa, i, "no hay arista entre " + programa.getOperando(i, 0) + " y " + programa.getOperando(i, 1));
+                }
+            }
+            case NODOS -> escribirValor(grafo.numNodos());
+            case VECINOS -> {
+                if (numeros(programa, i, 1) && existeNodo(programa, i, programa.getOperando(i, 0))) {
+                    escribirVecinos(grafo.indice(programa.getOperando(i, 0)));
+                    buffer.append('\n');
+                }
+            }
+            case BFS, DFS -> {
+                if (numeros(programa, i, 1) && existeNodo(programa, i, programa.getOperando(i, 0))) {
+                    if (op == Operacion.BFS) {
+                        grafo.bfs(programa.getOperando(i, 0), recorrido);
+                    } else {
+                        grafo.dfs(programa.getOperando(i, 0), recorrido);
+                    }
+                    escribirRecorrido();
+                }
+            }
+            // Escribe el peso total y el camino, o "Sin camino"
+            case CAMINOCORTO -> {
+                if (numeros(programa, i, 2) && existeNodo(programa, i, programa.getOperando(i, 0))
+                        && existeNodo(programa, i, programa.getOperando(i, 1))) {
+                    long peso = grafo.caminoCorto(programa.getOperando(i, 0), programa.getOperando(i, 1), recorrido);
+                    if (peso < 0) {
+                        buffer.append("Sin camino\n");
+                    } else {
+                        buffer.append(peso).append(' ');
+                        escribirRecorrido();
+                    }
+                }
+            }
+            // Una línea por nodo con su lista de adyacencia
+            case MOSTRAR, RECORRER -> {
+                for (int n = 0; n < grafo.numNodos(); n++) {
+                    buffer.append(grafo.id(n)).append(": ");
+                    escribirVecinos(n);
+                    buffer.append('\n');
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean existeNodo(ProgramaDSL programa, int i, int id) {
+        boolean existe = grafo.contiene(id);
+        if (!existe) error(programa, i, "no existe el nodo " + id);
+        return existe;
+    }
+
+    private void escribirVecinos(int nodo) {
+        buffer.append('[');
+        primerElemento = true;
+        for (int k = grafo.inicioVecinos(nodo); k < grafo.finVecinos(nodo); k++) {
+            escribirElemento(grafo.id(grafo.vecino(k)));
+        }
+        buffer.append(']');
+    }
+
+    private void escribirRecorrido() {
+        abrirLista();
+        for (int k = 0; k < recorrido.tamano(); k++) escribirElemento(recorrido.get(k));
+        cerrarLista();
+    }
+
+    // --- Árbol binario ---
+
+    private boolean arbol(ProgramaDSL programa, int i, Operacion op) {
+        switch (op) {
+            // INSERTARIZQUIERDA valor [padre]: sin padre, al extremo de ese lado (o como raíz)
+            case INSERTARIZQUIERDA, INSERTARDERECHA -> {
+                if (!numeros(programa, i, 1, 2)) return true;
+                boolean izquierda = op == Operacion.INSERTARIZQUIERDA;
+                int valor = programa.getOperando(i, 0);
+                if (programa.getNumOperandos(i) == 1) {
+                    if (izquierda) arbol.insertarIzquierda(valor); else arbol.insertarDerecha(valor);
+                    return true;
+                }
+                int padre = arbol.buscar(programa.getOperando(i, 1));
+                if (padre == ArbolEnteros.NINGUNO) {
+                    error(programa, i, "no hay un nodo con el valor " + programa.getOperando(i, 1));
+                } else if ((izquierda ? arbol.izquierdo(padre) : arbol.derecho(padre)) != ArbolEnteros.NINGUNO) {
+                    error(programa, i, "el nodo " + programa.getOperando(i, 1) + " ya tiene hijo "
+                            + (izquierda ? "izquierdo" : "derecho"));
+                } else if (izquierda) {
+                    arbol.insertarIzquierda(valor, padre);
+                } else {
+                    arbol.insertarDerecha(valor, padre);
+                }
+            }
+            case PREORDEN, MOSTRAR, RECORRER -> {
+                abrirLista();
+                arbol.preorden(escritorElemento);
+                cerrarLista();
+            }
+            case INORDEN -> {
+                abrirLista();
+                arbol.inorden(escritorElemento);
+                cerrarLista();
+            }
+            case POSTORDEN -> {
+                abrirLista();
+                arbol.postorden(escritorElemento);
+                cerrarLista();
+            }
+            case RECORRIDOPORNIVELES -> {
+                abrirLista();
+                arbol.porNiveles(escritorElemento);
+                cerrarLista();
+            }
+            case ALTURA -> escribirValor(arbol.altura());
+            case HOJAS -> escribirValor(arbol.hojas());
+            case NODOS -> escribirValor(arbol.tamano());
+            case BUSCAR -> {
+                if (numeros(programa, i, 1)) escribirBooleano(arbol.buscar(programa.getOperando(i, 0)) != ArbolEnteros.NINGUNO);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Tabla hash ---
+
+    private boolean tabla(ProgramaDSL programa, int i, Operacion op) {
+        switch (op) {
+            // CLAVE k VALOR v (VALOR es opcional entre operandos) o INSERTAR k v
+            case CLAVE, INSERTAR -> {
+                if (numeros(programa, i, 2)) tabla.poner(programa.getOperando(i, 0), programa.getOperando(i, 1));
+            }
+            case ACTUALIZAR -> {
+                if (numeros(programa, i, 2) && !tabla.actualizar(programa.getOperando(i, 0), programa.getOperando(i, 1))) {
+                    error(programa, i, "no existe la clave " + programa.getOperando(i, 0));
+                }
+            }
+            case BUSCAR, VALOR -> {
+                if (numeros(programa, i, 1)) {
+                    int clave = programa.getOperando(i, 0);
+                    if (tabla.contiene(clave)) {
+                        escribirValor(tabla.obtener(clave));
+                    } else {
+                        buffer.append("No encontrada\n");
+                    }
+                }
+            }
+            case ELIMINAR -> {
+                if (numeros(programa, i, 1) && !tabla.eliminar(programa.getOperando(i, 0))) {
+                    error(programa, i, "no existe la clave " + programa.getOperando(i, 0));
+                }
+            }
+            // REHASH [capacidad]: sin capacidad, al doble
+            case REHASH -> {
+                if (numeros(programa, i, 0, 1)) {
+                    int capacidad = programa.getNumOperandos(i) == 1
+                            ? programa.getOperando(i, 0)
+                            : (int) Math.min(tabla.capacidad() * 2L, TablaHashEnteros.CAPACIDAD_MAXIMA);
+                    // Una línea del script no puede pedir gigas de memoria
+                    int maxima = (int) Math.min(TablaHashEnteros.CAPACIDAD_MAXIMA, Math.max(REHASH_MAXIMO, tabla.tamano() * 4L));
+                    if (capacidad <= 0 || capacidad > maxima) {
+                        error(programa, i, "capacidad de REHASH fuera de rango (1.." + maxima + "): " + capacidad);
+                    } else {
+                        tabla.rehash(capacidad);
+                    }
+                }
+            }
+            case MOSTRAR, RECORRER -> {
+                buffer.append('{');
+                primerElemento = true;
+                tabla.recorrer(escritorEntrada);
+                buffer.append("}\n");
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Validación de operandos ---
+
+    // El comando debe tener exactamente n operandos numéricos
+    private boolean numeros(ProgramaDSL programa, int i, int n) {
+        return numeros(programa, i, n, n);
+    }
+
+    // Entre minimo y maximo operandos, todos numéricos
+    private boolean numeros(ProgramaDSL programa, int i, int minimo, int maximo) {
+        int n = programa.getNumOperandos(i);
+        boolean valido = n >= minimo && n <= maximo;
+        for (int k = 0; valido && k < n; k++) {
+            valido = programa.getTipoOperando(i, k) == ProgramaDSL.NUMERO;
+        }
+        if (!valido) {
+            error(programa, i, programa.getOperacion(i) + " espera " + minimo
+                    + (maximo > minimo ? " o " + maximo : "") + (maximo == 1 ? " número" : " números"));
+        }
+        return valido;
+    }
+
+    private boolean noVacia(ProgramaDSL programa, int i, int tamano) {
+        if (tamano == 0) {
+            error(programa, i, programa.getOperacion(i) + " en " + programa.getEstructura(i) + " vacía");
+        }
+        return tamano != 0;
+    }
+
+    // 0 <= posicion < limite, en una lista con tamano elementos
+    private boolean enRango(ProgramaDSL programa, int i, int posicion, int limite, int tamano) {
+        boolean valido = posicion >= 0 && posicion < limite;
+        if (!valido) {
+            error(programa, i, "posición " + posicion + " fuera de rango en una lista de " + tamano + " elementos");
+        }
+        return valido;
+    }
+
+    private void error(ProgramaDSL programa, int i, String mensaje) {
+        errores.add("Línea " + programa.getLinea(i) + ": " + mensaje);
+    }
+
+    // --- Salida ---
+
+    // MOSTRAR sin estructura: los operandos separados por espacios
+    private void mostrarOperandos(ProgramaDSL programa, int i) {
+        for (int k = 0; k < programa.getNumOperandos(i); k++) {
+            if (k > 0) buffer.append(' ');
+            int valor = programa.getOperando(i, k);
+            if (programa.getTipoOperando(i, k) == ProgramaDSL.NUMERO) {
+                buffer.append(valor);
+            } else {
+                buffer.append(programa.getTexto(valor));
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private void abrirLista() {
+        buffer.append('[');
+        primerElemento = true;
+    }
+
+    private void cerrarLista() {
+        buffer.append("]\n");
+    }
+
+    // Un elemento de una lista en curso; vuelca la salida si el buffer ya es grande
+    private void escribirElemento(int valor) {
+        if (!primerElemento) buffer.append(", ");
+        primerElemento = false;
+        buffer.append(valor);
+        if (buffer.length() >= TAMANO_BLOQUE) vaciar();
+    }
+
+    private void escribirEntrada(int clave, int valor) {
+        if (!primerElemento) buffer.append(", ");
+        primerElemento = false;
+        buffer.append(clave).append(": ").append(valor);
+        if (buffer.length() >= TAMANO_BLOQUE) vaciar();
+    }
+
+    private void escribirValor(int valor) {
+        buffer.append(valor).append('\n');
+    }
+
+    private void escribirBooleano(boolean valor) {
+        buffer.append(valor ? "Sí" : "No").append('\n');
+    }
+
+    // Vuelca la salida si el buffer ya es grande (tras cada comando que escribe)
+    void comprobarSalida() {
+        if (buffer.length() >= TAMANO_BLOQUE) vaciar();
+    }
+
+    void vaciar() {
+        if (buffer.length() == 0) return;
+        try {
+            salida.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.setLength(0);
+    }
+
+    // --- Acceso a las estructuras y a los errores ---
+
+    public PilaEnteros getPila() {
+        return pila;
+    }
+
+    public PilaEnteros getPilaCircular() {
+        return pilaCircular;
+    }
+
+    public BicolaEnteros getCola() {
+        return cola;
+    }
+
+    public BicolaEnteros getBicola() {
+        return bicola;
+    }
+
+    public GrafoEnteros getGrafo() {
+        return grafo;
+    }
+
+    public ArbolEnteros getArbol() {
+        return arbol;
+    }
+
+    public TablaHashEnteros getTabla() {
+        return tabla;
+    }
+
+    // Lista de LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA o LISTA_CIRCULAR
+    public ListaEnteros getLista(Estructura estructura) {
+        return switch (estructura) {
+            case LISTA_ENLAZADAS -> listaEnlazada;
+            case LISTA_DOBLE_ENLAZADA -> listaDoble;
+            case LISTA_CIRCULAR -> listaCircular;
+            default -> throw new IllegalArgumentException(estructura + " no es una lista");
+        };
+    }
+
+    public List<String> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+}
@@ -0,0 +1,156 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Analizador léxico en flujo: lee el código desde un Reader (o un canal NIO) con un
+ * buffer de tamaño fijo y entrega los tokens clasificados uno a uno, sin cargar el
+ * script completo en memoria ni construir un Token[].
+ * Solo se escanean líneas completas, así que un lexema nunca queda partido entre dos
+ * lecturas; la línea incompleta al final del buffer se mueve al inicio y se completa
+ * con la siguiente lectura. El buffer solo crece si una línea no cabe en él.
+ */
+public class LexerFlujo implements Iterator<Token>, Closeable {
+    public static final int TAMANO_BUFFER_DEFECTO = 64 * 1024;
+
+    private final Reader lector;
+    private final AFD afd;
+    private char[] buffer;
+    private int ocupados = 0;   // caracteres válidos en el buffer
+    private int linea = 1;      // línea donde empieza el contenido del buffer
+    private boolean finEntrada = false;
+
+    // Tokens ya clasificados del último bloque de líneas, pendientes de entregar
+    private final ArrayDeque<Token> pendientes = new ArrayDeque<>();
+
+    public LexerFlujo(Reader lector, AFD afd) {
+        this(lector, afd, TAMANO_BUFFER_DEFECTO);
+    }
+
+    public LexerFlujo(Reader lector, AFD afd, int tamanoBuffer) {
+        if (tamanoBuffer <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer debe ser positivo: " + tamanoBuffer);
+        }
+        this.lector = lector;
+        this.afd = afd;
+        this.buffer = new char[tamanoBuffer];
+    }
+
+    // Lee del canal decodificando como UTF-8
+    public LexerFlujo(ReadableByteChannel canal, AFD afd) {
+        this(Channels.newReader(canal, StandardCharsets.UTF_8), afd);
+    }
+
+    /**
+     * Modo push: clasifica toda la entrada y entrega cada token a la salida.
+     */
+    public static void procesar(Reader lector, AFD afd, Consumer<Token> salida) throws IOException {
+        try (LexerFlujo lexer = new LexerFlujo(lector, afd)) {
+            while (lexer.cargarBloque()) {
+                while (!lexer.pendientes.isEmpty()) {
+                    salida.accept(lexer.pendientes.poll());
+                }
+            }
+        }
+    }
+
+    /**
+     * Expone los tokens como Stream secuencial; cerrar el Stream cierra el lector.
+     */
+    public Stream<Token> stream() {
+        Spliterator<Token> sp = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(sp, false).onClose(() -> {
+            try {
+                close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (pendientes.isEmpty()) {
+                if (!cargarBloque()) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Token next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return pendientes.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lector.close();
+    }
+
+    /**
+     * Lee hasta tener al menos una línea completa (o el fin de la entrada) y clasifica
+     * sus lexemas en la cola de pendientes. Devuelve false cuando ya no queda entrada.
+     */
+    private boolean cargarBloque() throws IOException {
+        int corte;
+        while (true) {
+            corte = ultimoSaltoDeLinea() + 1;
+            if (corte > 0 || finEntrada) break;
+
+            // Ninguna línea completa: se lee más (creciendo el buffer si ya está lleno)
+            if (ocupados == buffer.length) {
+                char[] mayor = new char[buffer.length * 2];
+                System.arraycopy(buffer, 0, mayor, 0, ocupados);
+                buffer = mayor;
+            }
+            int leidos = lector.read(buffer, ocupados, buffer.length - ocupados);
+            if (leidos < 0) {
+                finEntrada = true;
+            } else {
+                ocupados += leidos;
+            }
+        }
+
+        if (finEntrada && corte == 0) {
+            // Última línea sin salto final
+            corte = ocupados;
+            if (corte == 0) return false;
+        }
+
+        // Escanear solo las líneas completas del buffer
+        final char[] datos = buffer;
+        linea = PreTokenizador.escanear(CharBuffer.wrap(datos, 0, corte), 0, corte, linea,
+                (inicio, fin, lineaLexema) -> afd.aceptar(new String(datos, inicio, fin - inicio),
+                        lineaLexema, pendientes::add));
+
+        // Mover la línea incompleta al inicio del buffer
+        System.arraycopy(buffer, corte, buffer, 0, ocupados - corte);
+        ocupados -= corte;
+        return true;
+    }
+
+    private int ultimoSaltoDeLinea() {
+        for (int i = ocupados - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analizador léxico producido por GeneradorLexer: un único AFD minimizado que
+ * reconoce todas las clases de token. Escanea el texto en una sola pasada por la
+ * coincidencia más larga: desde cada posición avanza mientras haya transición,
+ * recuerda el último estado de aceptación y emite el token de su regla.
+ * No hay pre-tokenización ni re-escaneo del lexema, y agregar una clase de token
+ * es agregar una regla a la especificación.
+ *
+ * Es inmutable, así que una instancia puede usarse desde varios hilos a la vez.
+ */
+public final class LexerGenerado {
+    public static final int SIN_TRANSICION = -1;
+
+    private final short[] clasePorCaracter;
+    private final int numClases;
+    private final int[] transiciones;
+    // Regla aceptada en cada estado (-1 si no acepta)
+    private final int[] reglaPorEstado;
+    // Tipo (null = se omite) y estado final reportado de cada regla
+    private final TipoToken[] tipoPorRegla;
+    private final String[] nombrePorRegla;
+
+    LexerGenerado(short[] clasePorCaracter, int numClases, int[] transiciones, int[] reglaPorEstado,
+                  TipoToken[] tipoPorRegla, String[] nombrePorRegla) {
+        this.clasePorCaracter = clasePorCaracter;
+        this.numClases = numClases;
+        this.transiciones = transiciones;
+        this.reglaPorEstado = reglaPorEstado;
+        this.tipoPorRegla = tipoPorRegla;
+        this.nombrePorRegla = nombrePorRegla;
+    }
+
+    /**
+     * Escanea texto[inicio, fin) desde la línea lineaInicial y entrega cada token al
+     * receptor. El estado reportado es el número de la regla cuando la regla tiene
+     * nombre (palabras reservadas) o AFD.ESTADO_NINGUNO. Devuelve la línea final.
+     * Si ninguna regla reconoce el carácter actual, se emite como
+     * ERROR_SIMBOLO_INVALIDO y se sigue con el siguiente.
+     */
+    public int escanear(CharSequence texto, int inicio, int fin, int lineaInicial,
+                        AFD.ReceptorClasificado receptor) {
+        int linea = lineaInicial;
+        int pos = inicio;
+
+        while (pos < fin) {
+            int estado = 0;
+            int regla = -1;
+            int finToken = pos + 1;
+            int saltos = 0;
+            int saltosToken = texto.charAt(pos) == '\n' ? 1 : 0;
+
+            for (int i = pos; i < fin; i++) {
+                char c = texto.charAt(i);
+                estado = transiciones[estado * numClases + clasePorCaracter[c]];
+                if (estado == SIN_TRANSICION) break;
+                if (c == '\n') saltos++;
+                int aceptada = reglaPorEstado[estado];
+                if (aceptada >= 0) {
+                    regla = aceptada;
+                    finToken = i + 1;
+                    saltosToken = saltos;
+                }
+            }
+
+            if (regla < 0) {
+                receptor.token(pos, finToken, linea, TipoToken.ERROR_SIMBOLO_INVALIDO, AFD.ESTADO_NINGUNO, false);
+            } else if (tipoPorRegla[regla] != null) {
+                TipoToken tipo = tipoPorRegla[regla];
+                int estadoFinal = nombrePorRegla[regla] != null ? regla : AFD.ESTADO_NINGUNO;
+                receptor.token(pos, finToken, linea, tipo, estadoFinal, !tipo.esError());
+            }
+            linea += saltosToken;
+            pos = finToken;
+        }
+        return linea;
+    }
+
+    /**
+     * Analiza el texto completo y devuelve los tokens clasificados.
+     */
+    public Token[] analizar(String texto) {
+        List<Token> tokens = new ArrayList<>();
+        escanear(texto, 0, texto.length(), 1,
+                (inicio, fin, linea, tipo, estado, reconocido) -> tokens.add(new Token(
+                        texto.substring(inicio, fin), linea, tipo, getNombreEstado(estado), reconocido)));
+        return tokens.toArray(new Token[0]);
+    }
+
+    /**
+     * Nombre del estado final para el reporte, o "N/A" para AFD.ESTADO_NINGUNO.
+     */
+    public String getNombreEstado(int estado) {
+        return estado == AFD.ESTADO_NINGUNO ? "N/A" : nombrePorRegla[estado];
+    }
+
+    public int getNumEstados() {
+        return reglaPorEstado.length;
+    }
+
+    public int getNumClases() {
+        return numClases;
+    }
+}
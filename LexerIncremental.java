@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analizador léxico incremental para documentos que se editan (por ejemplo en un editor).
+ * Guarda los tokens de cada línea por separado; como en el DSL ningún lexema,
+ * cadena ni comentario cruza un salto de línea, una edición solo obliga a re-analizar
+ * las líneas que toca. Los tokens de cada línea se guardan con línea relativa 1 y se
+ * entregan con su número real al consultarlos, de modo que desplazar las líneas
+ * siguientes no requiere recorrerlas.
+ */
+public class LexerIncremental {
+    private final AFD afd;
+    private final List<Linea> lineas = new ArrayList<>();
+
+    // Texto y tokens (con línea relativa 1) de una línea del documento
+    private static final class Linea {
+        final String texto;
+        final Token[] tokens;
+
+        Linea(String texto, Token[] tokens) {
+            this.texto = texto;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Resultado de una edición: qué líneas cambiaron y qué tokens salieron y entraron.
+     * Las líneas posteriores a la edición se desplazan en getDesplazamiento().
+     */
+    public static class Cambio {
+        private final int lineaInicio;
+        private final int lineasEliminadas;
+        private final int lineasInsertadas;
+        private final Token[] tokensEliminados;
+        private final Token[] tokensNuevos;
+
+        Cambio(int lineaInicio, int lineasEliminadas, int lineasInsertadas,
+               Token[] tokensEliminados, Token[] tokensNuevos) {
+            this.lineaInicio = lineaInicio;
+            this.lineasEliminadas = lineasEliminadas;
+            this.lineasInsertadas = lineasInsertadas;
+            this.tokensEliminados = tokensEliminados;
+            this.tokensNuevos = tokensNuevos;
+        }
+
+        public int getLineaInicio() {
+            return lineaInicio;
+        }
+
+        public int getLineasEliminadas() {
+            return lineasEliminadas;
+        }
+
+        public int getLineasInsertadas() {
+            return lineasInsertadas;
+        }
+
+        // Tokens que ya no existen, con su número de línea anterior a la edición
+        public Token[] getTokensEliminados() {
+            return tokensEliminados;
+        }
+
+        // Tokens nuevos, con su número de línea posterior a la edición
+        public Token[] getTokensNuevos() {
+            return tokensNuevos;
+        }
+
+        // Cuánto se movieron las líneas que estaban después del rango editado
+        public int getDesplazamiento() {
+            return lineasInsertadas - lineasEliminadas;
+        }
+    }
+
+    public LexerIncremental(AFD afd, String documento) {
+        this.afd = afd;
+        for (String texto : dividirLineas(documento)) {
+            lineas.add(analizarLinea(texto));
+        }
+    }
+
+    /**
+     * Reemplaza las líneas [lineaInicio, lineaFin] (numeradas desde 1, inclusivas) por las
+     * líneas del texto dado. Con lineaFin = lineaInicio - 1 no se elimina nada y el texto
+     * se inserta antes de lineaInicio.
+     *
+     * Cada '\n' termina una línea y el último es opcional: "A" y "A\n" son una línea,
+     * "\n" es una línea vacía y "" no tiene ninguna, así que editar(a, b, "") borra las
+     * líneas a..b.
+     */
+    public Cambio editar(int lineaInicio, int lineaFin, String reemplazo) {
+        if (lineaInicio < 1 || lineaInicio > lineas.size() + 1
+                || lineaFin < lineaInicio - 1 || lineaFin > lineas.size()) {
+            throw new IndexOutOfBoundsException("Rango de líneas inválido: " + lineaInicio + ".." + lineaFin
+                    + " (documento de " + lineas.size() + " líneas)");
+        }
+
+        // 1. Tokens de las líneas que se eliminan (con su número original)
+        List<Token> eliminados = new ArrayList<>();
+        for (int n = lineaInicio; n <= lineaFin; n++) {
+            agregarTokens(eliminados, n);
+        }
+        lineas.subList(lineaInicio - 1, lineaFin).clear();
+
+        // 2. Analizar solo las líneas nuevas
+        String[] nuevas = lineasDeReemplazo(reemplazo);
+        List<Linea> analizadas = new ArrayList<>(nuevas.length);
+        for (String texto : nuevas) {
+            analizadas.add(analizarLinea(texto));
+        }
+        lineas.addAll(lineaInicio - 1, analizadas);
+
+        List<Token> agregados = new ArrayList<>();
+        for (int n = lineaInicio; n < lineaInicio + nuevas.length; n++) {
+            agregarTokens(agregados, n);
+        }
+
+        return new Cambio(lineaInicio, lineaFin - lineaInicio + 1, nuevas.length,
+                eliminados.toArray(new Token[0]), agregados.toArray(new Token[0]));
+    }
+
+    public int getNumLineas() {
+        return lineas.size();
+    }
+
+    public String getLinea(int numLinea) {
+        return lineas.get(numLinea - 1).texto;
+    }
+
+    public String getTexto() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lineas.size(); i++) {
+            if (i > 0) sb.append('\n');
+            sb.append(lineas.get(i).texto);
+        }
+        return sb.toString();
+    }
+
+    // Tokens de una línea con su número de línea actual
+    public Token[] tokensDeLinea(int numLinea) {
+        List<Token> tokens = new ArrayList<>();
+        agregarTokens(tokens, numLinea);
+        return tokens.toArray(new Token[0]);
+    }
+
+    // Tokens de todo el documento, igual que afd.aceptar(DSLCore.tokenizador(getTexto()))
+    public Token[] tokens() {
+        List<Token> tokens = new ArrayList<>();
+        for (int n = 1; n <= lineas.size(); n++) {
+            agregarTokens(tokens, n);
+        }
+        return tokens.toArray(new Token[0]);
+    }
+
+    private void agregarTokens(List<Token> destino, int numLinea) {
+        for (Token tk : lineas.get(numLinea - 1).tokens) {
+            destino.add(tk.enLinea(numLinea));
+        }
+    }
+
+    private Linea analizarLinea(String texto) {
+        List<Token> tokens = new ArrayList<>();
+        PreTokenizador.escanear(texto, 0, texto.length(), 1,
+                (inicio, fin, linea) -> afd.aceptar(texto.substring(inicio, fin), linea, tokens::add));
+        return new Linea(texto, tokens.toArray(new Token[0]));
+    }
+
+    // Divide por '\n' conservando las líneas vacías del final
+    private static String[] dividirLineas(String texto) {
+        return texto.split("\n", -1);
+    }
+
+    // Como dividirLineas, pero el '\n' final no abre otra línea y "" no tiene líneas
+    private static String[] lineasDeReemplazo(String texto) {
+        if (texto.isEmpty()) return new String[0];
+        return dividirLineas(texto.endsWith("\n") ? texto.substring(0, texto.length() - 1) : texto);
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Análisis léxico en paralelo de scripts grandes.
+ * El texto se corta en bloques en los saltos de línea (ningún lexema ni comentario
+ * cruza un salto de línea), se cuenta cuántas líneas tiene cada bloque para conocer
+ * la línea inicial del siguiente, y luego cada bloque se pre-tokeniza y clasifica en
+ * un ForkJoinPool. Los resultados se unen en el orden original.
+ * El AFD es inmutable, por lo que una sola instancia se comparte entre todos los hilos.
+ */
+public final class LexerParalelo {
+    // Tamaño mínimo (en caracteres) de cada bloque; por debajo no vale la pena dividir
+    public static final int TAMANO_BLOQUE_DEFECTO = 256 * 1024;
+
+    private LexerParalelo() {
+    }
+
+    public static Token[] analizar(String entrada, AFD afd) {
+        return analizar(entrada, afd, ForkJoinPool.commonPool(), TAMANO_BLOQUE_DEFECTO);
+    }
+
+    /**
+     * Equivalente a afd.aceptar(DSLCore.tokenizador(entrada)), repartido entre los
+     * hilos del pool.
+     */
+    public static Token[] analizar(String entrada, AFD afd, ForkJoinPool pool, int tamanoBloque) {
+        if (tamanoBloque <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser positivo: " + tamanoBloque);
+        }
+
+        // 1. Cortes en saltos de línea: cada bloque termina justo después de un '\n'
+        List<Integer> cortes = new ArrayList<>();
+        cortes.add(0);
+        int posicion = 0;
+        while (entrada.length() - posicion > tamanoBloque) {
+            int salto = entrada.indexOf('\n', posicion + tamanoBloque);
+            if (salto < 0) break;
+            posicion = salto + 1;
+            cortes.add(posicion);
+        }
+        cortes.add(entrada.length());
+
+        int numBloques = cortes.size() - 1;
+        int[] inicio = new int[numBloques];
+        int[] fin = new int[numBloques];
+        for (int b = 0; b < numBloques; b++) {
+            inicio[b] = cortes.get(b);
+            fin[b] = cortes.get(b + 1);
+        }
+
+        // 2. Líneas por bloque (en paralelo) y suma de prefijos para la línea inicial
+        int[] lineaInicial = new int[numBloques];
+        pool.invoke(new TareaBloques(0, numBloques, b -> lineaInicial[b] = contarSaltos(entrada, inicio[b], fin[b])));
+        int acumulado = 1;
+        for (int b = 0; b < numBloques; b++) {
+            int saltos = lineaInicial[b];
+            lineaInicial[b] = acumulado;
+            acumulado += saltos;
+        }
+
+        // 3. Pre-tokenizar y clasificar cada bloque (en paralelo)
+        Token[][] resultados = new Token[numBloques][];
+        pool.invoke(new TareaBloques(0, numBloques, b -> {
+            List<Token> tokens = new ArrayList<>();
+            PreTokenizador.escanear(entrada, inicio[b], fin[b], lineaInicial[b],
+                    (i, f, linea) -> afd.aceptar(entrada.substring(i, f), linea, tokens::add));
+            resultados[b] = tokens.toArray(new Token[0]);
+        }));
+
+        // 4. Unir en orden
+        int total = 0;
+        for (Token[] r : resultados) total += r.length;
+        Token[] salida = new Token[total];
+        int destino = 0;
+        for (Token[] r : resultados) {
+            System.arraycopy(r, 0, salida, destino, r.length);
+            destino += r.length;
+        }
+        return salida;
+    }
+
+    private static int contarSaltos(String texto, int inicio, int fin) {
+        int saltos = 0;
+        for (int i = inicio; i < fin; i++) {
+            if (texto.charAt(i) == '\n') saltos++;
+        }
+        return saltos;
+    }
+
+    // Trabajo a realizar sobre un bloque
+    private interface TrabajoBloque {
+        void procesar(int bloque);
+    }
+
+    // Divide el rango de bloques a la mitad hasta llegar a un solo bloque
+    private static final class TareaBloques extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int desde;
+        private final int hasta;
+        private final TrabajoBloque trabajo;
+
+        TareaBloques(int desde, int hasta, TrabajoBloque trabajo) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.trabajo = trabajo;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= 1) {
+                if (hasta > desde) trabajo.procesar(desde);
+                return;
+            }
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TareaBloques(desde, medio, trabajo), new TareaBloques(medio, hasta, trabajo));
+        }
+    }
+}
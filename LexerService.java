@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Servicio en proceso para analizar muchos scripts pequeños a la vez.
+ * Todas las tareas comparten un único AFD inmutable (no se regenera por script;
+ * con un vocabulario recargable, cada script toma la versión vigente al empezar) y
+ * cada una corre en su propio hilo virtual cuando la JVM los tiene (Java 21+); en
+ * JVM anteriores se usa un pool fijo de hilos de plataforma.
+ *
+ * Dos semáforos acotan la carga: uno limita cuántos scripts se analizan a la vez y
+ * otro cuántos pueden estar pendientes; cuando se llena, enviar() bloquea a quien
+ * envía (contrapresión) en lugar de acumular trabajo sin límite. Los buffers de
+ * trabajo se reutilizan desde una reserva del tamaño de la concurrencia, porque con
+ * hilos virtuales un ThreadLocal no sobrevive a la tarea.
+ */
+public class LexerService implements AutoCloseable {
+    private final Supplier<AFD> fuenteAFD;
+    private final ExecutorService ejecutor;
+    private final boolean hilosVirtuales;
+    private final Semaphore enEjecucion;
+    private final Semaphore pendientes;
+    private final ConcurrentLinkedQueue<List<Token>> buffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param concurrencia      scripts que se analizan a la vez
+     * @param maximoPendientes  scripts enviados y no terminados antes de bloquear al que envía
+     */
+    public LexerService(AFD afd, int concurrencia, int maximoPendientes) {
+        this(() -> afd, concurrencia, maximoPendientes);
+    }
+
+    /**
+     * Servicio que pide el AFD a cada script (por ejemplo VocabularioDinamico::obtener).
+     */
+    public LexerService(Supplier<AFD> fuenteAFD, int concurrencia, int maximoPendientes) {
+        if (concurrencia <= 0 || maximoPendientes < concurrencia) {
+            throw new IllegalArgumentException("Se requiere 0 < concurrencia <= maximoPendientes: "
+                    + concurrencia + ", " + maximoPendientes);
+        }
+        this.fuenteAFD = fuenteAFD;
+        this.enEjecucion = new Semaphore(concurrencia);
+        this.pendientes = new Semaphore(maximoPendientes);
+
+        ExecutorService virtual = ejecutorVirtual();
+        this.hilosVirtuales = virtual != null;
+        this.ejecutor = virtual != null ? virtual : Executors.newFixedThreadPool(concurrencia);
+    }
+
+    // Servicio con el AFD compartido del DSL, un script por procesador y una cola de 64 por procesador
+    public static LexerService crear() {
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        return new LexerService(DSLCore::obtenerAFD, procesadores, procesadores * 64);
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() si existe (Java 21+), o null
+    private static ExecutorService ejecutorVirtual() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public boolean usaHilosVirtuales() {
+        return hilosVirtuales;
+    }
+
+    /**
+     * Envía un script; el resultado es equivalente a afd.aceptar(DSLCore.tokenizador(script)).
+     * Bloquea mientras haya demasiados scripts pendientes.
+     */
+    public CompletableFuture<Token[]> enviar(String script) throws InterruptedException {
+        pendientes.acquire();
+        return lanzar(script);
+    }
+
+    /**
+     * Como enviar(), pero espera a lo sumo el tiempo dado por un cupo; devuelve null
+     * si el servicio siguió saturado.
+     */
+    public CompletableFuture<Token[]> enviar(String script, long espera, TimeUnit unidad) throws InterruptedException {
+        if (!pendientes.tryAcquire(espera, unidad)) return null;
+        return lanzar(script);
+    }
+
+    private CompletableFuture<Token[]> lanzar(String script) {
+        CompletableFuture<Token[]> resultado = new CompletableFuture<>();
+        try {
+            ejecutor.execute(() -> {
+                try {
+                    enEjecucion.acquire();
+                    try {
+                        resultado.complete(analizar(script));
+                    } finally {
+                        enEjecucion.release();
+                    }
+                } catch (Throwable t) {
+                    resultado.completeExceptionally(t);
+                } finally {
+                    pendientes.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Servicio cerrado u otro rechazo del ejecutor
+            pendientes.release();
+            resultado.completeExceptionally(e);
+        }
+        return resultado;
+    }
+
+    /**
+     * Analiza un lote y devuelve los resultados en el mismo orden. Los scripts se
+     * envían con contrapresión, así que un lote grande no llena la memoria de tareas.
+     */
+    public List<Token[]> analizarLote(List<String> scripts) throws InterruptedException, ExecutionException {
+        List<CompletableFuture<Token[]>> futuros = new ArrayList<>(scripts.size());
+        for (String script : scripts) {
+            futuros.add(enviar(script));
+        }
+        List<Token[]> resultados = new ArrayList<>(scripts.size());
+        for (CompletableFuture<Token[]> futuro : futuros) {
+            resultados.add(futuro.get());
+        }
+        return resultados;
+    }
+
+    // Pre-tokeniza y clasifica en una sola pasada sobre un buffer reutilizado
+    private Token[] analizar(String script) {
+        AFD vigente = fuenteAFD.get();
+        List<Token> tokens = buffers.poll();
+        if (tokens == null) tokens = new ArrayList<>();
+        try {
+            List<Token> salida = tokens;
+            EscanerLimites.escanear(script, 0, script.length(), 1,
+                    (inicio, fin, linea) -> vigente.aceptar(script.substring(inicio, fin), linea, salida::add));
+            return tokens.toArray(new Token[0]);
+        } finally {
+            tokens.clear();
+            buffers.offer(tokens);
+        }
+    }
+
+    /**
+     * Deja de aceptar scripts y espera a que terminen los pendientes.
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+        try {
+            while (!ejecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                // se sigue esperando a los pendientes
+            }
+        } catch (InterruptedException e) {
+            ejecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Análisis léxico directo sobre bytes UTF-8 (un ByteBuffer o un archivo mapeado en
+ * memoria), sin decodificar la entrada a String.
+ *
+ * Todos los espacios, delimitadores y operadores del DSL son ASCII, y en UTF-8 los
+ * bytes de un carácter multibyte son siempre >= 0x80, así que el pre-tokenizador
+ * puede recorrer los bytes como si fueran caracteres (vista Latin-1) sin partir
+ * ningún carácter. Los lexemas puramente ASCII se clasifican en su lugar con las
+ * tablas del AFD; solo los que tienen caracteres multibyte (la Ñ de TAMAÑO, letras
+ * acentuadas) se decodifican para clasificarlos.
+ * El resultado es un BufferTokens cuyos tokens son rangos de bytes.
+ */
+public final class LexerUtf8 {
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private LexerUtf8() {
+    }
+
+    /**
+     * Mapea el archivo en memoria y lo analiza. Los tokens apuntan al archivo mapeado.
+     */
+    public static BufferTokens analizarArchivo(Path archivo, AFD afd) throws IOException {
+        MappedByteBuffer bytes;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("El archivo supera los 2 GB que admite un solo mapeo: " + archivo);
+            }
+            bytes = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        return analizar(bytes, afd);
+    }
+
+    /**
+     * Analiza los bytes UTF-8 entre la posición y el límite del buffer (sin moverlos).
+     * Se omite la marca de orden de bytes (BOM) inicial si la hay.
+     */
+    public static BufferTokens analizar(ByteBuffer bytes, AFD afd) {
+        int inicio = bytes.position();
+        int fin = bytes.limit();
+        if (fin - inicio >= BOM.length && bytes.get(inicio) == BOM[0]
+                && bytes.get(inicio + 1) == BOM[1] && bytes.get(inicio + 2) == BOM[2]) {
+            inicio += BOM.length;
+        }
+
+        // Estimación inicial: un token cada ~6 bytes
+        BufferTokens buffer = BufferTokens.sobreBytes(bytes, afd, (fin - inicio) / 6 + 1);
+        VistaBytes vista = new VistaBytes(bytes);
+        PreTokenizador.escanear(vista, inicio, fin, 1, (i, f, linea) -> {
+            if (esAscii(bytes, i, f)) {
+                afd.clasificar(vista, i, f, linea, buffer::agregar);
+            } else {
+                clasificarMultibyte(bytes, i, f, linea, afd, buffer);
+            }
+        });
+        return buffer;
+    }
+
+    private static boolean esAscii(ByteBuffer bytes, int inicio, int fin) {
+        int acumulado = 0;
+        for (int i = inicio; i < fin; i++) acumulado |= bytes.get(i);
+        return acumulado >= 0;
+    }
+
+    /**
+     * Decodifica un lexema con caracteres multibyte, lo clasifica y traduce las
+     * posiciones de los tokens resultantes (en caracteres) a bytes.
+     */
+    private static void clasificarMultibyte(ByteBuffer bytes, int inicio, int fin, int linea, AFD afd,
+                                            BufferTokens buffer) {
+        byte[] copia = new byte[fin - inicio];
+        bytes.get(inicio, copia);
+        String lexema = new String(copia, StandardCharsets.UTF_8);
+        afd.clasificar(lexema, 0, lexema.length(), linea,
+                (i, f, lineaToken, tipo, estado, reconocido) -> buffer.agregar(
+                        aByte(lexema, i, inicio, fin), aByte(lexema, f, inicio, fin),
+                        lineaToken, tipo, estado, reconocido));
+    }
+
+    // Posición en bytes del carácter indice del lexema (que empieza en el byte inicio)
+    private static int aByte(String lexema, int indice, int inicio, int fin) {
+        if (indice == lexema.length()) return fin;
+        int posicion = inicio;
+        for (int i = 0; i < indice; i++) {
+            char c = lexema.charAt(i);
+            if (c < 0x80) {
+                posicion += 1;
+            } else if (c < 0x800) {
+                posicion += 2;
+            } else if (Character.isSurrogate(c)) {
+                posicion += 2; // cada mitad del par es la mitad de una secuencia de 4 bytes
+            } else {
+                posicion += 3;
+            }
+        }
+        // Con bytes inválidos (reemplazados por U+FFFD) la cuenta puede pasarse
+        return Math.min(posicion, fin);
+    }
+
+    /**
+     * Los bytes vistos como caracteres Latin-1, con las posiciones absolutas del
+     * buffer. Solo es fiel al texto en las partes ASCII.
+     */
+    private static final class VistaBytes implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int desplazamiento;
+        private final int largo;
+
+        VistaBytes(ByteBuffer bytes) {
+            this(bytes, 0, bytes.limit());
+        }
+
+        private VistaBytes(ByteBuffer bytes, int desplazamiento, int largo) {
+            this.bytes = bytes;
+            this.desplazamiento = desplazamiento;
+            this.largo = largo;
+        }
+
+        @Override
+        public int length() {
+            return largo;
+        }
+
+        @Override
+        public char charAt(int indice) {
+            return (char) (bytes.get(desplazamiento + indice) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int inicio, int fin) {
+            return new VistaBytes(bytes, desplazamiento + inicio, fin - inicio);
+        }
+
+        @Override
+        public String toString() {
+            byte[] copia = new byte[largo];
+            bytes.get(desplazamiento, copia);
+            return new String(copia, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
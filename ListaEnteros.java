@@ -0,0 +1,248 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Lista doblemente enlazada de enteros con nodos en arreglos paralelos (valor,
+ * siguiente, anterior): un nodo es un índice, no un objeto. Los nodos eliminados
+ * vuelven a una lista libre y se reutilizan, así que insertar y eliminar no crean
+ * basura. Sirve para LISTA_ENLAZADAS, LISTA_DOBLE_ENLAZADA y LISTA_CIRCULAR (la
+ * circular solo cambia cómo se recorre).
+ *
+ * Los nodos se recorren con primero() / siguiente() (o ultimo() / anterior())
+ * hasta NINGUNO.
+ */
+public final class ListaEnteros {
+    public static final int NINGUNO = -1;
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private int[] valores = new int[CAPACIDAD_INICIAL];
+    private int[] siguientes = new int[CAPACIDAD_INICIAL];
+    private int[] anteriores = new int[CAPACIDAD_INICIAL];
+    private int usados = 0;         // nodos creados alguna vez
+    private int libre = NINGUNO;    // primer nodo de la lista libre (enlazada por siguientes)
+
+    private int cabeza = NINGUNO;
+    private int cola = NINGUNO;
+    private int tamano = 0;
+
+    // Instantánea que aún lee los arreglos (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    private int nuevoNodo(int valor) {
+        int nodo;
+        if (libre != NINGUNO) {
+            nodo = libre;
+            libre = siguientes[nodo];
+        } else {
+            if (usados == valores.length) {
+                int nueva = usados * 2;
+                valores = Arrays.copyOf(valores, nueva);
+                siguientes = Arrays.copyOf(siguientes, nueva);
+                anteriores = Arrays.copyOf(anteriores, nueva);
+            }
+            nodo = usados++;
+        }
+        valores[nodo] = valor;
+        return nodo;
+    }
+
+    // Inserta antes del nodo dado (NINGUNO = al final)
+    private void insertarAntes(int nodo, int valor) {
+        separar();
+        int nuevo = nuevoNodo(valor);
+        int previo = nodo == NINGUNO ? cola : anteriores[nodo];
+        siguientes[nuevo] = nodo;
+        anteriores[nuevo] = previo;
+        if (previo == NINGUNO) cabeza = nuevo; else siguientes[previo] = nuevo;
+        if (nodo == NINGUNO) cola = nuevo; else anteriores[nodo] = nuevo;
+        tamano++;
+    }
+
+    private int quitar(int nodo) {
+        separar();
+        int previo = anteriores[nodo];
+        int proximo = siguientes[nodo];
+        if (previo == NINGUNO) cabeza = proximo; else siguientes[previo] = proximo;
+        if (proximo == NINGUNO) cola = previo; else anteriores[proximo] = previo;
+        siguientes[nodo] = libre;
+        libre = nodo;
+        tamano--;
+        return valores[nodo];
+    }
+
+    // Nodo en la posición dada, recorriendo desde el extremo más cercano
+    private int nodoEn(int posicion) {
+        if (posicion < 0 || posicion >= tamano) throw new IndexOutOfBoundsException(posicion);
+        if (posicion < tamano / 2) {
+            int nodo = cabeza;
+            for (int i = 0; i < posicion; i++) nodo = siguientes[nodo];
+            return nodo;
+        }
+        int nodo = cola;
+        for (int i = tamano - 1; i > posicion; i--) nodo = anteriores[nodo];
+        return nodo;
+    }
+
+    public void insertarInicio(int valor) {
+        insertarAntes(cabeza, valor);
+    }
+
+    public void insertarFinal(int valor) {
+        insertarAntes(NINGUNO, valor);
+    }
+
+    // Inserta para que el valor quede en la posición dada (0 <= posicion <= tamano)
+    public void insertarEn(int posicion, int valor) {
+        if (posicion == tamano) {
+            insertarFinal(valor);
+        } else {
+            insertarAntes(nodoEn(posicion), valor);
+        }
+    }
+
+    public int eliminarInicio() {
+        if (tamano == 0) throw new NoSuchElementException("Lista vacía");
+        return quitar(cabeza);
+    }
+
+    public int eliminarFinal() {
+        if (tamano == 0) throw new NoSuchElementException("Lista vacía");
+        return quitar(cola);
+    }
+
+    public int eliminarEn(int posicion) {
+        return quitar(nodoEn(posicion));
+    }
+
+    // Elimina la primera aparición del valor; devuelve false si no estaba
+    public boolean eliminarValor(int valor) {
+        for (int nodo = cabeza; nodo != NINGUNO; nodo = siguientes[nodo]) {
+            if (valores[nodo] == valor) {
+                quitar(nodo);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Posición de la primera aparición del valor, o -1
+    public int buscar(int valor) {
+        int i = 0;
+        for (int nodo = cabeza; nodo != NINGUNO; nodo = siguientes[nodo], i++) {
+            if (valores[nodo] == valor) return i;
+        }
+        return -1;
+    }
+
+    public int get(int posicion) {
+        return valores[nodoEn(posicion)];
+    }
+
+    // Recorrido por nodos
+
+    public int primero() {
+        return cabeza;
+    }
+
+    public int ultimo() {
+        return cola;
+    }
+
+    public int siguiente(int nodo) {
+        return siguientes[nodo];
+    }
+
+    public int anterior(int nodo) {
+        return anteriores[nodo];
+    }
+
+    public int valor(int nodo) {
+        return valores[nodo];
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    public void limpiar() {
+        usados = 0;
+        libre = NINGUNO;
+        cabeza = NINGUNO;
+        cola = NINGUNO;
+        tamano = 0;
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo los arreglos, se trabaja sobre copias
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) {
+            valores = valores.clone();
+            siguientes = siguientes.clone();
+            anteriores = anteriores.clone();
+        }
+        compartida = null;
+    }
+
+    // Se guardan los nodos creados con sus enlaces, lista libre incluida
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        return new InstantaneaDSL.Seccion(new int[] {usados, libre, cabeza, cola, tamano},
+                new Object[] {valores, siguientes, anteriores}, new int[] {usados, usados, usados});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(5, 3);
+        int[] e = seccion.escalares;
+        int n = e[0];
+        int[] nuevosValores = seccion.enteros(0);
+        int[] nuevosSiguientes = seccion.enteros(1);
+        int[] nuevosAnteriores = seccion.enteros(2);
+        if (n < 0 || nuevosValores.length != n || nuevosSiguientes.length != n || nuevosAnteriores.length != n
+                || !esNodo(e[1], n) || !esNodo(e[2], n) || !esNodo(e[3], n) || e[4] < 0 || e[4] > n) {
+            throw new IllegalArgumentException("Lista incoherente");
+        }
+        for (int nodo = 0; nodo < n; nodo++) {
+            if (!esNodo(nuevosSiguientes[nodo], n) || !esNodo(nuevosAnteriores[nodo], n)) {
+                throw new IllegalArgumentException("Enlace de la lista fuera de rango en el nodo " + nodo);
+            }
+        }
+        // La cadena y la lista libre se recorren una vez: sin ciclos, sin nodos en las
+        // dos, y la cadena con exactamente tamano nodos enlazados en ambos sentidos
+        boolean[] visto = new boolean[n];
+        int contados = 0;
+        int previo = NINGUNO;
+        for (int nodo = e[2]; nodo != NINGUNO; previo = nodo, nodo = nuevosSiguientes[nodo]) {
+            if (visto[nodo] || nuevosAnteriores[nodo] != previo) throw new IllegalArgumentException("Lista con enlaces cruzados");
+            visto[nodo] = true;
+            contados++;
+        }
+        if (contados != e[4] || previo != e[3]) throw new IllegalArgumentException("Lista incoherente");
+        for (int nodo = e[1]; nodo != NINGUNO; nodo = nuevosSiguientes[nodo]) {
+            if (visto[nodo]) throw new IllegalArgumentException("Lista libre con ciclos o nodos en uso");
+            visto[nodo] = true;
+        }
+        return () -> {
+            valores = seccion.enteros(0, CAPACIDAD_INICIAL);
+            siguientes = seccion.enteros(1, CAPACIDAD_INICIAL);
+            anteriores = seccion.enteros(2, CAPACIDAD_INICIAL);
+            usados = n;
+            libre = e[1];
+            cabeza = e[2];
+            cola = e[3];
+            tamano = e[4];
+            compartida = null;
+        };
+    }
+
+    private static boolean esNodo(int nodo, int usados) {
+        return nodo >= NINGUNO && nodo < usados;
+    }
+}
@@ -0,0 +1,288 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+
+/**
+ * Métricas del analizador léxico para observar su comportamiento en producción.
+ * Mide cada fase (pre-tokenización en DSLCore.tokenizador y clasificación en
+ * AFD.aceptar): caracteres y tokens procesados, latencia en un histograma de
+ * potencias de dos, tokens por TipoToken (lo que incluye cada tipo de error) y
+ * cuántos lexemas se partieron en el Caso 3 (prefijo PR seguido de un error).
+ * Además emite un evento JFR por fase ("dsl.FaseLexer") cuando hay una grabación activa.
+ *
+ * Las métricas están apagadas por defecto (se encienden con -Ddsl.metricas=true o
+ * con activar()). Apagadas y sin una grabación JFR en curso, el costo por fase es
+ * leer dos banderas: el evento solo se crea si hay algo que medir.
+ */
+public final class MetricasLexer {
+
+    // Propiedad del sistema que enciende las métricas al arrancar
+    public static final String PROPIEDAD_METRICAS = "dsl.metricas";
+
+    public enum Fase {
+        PRE_TOKENIZACION,
+        CLASIFICACION
+    }
+
+    // Cubetas del histograma: la cubeta k cuenta duraciones en [2^(k-1), 2^k) ns
+    private static final int NUM_CUBETAS = 64;
+
+    private static volatile boolean activas = Boolean.getBoolean(PROPIEDAD_METRICAS);
+
+    // Si hay alguna grabación JFR en curso. La mantiene un listener, así que consultarla
+    // no crea el evento ni inicializa JFR
+    private static volatile boolean jfrGrabando;
+
+    static {
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder recorder) {
+                actualizarGrabando(recorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording recording) {
+                actualizarGrabando(FlightRecorder.getFlightRecorder());
+            }
+        });
+    }
+
+    private static void actualizarGrabando(FlightRecorder recorder) {
+        boolean alguna = false;
+        for (Recording grabacion : recorder.getRecordings()) {
+            if (grabacion.getState() == RecordingState.RUNNING) alguna = true;
+        }
+        jfrGrabando = alguna;
+    }
+
+    private static final int NUM_FASES = Fase.values().length;
+    private static final LongAdder[] ejecuciones = adders(NUM_FASES);
+    private static final LongAdder[] nanos = adders(NUM_FASES);
+    private static final LongAdder[] caracteres = adders(NUM_FASES);
+    private static final LongAdder[] tokens = adders(NUM_FASES);
+    private static final LongAdder[] histograma = adders(NUM_FASES * NUM_CUBETAS);
+    private static final LongAdder[] tokensPorTipo = adders(TipoToken.values().length);
+    private static final LongAdder divisionesPrefijo = new LongAdder();
+
+    private MetricasLexer() {
+    }
+
+    private static LongAdder[] adders(int cantidad) {
+        LongAdder[] resultado = new LongAdder[cantidad];
+        for (int i = 0; i < cantidad; i++) resultado[i] = new LongAdder();
+        return resultado;
+    }
+
+    public static boolean activas() {
+        return activas;
+    }
+
+    public static void activar(boolean valor) {
+        activas = valor;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Registro (usado por DSLCore y AFD) ---
+    // -------------------------------------------------------------------
+
+    /**
+     * Evento JFR de una fase del analizador. El inicio propio (transient, no se graba)
+     * sirve para las métricas aunque JFR no esté grabando.
+     */
+    @Name("dsl.FaseLexer")
+    @Label("Fase del analizador léxico")
+    @Category({"DSL", "Analizador léxico"})
+    @StackTrace(false)
+    static final class EventoFase extends Event {
+        @Label("Fase")
+        String fase;
+
+        @Label("Caracteres")
+        @DataAmount(DataAmount.BYTES)
+        long caracteres;
+
+        @Label("Tokens")
+        long tokens;
+
+        @Label("Errores léxicos")
+        long errores;
+
+        @Label("Divisiones por prefijo")
+        @Description("Lexemas partidos en el Caso 3 (prefijo PR seguido de un error)")
+        long divisionesPrefijo;
+
+        transient long inicioNanos;
+    }
+
+    /**
+     * Marca el inicio de una fase. Devuelve null si no hay nada que medir, de modo que
+     * terminar() no haga ningún trabajo.
+     */
+    static EventoFase iniciar() {
+        if (!activas && !jfrGrabando) return null;
+        EventoFase evento = new EventoFase();
+        // Puede haber una grabación que no incluya este evento
+        boolean grabando = evento.isEnabled();
+        if (!activas && !grabando) return null;
+        evento.inicioNanos = System.nanoTime();
+        if (grabando) evento.begin();
+        return evento;
+    }
+
+    /**
+     * Cierra la pre-tokenización de un texto con el número de lexemas encontrados.
+     */
+    static void terminarPreTokenizacion(EventoFase evento, int numCaracteres, int numLexemas) {
+        if (evento == null) return;
+        long duracion = System.nanoTime() - evento.inicioNanos;
+        if (activas) registrar(Fase.PRE_TOKENIZACION, duracion, numCaracteres, numLexemas);
+        if (evento.shouldCommit()) {
+            evento.fase = Fase.PRE_TOKENIZACION.name();
+            evento.caracteres = numCaracteres;
+            evento.tokens = numLexemas;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Cierra la clasificación de un arreglo de tokens: cuenta los tipos resultantes y
+     * las divisiones del Caso 3 (cada división produce un token más que lexemas).
+     */
+    static void terminarClasificacion(EventoFase evento, int numLexemas, Token[] resultado) {
+        if (evento == null) return;
+        long duracion = System.nanoTime() - evento.inicioNanos;
+
+        int[] porTipo = new int[tokensPorTipo.length];
+        long errores = 0;
+        for (Token tk : resultado) {
+            porTipo[tk.getTipo().ordinal()]++;
+            if (tk.getTipo().esError()) errores++;
+        }
+        int divisiones = resultado.length - numLexemas;
+
+        if (activas) {
+            registrar(Fase.CLASIFICACION, duracion, 0, resultado.length);
+            for (int t = 0; t < porTipo.length; t++) {
+                if (porTipo[t] != 0) tokensPorTipo[t].add(porTipo[t]);
+            }
+            divisionesPrefijo.add(divisiones);
+        }
+        if (evento.shouldCommit()) {
+            evento.fase = Fase.CLASIFICACION.name();
+            evento.tokens = resultado.length;
+            evento.errores = errores;
+            evento.divisionesPrefijo = divisiones;
+            evento.commit();
+        }
+    }
+
+    private static void registrar(Fase fase, long duracion, long numCaracteres, long numTokens) {
+        int f = fase.ordinal();
+        ejecuciones[f].increment();
+        nanos[f].add(duracion);
+        caracteres[f].add(numCaracteres);
+        tokens[f].add(numTokens);
+        histograma[f * NUM_CUBETAS + cubeta(duracion)].increment();
+    }
+
+    private static int cubeta(long duracion) {
+        return duracion <= 0 ? 0 : Math.min(NUM_CUBETAS - 1, 64 - Long.numberOfLeadingZeros(duracion));
+    }
+
+    // -------------------------------------------------------------------
+    // --- Consulta ---
+    // -------------------------------------------------------------------
+
+    public static long getEjecuciones(Fase fase) {
+        return ejecuciones[fase.ordinal()].sum();
+    }
+
+    public static long getNanos(Fase fase) {
+        return nanos[fase.ordinal()].sum();
+    }
+
+    public static long getTokens(Fase fase) {
+        return tokens[fase.ordinal()].sum();
+    }
+
+    // Tokens clasificados de un tipo; con los tipos de error da los errores por clase
+    public static long getTokens(TipoToken tipo) {
+        return tokensPorTipo[tipo.ordinal()].sum();
+    }
+
+    public static long getDivisionesPrefijo() {
+        return divisionesPrefijo.sum();
+    }
+
+    // Proporción de lexemas que se partieron en el Caso 3
+    public static double getTasaDivisionPrefijo() {
+        long clasificados = getTokens(Fase.CLASIFICACION) - getDivisionesPrefijo();
+        return clasificados == 0 ? 0 : (double) getDivisionesPrefijo() / clasificados;
+    }
+
+    // Tokens por segundo dentro de la fase
+    public static double getTokensPorSegundo(Fase fase) {
+        long n = getNanos(fase);
+        return n == 0 ? 0 : getTokens(fase) * 1e9 / n;
+    }
+
+    // Caracteres de entrada por segundo en la pre-tokenización (1 byte por carácter ASCII)
+    public static double getCaracteresPorSegundo() {
+        long n = getNanos(Fase.PRE_TOKENIZACION);
+        return n == 0 ? 0 : caracteres[Fase.PRE_TOKENIZACION.ordinal()].sum() * 1e9 / n;
+    }
+
+    /**
+     * Latencia (en ns) por debajo de la cual quedó la fracción p de las ejecuciones de
+     * la fase. Es el límite superior de la cubeta, así que puede exceder hasta el doble.
+     */
+    public static long getPercentil(Fase fase, double p) {
+        long total = getEjecuciones(fase);
+        if (total == 0) return 0;
+        long objetivo = (long) Math.ceil(p * total);
+        long acumulado = 0;
+        for (int k = 0; k < NUM_CUBETAS; k++) {
+            acumulado += histograma[fase.ordinal() * NUM_CUBETAS + k].sum();
+            if (acumulado >= objetivo) return k == 0 ? 0 : 1L << k;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public static void reiniciar() {
+        for (LongAdder[] grupo : new LongAdder[][] {ejecuciones, nanos, caracteres, tokens, histograma, tokensPorTipo}) {
+            for (LongAdder a : grupo) a.reset();
+        }
+        divisionesPrefijo.reset();
+    }
+
+    /**
+     * Resumen legible de las métricas acumuladas.
+     */
+    public static String reporte() {
+        StringBuilder sb = new StringBuilder();
+        for (Fase fase : Fase.values()) {
+            sb.append(String.format(Locale.ROOT, "%-17s ejecuciones=%d tokens/s=%.0f p50=%dns p99=%dns%n",
+                    fase, getEjecuciones(fase), getTokensPorSegundo(fase),
+                    getPercentil(fase, 0.50), getPercentil(fase, 0.99)));
+        }
+        sb.append(String.format(Locale.ROOT, "Caracteres/s (pre-tokenización): %.0f%n", getCaracteresPorSegundo()));
+        sb.append(String.format(Locale.ROOT, "Divisiones por prefijo (Caso 3): %d (%.2f%%)%n",
+                getDivisionesPrefijo(), 100 * getTasaDivisionPrefijo()));
+        for (TipoToken tipo : TipoToken.values()) {
+            long n = getTokens(tipo);
+            if (n > 0) sb.append(String.format(Locale.ROOT, "  %-24s %d%n", tipo.getEtiqueta(), n));
+        }
+        return sb.toString();
+    }
+}
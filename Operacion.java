@@ -0,0 +1,56 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Operaciones de un comando del DSL. Las que vienen de una palabra reservada se
+ * llaman igual que ella; SI, SINO y FIN_SI son las marcas de control que el
+ * analizador de sentencias genera para if / else.
+ */
+public enum Operacion {
+    // Inserción
+    INSERTAR, INSERTAR_FINAL, INSERTAR_INICIO, INSERTAR_EN_POSICION, INSERTARIZQUIERDA, INSERTARDERECHA,
+    AGREGARNODO, APILAR, ENCOLAR, PUSH, ENQUEUE,
+
+    // Eliminación
+    ELIMINAR, ELIMINAR_INICIO, ELIMINAR_FINAL, ELIMINAR_FRENTE, ELIMINAR_POSICION, ELIMINARNODO,
+    DESAPILAR, POP, DESENCOLAR, DEQUEUE,
+
+    // Consulta y recorridos
+    BUSCAR, TOPE, FRENTE, PEEK, VERFILA, FRONT, CLAVE, VALOR,
+    RECORRER, RECORRERADELANTE, RECORRERATRAS, PREORDEN, INORDEN, POSTORDEN, RECORRIDOPORNIVELES,
+
+    // Tablas hash y grafos
+    ACTUALIZAR, REHASH, AGREGARARISTA, ELIMINARARISTA, VECINOS, BFS, DFS, CAMINOCORTO,
+
+    // Propiedades (también se usan como condición: PILA.VACIAT)
+    VACIAT, LLENAT, TAMAÑO, ALTURA, HOJAS, NODOS,
+
+    MOSTRAR,
+
+    // Control: SI lleva la condición, SINO separa la rama else y FIN_SI cierra el if
+    SI, SINO, FIN_SI;
+
+    private static final Operacion[] VALORES = values();
+    private static final Map<String, Operacion> POR_PALABRA = new HashMap<>();
+
+    static {
+        for (Operacion o : VALORES) {
+            if (o != SI && o != SINO && o != FIN_SI) POR_PALABRA.put(o.name(), o);
+        }
+    }
+
+    // Operación de una palabra reservada (en mayúsculas), o null si no es una operación
+    public static Operacion desdePalabra(String palabra) {
+        return POR_PALABRA.get(palabra);
+    }
+
+    // Inversa de ordinal()
+    public static Operacion desdeCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+
+    // Propiedades que pueden usarse como condición de un if
+    public boolean esPropiedad() {
+        return compareTo(VACIAT) >= 0 && compareTo(NODOS) <= 0;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro único de las palabras reservadas del DSL y su tipo léxico.
+ * DSLCore genera el AFD a partir de estas palabras y los reconocedores
+ * (ReconocedorPalabras) toman de aquí el tipo de cada una, de modo que no hay
+ * dos listas que mantener sincronizadas. Las palabras se escriben en mayúsculas;
+ * el reconocimiento no distingue mayúsculas de minúsculas.
+ */
+public final class PalabrasReservadas {
+
+    /**
+     * Palabras reservadas y su tipo, en el orden en que se declaran.
+     */
+    public static final Map<String, TipoToken> TIPOS;
+
+    static {
+        Map<String, TipoToken> tipos = new LinkedHashMap<>();
+
+        // Estructuras de Datos
+        reservadas(tipos, "PILA", "PILA_CIRCULAR", "COLA", "BICOLAS", "LISTA_ENLAZADAS", "LISTA_DOBLE_ENLAZADA",
+                "LISTA_CIRCULAR", "ARBOL_BINARIO", "TABLAS_HASH", "GRAFOS");
+
+        // Acciones/Operaciones
+        reservadas(tipos, "INSERTAR", "INSERTAR_FINAL", "INSERTAR_INICIO", "INSERTAR_EN_POSICION",
+                "INSERTARIZQUIERDA", "INSERTARDERECHA", "AGREGARNODO", "APILAR", "ENCOLAR", "PUSH", "ENQUEUE");
+        reservadas(tipos, "ELIMINAR", "ELIMINAR_INICIO", "ELIMINAR_FINAL", "ELIMINAR_FRENTE", "ELIMINAR_POSICION",
+                "ELIMINARNODO", "DESAPILAR", "POP", "DESENCOLAR", "DEQUEUE");
+        reservadas(tipos, "BUSCAR", "TOPE", "FRENTE", "PEEK", "VERFILA", "FRONT", "CLAVE");
+        reservadas(tipos, "RECORRER", "RECORRERADELANTE", "RECORRERATRAS", "PREORDEN", "INORDEN", "POSTORDEN",
+                "RECORRIDOPORNIVELES");
+
+        // Misceláneas
+        reservadas(tipos, "ACTUALIZAR", "REHASH", "AGREGARARISTA", "ELIMINARARISTA", "VECINOS", "BFS", "DFS",
+                "CAMINOCORTO");
+
+        // Propiedades/Verificación
+        reservadas(tipos, "VACIAT", "LLENAT", "TAMAÑO", "ALTURA", "HOJAS", "NODOS");
+
+        // Palabras Auxiliares/Control
+        reservadas(tipos, "EN", "CON", "VALOR", "MOSTRAR");
+        tipos.put("IF", TipoToken.PC_IF);
+        tipos.put("ELSE", TipoToken.PC_ELSE);
+
+        TIPOS = Collections.unmodifiableMap(tipos);
+    }
+
+    private PalabrasReservadas() {
+    }
+
+    private static void reservadas(Map<String, TipoToken> tipos, String... palabras) {
+        for (String palabra : palabras) tipos.put(palabra, TipoToken.PALABRA_RESERVADA);
+    }
+
+    // Conjunto de palabras reservadas (los estados de aceptación del AFD)
+    public static Set<String> palabras() {
+        return TIPOS.keySet();
+    }
+}
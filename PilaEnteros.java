@@ -0,0 +1,135 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Pila de enteros sobre un int[] (sin boxing ni objetos por elemento).
+ * La pila normal crece duplicando el arreglo. La circular tiene capacidad fija y
+ * se guarda como un anillo: al apilar con la pila llena se sobrescribe el elemento
+ * más antiguo (el del fondo), como en PILA_CIRCULAR.
+ */
+public final class PilaEnteros {
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private int[] datos;
+    private int base = 0;   // posición del fondo en el anillo (siempre 0 si no es circular)
+    private int tamano = 0;
+    private final boolean circular;
+
+    // Instantánea que aún lee datos (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    public PilaEnteros() {
+        this.datos = new int[CAPACIDAD_INICIAL];
+        this.circular = false;
+    }
+
+    private PilaEnteros(int capacidad) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser positiva: " + capacidad);
+        }
+        this.datos = new int[capacidad];
+        this.circular = true;
+    }
+
+    // Pila circular de capacidad fija
+    public static PilaEnteros circular(int capacidad) {
+        return new PilaEnteros(capacidad);
+    }
+
+    private int posicion(int i) {
+        int p = base + i;
+        return p >= datos.length ? p - datos.length : p;
+    }
+
+    public void apilar(int valor) {
+        separar();
+        if (tamano == datos.length) {
+            if (circular) {
+                // Se pierde el fondo: el nuevo tope ocupa su lugar
+                datos[base] = valor;
+                base = posicion(1);
+                return;
+            }
+            datos = Arrays.copyOf(datos, datos.length * 2);
+        }
+        datos[posicion(tamano++)] = valor;
+    }
+
+    public int desapilar() {
+        if (tamano == 0) throw new NoSuchElementException("Pila vacía");
+        return datos[posicion(--tamano)];
+    }
+
+    public int tope() {
+        if (tamano == 0) throw new NoSuchElementException("Pila vacía");
+        return datos[posicion(tamano - 1)];
+    }
+
+    // Elemento i contando desde el fondo (0 = fondo)
+    public int get(int i) {
+        if (i < 0 || i >= tamano) throw new IndexOutOfBoundsException(i);
+        return datos[posicion(i)];
+    }
+
+    // Distancia desde el tope hasta el valor (0 = tope), o -1 si no está
+    public int buscar(int valor) {
+        for (int i = tamano - 1; i >= 0; i--) {
+            if (datos[posicion(i)] == valor) return tamano - 1 - i;
+        }
+        return -1;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public boolean estaVacia() {
+        return tamano == 0;
+    }
+
+    // Solo una pila circular puede estar llena
+    public boolean estaLlena() {
+        return circular && tamano == datos.length;
+    }
+
+    public void limpiar() {
+        base = 0;
+        tamano = 0;
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo el arreglo, se trabaja sobre una copia
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) datos = datos.clone();
+        compartida = null;
+    }
+
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        // La circular guarda el anillo entero para conservar su capacidad
+        return new InstantaneaDSL.Seccion(new int[] {circular ? 1 : 0, base, tamano},
+                new Object[] {datos}, new int[] {circular ? datos.length : tamano});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(3, 1);
+        int[] e = seccion.escalares;
+        int[] nuevos = seccion.enteros(0);
+        if ((e[0] == 1) != circular) {
+            throw new IllegalArgumentException(circular ? "Se esperaba una pila circular" : "Se esperaba una pila no circular");
+        }
+        if (circular ? nuevos.length == 0 || e[1] < 0 || e[1] >= nuevos.length || e[2] < 0 || e[2] > nuevos.length
+                     : e[1] != 0 || e[2] != nuevos.length) {
+            throw new IllegalArgumentException("Pila incoherente");
+        }
+        return () -> {
+            datos = circular ? nuevos : seccion.enteros(0, CAPACIDAD_INICIAL);
+            base = e[1];
+            tamano = e[2];
+            compartida = null;
+        };
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Pre-tokenizador de una sola pasada: recorre el texto carácter por carácter y
+ * emite los límites (inicio, fin y línea) de cada lexema, sin expresiones
+ * regulares ni copias intermedias del texto.
+ * Separa espacios, delimitadores y operadores, reconoce los operadores compuestos
+ * (==, !=, <=, >=, &&, ||) y descarta los comentarios // hasta el fin de línea.
+ */
+public final class PreTokenizador {
+
+    /**
+     * Recibe los límites de cada lexema encontrado: [inicio, fin) sobre el texto
+     * escaneado y la línea (empezando en 1) donde aparece.
+     */
+    @FunctionalInterface
+    public interface ReceptorLexema {
+        void lexema(int inicio, int fin, int linea);
+    }
+
+    // Clases de carácter para el escaneo
+    private static final byte NORMAL = 0;
+    private static final byte ESPACIO = 1;
+    private static final byte SALTO_LINEA = 2;
+    private static final byte DELIMITADOR = 3;
+
+    private static final byte[] CLASE = new byte[128];
+
+    static {
+        for (char c : " \t\u000B\f\r".toCharArray()) CLASE[c] = ESPACIO;
+        CLASE['\n'] = SALTO_LINEA;
+        for (char c : "(){}[]|,;=+-*/<>!&.".toCharArray()) CLASE[c] = DELIMITADOR;
+    }
+
+    private PreTokenizador() {
+    }
+
+    /**
+     * Escanea texto[inicio, fin) empezando en la línea lineaInicial y entrega cada
+     * lexema al receptor. Devuelve el número de línea en el que terminó el escaneo.
+     */
+    public static int escanear(CharSequence texto, int inicio, int fin, int lineaInicial,
+                               ReceptorLexema receptor) {
+        int linea = lineaInicial;
+        int inicioLexema = -1;
+        int i = inicio;
+
+        while (i < fin) {
+            char c = texto.charAt(i);
+            byte clase = c < 128 ? CLASE[c] : NORMAL;
+
+            if (clase == NORMAL) {
+                // Carácter que forma parte de un lexema (letras, dígitos, comillas, etc.)
+                if (inicioLexema < 0) inicioLexema = i;
+                i++;
+                continue;
+            }
+
+            // Cualquier otro carácter cierra el lexema en curso
+            if (inicioLexema >= 0) {
+                receptor.lexema(inicioLexema, i, linea);
+                inicioLexema = -1;
+            }
+
+            if (clase == ESPACIO) {
+                i++;
+            } else if (clase == SALTO_LINEA) {
+                linea++;
+                i++;
+            } else if (c == '/' && i + 1 < fin && texto.charAt(i + 1) == '/') {
+                // Comentario: se ignora el resto de la línea (el salto se procesa en la siguiente vuelta)
+                i += 2;
+                while (i < fin && texto.charAt(i) != '\n') i++;
+            } else {
+                int largo = (i + 1 < fin && esOperadorCompuesto(c, texto.charAt(i + 1))) ? 2 : 1;
+                receptor.lexema(i, i + largo, linea);
+                i += largo;
+            }
+        }
+
+        if (inicioLexema >= 0) {
+            receptor.lexema(inicioLexema, fin, linea);
+        }
+        return linea;
+    }
+
+    // true si el carácter cierra un lexema (espacio, salto de línea o delimitador)
+    static boolean esLimite(char c) {
+        return c < 128 && CLASE[c] != NORMAL;
+    }
+
+    // Operadores de dos caracteres: ==, !=, <=, >=, &&, ||
+    static boolean esOperadorCompuesto(char primero, char segundo) {
+        switch (primero) {
+            case '=':
+            case '!':
+            case '<':
+            case '>':
+                return segundo == '=';
+            case '&':
+                return segundo == '&';
+            case '|':
+                return segundo == '|';
+            default:
+                return false;
+        }
+    }
+}
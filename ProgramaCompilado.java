@@ -0,0 +1,7 @@
+/**
+ * Script compilado a una clase oculta por CompiladorDSL. Ejecutarlo equivale a
+ * InterpreteDSL.ejecutar con el ProgramaDSL del que salió.
+ */
+public interface ProgramaCompilado {
+    void ejecutar(InterpreteDSL interprete);
+}
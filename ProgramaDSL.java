@@ -0,0 +1,148 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Comandos de un script ya analizado, guardados por columnas como BufferTokens:
+ * por comando la operación, la estructura (o SIN_ESTRUCTURA), la línea y el rango
+ * de sus operandos. Los operandos son enteros con un byte de tipo: un número es su
+ * valor, y una cadena o un identificador es su id en la tabla de textos (las
+ * cadenas sin comillas). Un if se representa con los comandos SI (estructura y
+ * propiedad de la condición), SINO opcional y FIN_SI.
+ *
+ * AnalizadorSentencias agrega los comandos a medida que llegan los tokens, así
+ * que quien lo consume puede ir leyendo hasta tamano() mientras se analiza.
+ */
+public final class ProgramaDSL {
+    // Código de estructura de los comandos que no indican una (EN ...)
+    public static final int SIN_ESTRUCTURA = -1;
+
+    // Tipos de operando
+    public static final byte NUMERO = 0;
+    public static final byte CADENA = 1;
+    public static final byte NOMBRE = 2;
+    // Operación usada como propiedad en la condición de un SI (valor = ordinal)
+    public static final byte PROPIEDAD = 3;
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    // Columnas por comando
+    private byte[] operacion = new byte[CAPACIDAD_INICIAL];
+    private byte[] estructura = new byte[CAPACIDAD_INICIAL];
+    private int[] linea = new int[CAPACIDAD_INICIAL];
+    // Los operandos del comando i son [primerOperando[i], primerOperando[i + 1])
+    private int[] primerOperando = new int[CAPACIDAD_INICIAL + 1];
+    private int tamano = 0;
+
+    // Operandos (incluye los del comando en curso, aún sin confirmar)
+    private int[] operandos = new int[CAPACIDAD_INICIAL];
+    private byte[] tiposOperando = new byte[CAPACIDAD_INICIAL];
+    private int numOperandos = 0;
+
+    private final TablaSimbolos textos = new TablaSimbolos();
+    private final List<String> errores = new ArrayList<>();
+
+    // --- Construcción (la usa AnalizadorSentencias) ---
+
+    void agregarOperando(byte tipo, int valor) {
+        if (numOperandos == operandos.length) {
+            operandos = Arrays.copyOf(operandos, numOperandos * 2);
+            tiposOperando = Arrays.copyOf(tiposOperando, numOperandos * 2);
+        }
+        operandos[numOperandos] = valor;
+        tiposOperando[numOperandos++] = tipo;
+    }
+
+    int internar(CharSequence fuente, int inicio, int fin, int lineaTexto, TipoToken tipo) {
+        return textos.internar(fuente, inicio, fin, lineaTexto, tipo);
+    }
+
+    // Descarta los operandos agregados desde el último comando confirmado
+    void descartarOperandos() {
+        numOperandos = primerOperando[tamano];
+    }
+
+    // Confirma un comando con los operandos agregados desde el anterior
+    void agregarComando(Operacion op, int codigoEstructura, int lineaComando) {
+        if (tamano == operacion.length) {
+            int nueva = tamano * 2;
+            operacion = Arrays.copyOf(operacion, nueva);
+            estructura = Arrays.copyOf(estructura, nueva);
+            linea = Arrays.copyOf(linea, nueva);
+            primerOperando = Arrays.copyOf(primerOperando, nueva + 1);
+        }
+        operacion[tamano] = (byte) op.ordinal();
+        estructura[tamano] = (byte) codigoEstructura;
+        linea[tamano] = lineaComando;
+        primerOperando[++tamano] = numOperandos;
+    }
+
+    void agregarError(int lineaError, String mensaje) {
+        errores.add("Línea " + lineaError + ": " + mensaje);
+    }
+
+    // --- Lectura ---
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public Operacion getOperacion(int i) {
+        return Operacion.desdeCodigo(operacion[i]);
+    }
+
+    // Ordinal de Estructura o SIN_ESTRUCTURA
+    public int getCodigoEstructura(int i) {
+        return estructura[i];
+    }
+
+    // Estructura del comando, o null si no indica una
+    public Estructura getEstructura(int i) {
+        return estructura[i] == SIN_ESTRUCTURA ? null : Estructura.desdeCodigo(estructura[i]);
+    }
+
+    public int getLinea(int i) {
+        return linea[i];
+    }
+
+    public int getNumOperandos(int i) {
+        return primerOperando[i + 1] - primerOperando[i];
+    }
+
+    public byte getTipoOperando(int i, int k) {
+        return tiposOperando[primerOperando[i] + k];
+    }
+
+    public int getOperando(int i, int k) {
+        return operandos[primerOperando[i] + k];
+    }
+
+    // Texto de una cadena o identificador por su id
+    public String getTexto(int id) {
+        return textos.getTexto(id);
+    }
+
+    public List<String> getErrores() {
+        return Collections.unmodifiableList(errores);
+    }
+
+    // Representación legible del comando i (para depurar y para DSLCore.main)
+    public String describir(int i) {
+        if (getOperacion(i) == Operacion.SI) {
+            return "SI " + getEstructura(i) + "." + Operacion.desdeCodigo(getOperando(i, 0));
+        }
+        StringBuilder sb = new StringBuilder().append(getOperacion(i));
+        for (int k = 0; k < getNumOperandos(i); k++) {
+            int valor = getOperando(i, k);
+            switch (getTipoOperando(i, k)) {
+                case NUMERO -> sb.append(' ').append(valor);
+                case CADENA -> sb.append(" \"").append(getTexto(valor)).append('"');
+                case PROPIEDAD -> sb.append(" .").append(Operacion.desdeCodigo(valor));
+                default -> sb.append(' ').append(getTexto(valor));
+            }
+        }
+        if (estructura[i] != SIN_ESTRUCTURA) sb.append(" EN ").append(getEstructura(i));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reconocedor de palabras reservadas por hash perfecto mínimo.
+ * Se genera para un conjunto fijo de palabras: un primer hash reparte las palabras
+ * en cubetas y cada cubeta guarda una semilla elegida para que el segundo hash
+ * envíe sus palabras a posiciones libres. Con n palabras hay exactamente n
+ * posiciones, así que la posición es el id de la palabra.
+ *
+ * Una consulta descarta por longitud, calcula el hash (plegando minúsculas a
+ * mayúsculas) y compara con la única palabra candidata.
+ */
+public final class ReconocedorHash implements ReconocedorPalabras {
+    // Intentos de semilla por cubeta antes de probar con más cubetas
+    private static final int MAX_INTENTOS_SEMILLA = 1 << 16;
+    // Veces que se duplican las cubetas antes de rendirse
+    private static final int MAX_DUPLICACIONES = 16;
+
+    // Constantes de FNV-1a de 32 bits, el hash carácter por carácter
+    private static final int FNV_BASE = 0x811C9DC5;
+    private static final int FNV_PRIMO = 0x01000193;
+
+    // Palabras y tipos indexados por su posición en la tabla (el id)
+    private final char[][] palabras;
+    private final String[] nombres;
+    private final TipoToken[] tipos;
+    private final int[] semillaPorCubeta;
+    private final int minLargo;
+    private final int maxLargo;
+
+    private ReconocedorHash(char[][] palabras, TipoToken[] tipos, int[] semillaPorCubeta) {
+        this.palabras = palabras;
+        this.tipos = tipos;
+        this.semillaPorCubeta = semillaPorCubeta;
+        this.nombres = new String[palabras.length];
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int i = 0; i < palabras.length; i++) {
+            nombres[i] = new String(palabras[i]);
+            min = Math.min(min, palabras[i].length);
+            max = Math.max(max, palabras[i].length);
+        }
+        this.minLargo = palabras.length == 0 ? 1 : min;
+        this.maxLargo = max;
+    }
+
+    /**
+     * Genera el hash perfecto para las palabras dadas (con su tipo).
+     */
+    public static ReconocedorHash generar(Map<String, TipoToken> tipoPorPalabra) {
+        int n = tipoPorPalabra.size();
+        String[] claves = new String[n];
+        TipoToken[] tiposClave = new TipoToken[n];
+        int[] base = new int[n];
+        Set<String> vistas = new HashSet<>();
+        Map<Integer, String> palabraPorBase = new HashMap<>();
+        int k = 0;
+        for (Map.Entry<String, TipoToken> e : tipoPorPalabra.entrySet()) {
+            String palabra = plegar(e.getKey());
+            if (palabra.isEmpty() || !vistas.add(palabra)) {
+                throw new IllegalArgumentException("Palabra reservada vacía o repetida: " + e.getKey());
+            }
+            claves[k] = palabra;
+            tiposClave[k] = e.getValue();
+            base[k] = hashBase(palabra, 0, palabra.length());
+            // Dos palabras con el mismo hash base caen en la misma posición con cualquier
+            // semilla: ningún número de cubetas las separa
+            String otra = palabraPorBase.putIfAbsent(base[k], palabra);
+            if (otra != null) {
+                throw new IllegalArgumentException("Las palabras reservadas " + otra + " y " + palabra
+                        + " tienen el mismo hash; usa el motor TRIE");
+            }
+            k++;
+        }
+
+        // Con pocas cubetas cada una tiene más palabras y cuesta más hallar su semilla;
+        // si alguna no encuentra semilla se reintenta con más cubetas
+        int numCubetas = Math.max(1, n / 3);
+        for (int intento = 0; intento <= MAX_DUPLICACIONES; intento++, numCubetas *= 2) {
+            ReconocedorHash r = intentar(claves, tiposClave, base, numCubetas);
+            if (r != null) return r;
+        }
+        throw new IllegalArgumentException("No se encontró un hash perfecto para " + n
+                + " palabras reservadas; usa el motor TRIE");
+    }
+
+    private static ReconocedorHash intentar(String[] claves, TipoToken[] tiposClave, int[] base, int numCubetas) {
+        int n = claves.length;
+        List<List<Integer>> cubetas = new ArrayList<>();
+        for (int b = 0; b < numCubetas; b++) cubetas.add(new ArrayList<>());
+        for (int i = 0; i < n; i++) cubetas.get(cubeta(base[i], numCubetas)).add(i);
+
+        // Las cubetas más llenas primero, cuando todavía hay más posiciones libres
+        Integer[] orden = new Integer[numCubetas];
+        for (int b = 0; b < numCubetas; b++) orden[b] = b;
+        Arrays.sort(orden, (a, b) -> cubetas.get(b).size() - cubetas.get(a).size());
+
+        int[] semillas = new int[numCubetas];
+        int[] ocupante = new int[n];
+        Arrays.fill(ocupante, -1);
+        int[] posiciones = new int[n];
+        for (int b : orden) {
+            List<Integer> cubeta = cubetas.get(b);
+            if (cubeta.isEmpty()) break;
+            boolean colocada = false;
+            for (int semilla = 1; semilla <= MAX_INTENTOS_SEMILLA && !colocada; semilla++) {
+                colocada = true;
+                for (int j = 0; j < cubeta.size(); j++) {
+                    int p = posicion(base[cubeta.get(j)], semilla, n);
+                    boolean repetida = false;
+                    for (int q = 0; q < j; q++) repetida |= posiciones[q] == p;
+                    if (ocupante[p] >= 0 || repetida) {
+                        colocada = false;
+                        break;
+                    }
+                    posiciones[j] = p;
+                }
+                if (colocada) {
+                    semillas[b] = semilla;
+                    for (int j = 0; j < cubeta.size(); j++) ocupante[posiciones[j]] = cubeta.get(j);
+                }
+            }
+            if (!colocada) return null;
+        }
+
+        char[][] palabras = new char[n][];
+        TipoToken[] tipos = new TipoToken[n];
+        for (int p = 0; p < n; p++) {
+            palabras[p] = claves[ocupante[p]].toCharArray();
+            tipos[p] = tiposClave[ocupante[p]];
+        }
+        return new ReconocedorHash(palabras, tipos, semillas);
+    }
+
+    // -------------------------------------------------------------------
+    // --- Hash ---
+    // -------------------------------------------------------------------
+
+    // Mismo plegado que la tabla de clases de TablaAFD
+    private static char mayuscula(char c) {
+        if (c < 128) return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        return Character.toUpperCase(c);
+    }
+
+    private static String plegar(String palabra) {
+        char[] letras = palabra.toCharArray();
+        for (int i = 0; i < letras.length; i++) letras[i] = mayuscula(letras[i]);
+        return new String(letras);
+    }
+
+    // FNV-1a: a diferencia de h*31+c, dos letras no se compensan entre sí ("AO" y "B0")
+    private static int paso(int h, char c) {
+        return (h ^ mayuscula(c)) * FNV_PRIMO;
+    }
+
+    private static int hashBase(CharSequence fuente, int inicio, int fin) {
+        int h = FNV_BASE;
+        for (int i = inicio; i < fin; i++) h = paso(h, fuente.charAt(i));
+        return mezclar(h + (fin - inicio) * 0x9E3779B9);
+    }
+
+    // Paso final de MurmurHash3: reparte los bits de entrada en toda la palabra
+    private static int mezclar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int cubeta(int base, int numCubetas) {
+        return (base >>> 1) % numCubetas;
+    }
+
+    private static int posicion(int base, int semilla, int n) {
+        return (mezclar(base ^ semilla) >>> 1) % n;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Consulta ---
+    // -------------------------------------------------------------------
+
+    @Override
+    public int reconocer(CharSequence fuente, int inicio, int fin) {
+        int largo = fin - inicio;
+        if (largo < minLargo || largo > maxLargo) return NINGUNA;
+        return candidata(hashBase(fuente, inicio, fin), fuente, inicio, largo);
+    }
+
+    /**
+     * Prueba los prefijos en una sola pasada, acumulando el hash carácter por carácter.
+     * Solo se usa con lexemas erróneos, que nunca son prefijo de una palabra reservada.
+     */
+    @Override
+    public int prefijoReservado(CharSequence fuente, int inicio, int fin) {
+        int limite = Math.min(fin - 1, inicio + maxLargo);
+        int h = FNV_BASE;
+        int ultimoCorte = NINGUNA;
+        for (int i = inicio; i < limite; i++) {
+            h = paso(h, fuente.charAt(i));
+            int largo = i + 1 - inicio;
+            if (largo >= minLargo
+                    && candidata(mezclar(h + largo * 0x9E3779B9), fuente, inicio, largo) != NINGUNA) {
+                ultimoCorte = i + 1;
+            }
+        }
+        return ultimoCorte;
+    }
+
+    // Compara el lexema con la única palabra que puede estar en su posición
+    private int candidata(int base, CharSequence fuente, int inicio, int largo) {
+        int p = posicion(base, semillaPorCubeta[cubeta(base, semillaPorCubeta.length)], palabras.length);
+        char[] palabra = palabras[p];
+        if (palabra.length != largo) return NINGUNA;
+        for (int i = 0; i < largo; i++) {
+            if (mayuscula(fuente.charAt(inicio + i)) != palabra[i]) return NINGUNA;
+        }
+        return p;
+    }
+
+    @Override
+    public String getPalabra(int idPalabra) {
+        return nombres[idPalabra];
+    }
+
+    @Override
+    public TipoToken getTipo(int idPalabra) {
+        return tipos[idPalabra];
+    }
+
+    @Override
+    public int getNumPalabras() {
+        return palabras.length;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Motor de reconocimiento de palabras reservadas usado por AFD.clasificar.
+ * Cada palabra tiene un id (de 0 a getNumPalabras() - 1) que es el "estado final"
+ * que se reporta en la tabla de símbolos. Las implementaciones no distinguen
+ * mayúsculas de minúsculas y son inmutables, para compartirse entre hilos.
+ *
+ * Hay dos implementaciones: TablaAFD (el autómata compilado, recorrido carácter
+ * por carácter) y ReconocedorHash (hash perfecto mínimo).
+ */
+public interface ReconocedorPalabras {
+    // Resultado cuando no hay palabra reservada
+    int NINGUNA = -1;
+
+    /**
+     * Id de la palabra reservada igual a fuente[inicio, fin), o NINGUNA.
+     */
+    int reconocer(CharSequence fuente, int inicio, int fin);
+
+    /**
+     * Para un lexema que no es palabra reservada ni prefijo de una, devuelve el fin
+     * del prefijo más largo (más corto que el lexema) que sí es palabra reservada,
+     * o NINGUNA. Es el corte del Caso 3 de AFD.clasificar.
+     */
+    int prefijoReservado(CharSequence fuente, int inicio, int fin);
+
+    // Palabra (en mayúsculas) con el id dado
+    String getPalabra(int idPalabra);
+
+    // Tipo de la palabra, o null si el reconocedor no tiene uno registrado
+    TipoToken getTipo(int idPalabra);
+
+    int getNumPalabras();
+}
@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Formato binario por columnas para reprocesar la salida del analizador sin volver
+ * a analizar. Los tokens se acumulan en arreglos primitivos y se escriben al
+ * cerrar; los lexemas y los estados finales se codifican con diccionario (cada
+ * texto distinto se guarda una vez y las columnas guardan su id). Lector abre el
+ * archivo mapeándolo en memoria.
+ *
+ * Disposición (enteros de 4 bytes big-endian):
+ *   MAGICO, VERSION, n, numLexemas, numEstados
+ *   tipos[n] (byte, ordinal de TipoToken), reconocidos[n] (byte 0/1), relleno a 4
+ *   lineas[n], inicios[n] y longitudes[n] (posición del lexema en la fuente, en
+ *   caracteres; -1 si el token no llegó con su fuente), lexemas[n] (id de
+ *   diccionario), estados[n] (id de diccionario)
+ *   diccionario de lexemas, diccionario de estados
+ * Cada diccionario es desplazamientos[k + 1] (en bytes) seguido de los textos en
+ * UTF-8, con relleno a 4.
+ */
+public class SalidaBinaria extends SalidaCanal {
+    static final int MAGICO = 0x544B4E31; // "TKN1"
+    static final int VERSION = 2;   // 2: columnas de inicio y longitud en la fuente
+    private static final int ENCABEZADO = 5 * 4;
+
+    private final TablaSimbolos lexemas = new TablaSimbolos(1024);
+    private final TablaSimbolos estados = new TablaSimbolos();
+
+    private byte[] tipos = new byte[1024];
+    private byte[] reconocidos = new byte[1024];
+    private int[] lineas = new int[1024];
+    private int[] inicios = new int[1024];
+    private int[] longitudes = new int[1024];
+    private int[] idsLexema = new int[1024];
+    private int[] idsEstado = new int[1024];
+    private int tamano = 0;
+    // Mientras se escriben tokens sin fuente (Token sueltos o un buffer de bytes UTF-8)
+    private boolean sinFuente = false;
+
+    public SalidaBinaria(WritableByteChannel canal, boolean cerrarCanal) {
+        super(canal, cerrarCanal);
+    }
+
+    public static SalidaBinaria abrir(Path archivo) throws IOException {
+        return new SalidaBinaria(crearArchivo(archivo), true);
+    }
+
+    @Override
+    public void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                      boolean reconocido) {
+        if (tamano == tipos.length) crecer();
+        tipos[tamano] = (byte) tipo.ordinal();
+        reconocidos[tamano] = (byte) (reconocido ? 1 : 0);
+        lineas[tamano] = linea;
+        inicios[tamano] = sinFuente ? -1 : inicio;
+        longitudes[tamano] = sinFuente ? -1 : fin - inicio;
+        idsLexema[tamano] = lexemas.internar(fuente, inicio, fin, linea, tipo);
+        idsEstado[tamano] = estados.internar(estadoFinal, 0, estadoFinal.length(), linea, tipo);
+        tamano++;
+    }
+
+    // Un Token suelto llega como su propio lexema: su posición en la fuente no se conoce
+    @Override
+    public void escribir(Token tk) throws IOException {
+        boolean antes = sinFuente;
+        sinFuente = true;
+        try {
+            super.escribir(tk);
+        } finally {
+            sinFuente = antes;
+        }
+    }
+
+    @Override
+    public void escribir(BufferTokens buffer) throws IOException {
+        boolean antes = sinFuente;
+        sinFuente = buffer.getFuente() == null;
+        try {
+            super.escribir(buffer);
+        } finally {
+            sinFuente = antes;
+        }
+    }
+
+    private void crecer() {
+        int nueva = tipos.length * 2;
+        tipos = Arrays.copyOf(tipos, nueva);
+        reconocidos = Arrays.copyOf(reconocidos, nueva);
+        lineas = Arrays.copyOf(lineas, nueva);
+        inicios = Arrays.copyOf(inicios, nueva);
+        longitudes = Arrays.copyOf(longitudes, nueva);
+        idsLexema = Arrays.copyOf(idsLexema, nueva);
+        idsEstado = Arrays.copyOf(idsEstado, nueva);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            escribirEnteroBinario(MAGICO);
+            escribirEnteroBinario(VERSION);
+            escribirEnteroBinario(tamano);
+            escribirEnteroBinario(lexemas.tamano());
+            escribirEnteroBinario(estados.tamano());
+
+            escribirColumna(tipos);
+            escribirColumna(reconocidos);
+            for (int i = 0; i < rellenoA4(2 * tamano); i++) escribirByte(0);
+            escribirColumna(lineas);
+            escribirColumna(inicios);
+            escribirColumna(longitudes);
+            escribirColumna(idsLexema);
+            escribirColumna(idsEstado);
+
+            escribirDiccionario(lexemas);
+            escribirDiccionario(estados);
+        } finally {
+            super.close();
+        }
+    }
+
+    private void escribirColumna(byte[] columna) throws IOException {
+        escribirBytes(tamano == columna.length ? columna : Arrays.copyOf(columna, tamano));
+    }
+
+    private void escribirColumna(int[] columna) throws IOException {
+        for (int i = 0; i < tamano; i++) escribirEnteroBinario(columna[i]);
+    }
+
+    private void escribirDiccionario(TablaSimbolos diccionario) throws IOException {
+        byte[][] textos = new byte[diccionario.tamano()][];
+        int desplazamiento = 0;
+        escribirEnteroBinario(0);
+        for (int id = 0; id < textos.length; id++) {
+            textos[id] = diccionario.getTexto(id).getBytes(StandardCharsets.UTF_8);
+            desplazamiento += textos[id].length;
+            escribirEnteroBinario(desplazamiento);
+        }
+        for (byte[] texto : textos) escribirBytes(texto);
+        for (int i = 0; i < rellenoA4(desplazamiento); i++) escribirByte(0);
+    }
+
+    private static int rellenoA4(int bytes) {
+        return -bytes & 3;
+    }
+
+    /**
+     * Archivo binario de tokens abierto con un mapeo de solo lectura. Las columnas
+     * se leen en su lugar; los textos del diccionario se decodifican una vez, al
+     * abrir.
+     */
+    public static final class Lector {
+        private final MappedByteBuffer datos;
+        private final int tamano;
+        private final int inicioReconocidos;
+        private final int inicioLineas;
+        private final int inicioInicios;
+        private final int inicioLongitudes;
+        private final int inicioLexemas;
+        private final int inicioEstados;
+        private final String[] textosLexema;
+        private final String[] textosEstado;
+
+        private Lector(MappedByteBuffer datos) throws IOException {
+            this.datos = datos;
+            if (datos.limit() < ENCABEZADO || datos.getInt(0) != MAGICO) {
+                throw new IOException("No es un archivo binario de tokens");
+            }
+            if (datos.getInt(4) != VERSION) {
+                throw new IOException("Versión de archivo de tokens no soportada: " + datos.getInt(4));
+            }
+            tamano = datos.getInt(8);
+            int numLexemas = datos.getInt(12);
+            int numEstados = datos.getInt(16);
+            // Las columnas ocupan 22 bytes por token y cada diccionario 4 por texto, más uno
+            if (tamano < 0 || numLexemas < 0 || numEstados < 0
+                    || ENCABEZADO + 22L * tamano + 4L * numLexemas + 4L * numEstados + 8 > datos.limit()) {
+                throw new IOException("Encabezado de archivo de tokens dañado");
+            }
+
+            inicioReconocidos = ENCABEZADO + tamano;
+            inicioLineas = ENCABEZADO + 2 * tamano + rellenoA4(2 * tamano);
+            inicioInicios = inicioLineas + 4 * tamano;
+            inicioLongitudes = inicioInicios + 4 * tamano;
+            inicioLexemas = inicioLongitudes + 4 * tamano;
+            inicioEstados = inicioLexemas + 4 * tamano;
+
+            int inicioDiccionario = inicioEstados + 4 * tamano;
+            textosLexema = new String[numLexemas];
+            inicioDiccionario = leerDiccionario(inicioDiccionario, textosLexema);
+            textosEstado = new String[numEstados];
+            leerDiccionario(inicioDiccionario, textosEstado);
+        }
+
+        public static Lector abrir(Path archivo) throws IOException {
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                return new Lector(canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+            } catch (IndexOutOfBoundsException e) {
+                throw new IOException("Archivo de tokens truncado: " + archivo, e);
+            }
+        }
+
+        // Devuelve la posición siguiente al diccionario
+        private int leerDiccionario(int inicio, String[] textos) throws IOException {
+            int inicioTextos = inicio + 4 * (textos.length + 1);
+            ByteBuffer vista = datos.duplicate();
+            for (int id = 0; id < textos.length; id++) {
+                int desde = datos.getInt(inicio + 4 * id);
+                int hasta = datos.getInt(inicio + 4 * (id + 1));
+                if (desde < 0 || hasta < desde || hasta > datos.limit() - inicioTextos) {
+                    throw new IOException("Diccionario de archivo de tokens dañado");
+                }
+                byte[] bytes = new byte[hasta - desde];
+                vista.get(inicioTextos + desde, bytes);
+                textos[id] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int largoTextos = datos.getInt(inicio + 4 * textos.length);
+            return inicioTextos + largoTextos + rellenoA4(largoTextos);
+        }
+
+        public int tamano() {
+            return tamano;
+        }
+
+        public TipoToken getTipo(int i) {
+            return TipoToken.desdeCodigo(datos.get(ENCABEZADO + i));
+        }
+
+        public boolean existeSimbolo(int i) {
+            return datos.get(inicioReconocidos + i) != 0;
+        }
+
+        public int getLinea(int i) {
+            return datos.getInt(inicioLineas + 4 * i);
+        }
+
+        // Posición del lexema en la fuente (en caracteres), o -1 si se escribió sin fuente
+        public int getInicio(int i) {
+            return datos.getInt(inicioInicios + 4 * i);
+        }
+
+        // Largo del lexema en la fuente, o -1 si se escribió sin fuente
+        public int getLongitud(int i) {
+            return datos.getInt(inicioLongitudes + 4 * i);
+        }
+
+        // Id del lexema en el diccionario (lexemas iguales tienen el mismo id)
+        public int getIdLexema(int i) {
+            return datos.getInt(inicioLexemas + 4 * i);
+        }
+
+        public String getLexema(int i) {
+            return textosLexema[getIdLexema(i)];
+        }
+
+        public String getEstadoFinal(int i) {
+            return textosEstado[datos.getInt(inicioEstados + 4 * i)];
+        }
+
+        public Token aToken(int i) {
+            return new Token(getLexema(i), getLinea(i), getTipo(i), getEstadoFinal(i), existeSimbolo(i));
+        }
+
+        public Token[] aTokens() {
+            Token[] tokens = new Token[tamano];
+            for (int i = 0; i < tamano; i++) tokens[i] = aToken(i);
+            return tokens;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base de las salidas de tokens: acumula bytes en un ByteBuffer y lo escribe al
+ * canal cuando se llena. Los números y el texto se codifican directamente en el
+ * buffer (enteros en decimal, texto en UTF-8), sin String.format ni cadenas
+ * intermedias por token.
+ */
+public abstract class SalidaCanal implements SalidaTokens {
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final WritableByteChannel canal;
+    private final boolean cerrarCanal;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANO_BUFFER);
+
+    /**
+     * @param cerrarCanal si close() cierra también el canal (false para System.out)
+     */
+    protected SalidaCanal(WritableByteChannel canal, boolean cerrarCanal) {
+        this.canal = canal;
+        this.cerrarCanal = cerrarCanal;
+    }
+
+    // Canal para escribir un archivo desde cero (lo crea o lo trunca)
+    protected static FileChannel crearArchivo(Path archivo) throws IOException {
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Garantiza espacio para n bytes (n <= TAMANO_BUFFER)
+    protected final void asegurar(int n) throws IOException {
+        if (buffer.remaining() < n) vaciar();
+    }
+
+    protected final void vaciar() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) canal.write(buffer);
+        buffer.clear();
+    }
+
+    protected final void escribirByte(int b) throws IOException {
+        asegurar(1);
+        buffer.put((byte) b);
+    }
+
+    protected final void escribirBytes(byte[] bytes) throws IOException {
+        for (int i = 0; i < bytes.length; ) {
+            if (!buffer.hasRemaining()) vaciar();
+            int n = Math.min(buffer.remaining(), bytes.length - i);
+            buffer.put(bytes, i, n);
+            i += n;
+        }
+    }
+
+    // Entero de 4 bytes (big-endian), para formatos binarios
+    protected final void escribirEnteroBinario(int valor) throws IOException {
+        asegurar(4);
+        buffer.putInt(valor);
+    }
+
+    // Entero en decimal; devuelve la cantidad de caracteres escritos
+    protected final int escribirEntero(int valor) throws IOException {
+        asegurar(11);
+        long v = valor;
+        int largo = 0;
+        if (v < 0) {
+            buffer.put((byte) '-');
+            v = -v;
+            largo++;
+        }
+        int digitos = 1;
+        for (long p = 10; p <= v; p *= 10) digitos++;
+        int posicion = buffer.position();
+        for (int i = digitos - 1; i >= 0; i--) {
+            buffer.put(posicion + i, (byte) ('0' + v % 10));
+            v /= 10;
+        }
+        buffer.position(posicion + digitos);
+        return largo + digitos;
+    }
+
+    protected final void escribirTexto(CharSequence texto) throws IOException {
+        escribirTexto(texto, 0, texto.length());
+    }
+
+    // texto[inicio, fin) codificado en UTF-8 (un surrogate suelto se escribe como '?')
+    protected final void escribirTexto(CharSequence texto, int inicio, int fin) throws IOException {
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                if (!buffer.hasRemaining()) vaciar();
+                buffer.put((byte) c);
+                continue;
+            }
+            asegurar(4);
+            if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < fin && Character.isLowSurrogate(texto.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, texto.charAt(++i));
+                buffer.put((byte) (0xF0 | cp >> 18));
+                buffer.put((byte) (0x80 | cp >> 12 & 0x3F));
+                buffer.put((byte) (0x80 | cp >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12));
+                buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+                buffer.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    // n espacios (para alinear columnas)
+    protected final void escribirRelleno(int n) throws IOException {
+        for (int i = 0; i < n; i++) escribirByte(' ');
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            if (cerrarCanal) canal.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Tokens en CSV (RFC 4180) con encabezado: lexema,linea,tipo,estado,reconocido.
+ * Solo se entrecomillan los campos que contienen comas, comillas o saltos de línea.
+ */
+public class SalidaCsv extends SalidaCanal {
+    private static final String ENCABEZADO = "lexema,linea,tipo,estado,reconocido\n";
+
+    public SalidaCsv(WritableByteChannel canal, boolean cerrarCanal) throws IOException {
+        super(canal, cerrarCanal);
+        escribirTexto(ENCABEZADO);
+    }
+
+    public static SalidaCsv abrir(Path archivo) throws IOException {
+        return new SalidaCsv(crearArchivo(archivo), true);
+    }
+
+    @Override
+    public void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                      boolean reconocido) throws IOException {
+        campo(fuente, inicio, fin);
+        escribirByte(',');
+        escribirEntero(linea);
+        escribirByte(',');
+        escribirTexto(tipo.getEtiqueta());
+        escribirByte(',');
+        campo(estadoFinal, 0, estadoFinal.length());
+        escribirByte(',');
+        escribirTexto(reconocido ? "true" : "false");
+        escribirByte('\n');
+    }
+
+    private void campo(CharSequence texto, int inicio, int fin) throws IOException {
+        boolean comillas = false;
+        for (int i = inicio; i < fin && !comillas; i++) {
+            char c = texto.charAt(i);
+            comillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!comillas) {
+            escribirTexto(texto, inicio, fin);
+            return;
+        }
+        // Las comillas internas se duplican
+        escribirByte('"');
+        int tramo = inicio;
+        for (int i = inicio; i < fin; i++) {
+            if (texto.charAt(i) == '"') {
+                escribirTexto(texto, tramo, i + 1);
+                escribirByte('"');
+                tramo = i + 1;
+            }
+        }
+        escribirTexto(texto, tramo, fin);
+        escribirByte('"');
+    }
+}
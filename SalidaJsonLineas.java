@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Tokens en JSON Lines: un objeto por línea con los campos lexema, linea, tipo,
+ * estado y reconocido.
+ */
+public class SalidaJsonLineas extends SalidaCanal {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public SalidaJsonLineas(WritableByteChannel canal, boolean cerrarCanal) {
+        super(canal, cerrarCanal);
+    }
+
+    public static SalidaJsonLineas abrir(Path archivo) throws IOException {
+        return new SalidaJsonLineas(crearArchivo(archivo), true);
+    }
+
+    @Override
+    public void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                      boolean reconocido) throws IOException {
+        escribirTexto("{\"lexema\":\"");
+        cadena(fuente, inicio, fin);
+        escribirTexto("\",\"linea\":");
+        escribirEntero(linea);
+        escribirTexto(",\"tipo\":\"");
+        escribirTexto(tipo.getEtiqueta());
+        escribirTexto("\",\"estado\":\"");
+        cadena(estadoFinal, 0, estadoFinal.length());
+        escribirTexto(reconocido ? "\",\"reconocido\":true}\n" : "\",\"reconocido\":false}\n");
+    }
+
+    // Contenido de una cadena JSON: se escapan comillas, barras y caracteres de control
+    private void cadena(CharSequence texto, int inicio, int fin) throws IOException {
+        int tramo = inicio;
+        for (int i = inicio; i < fin; i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            escribirTexto(texto, tramo, i);
+            escribirByte('\\');
+            switch (c) {
+                case '"', '\\' -> escribirByte(c);
+                case '\n' -> escribirByte('n');
+                case '\r' -> escribirByte('r');
+                case '\t' -> escribirByte('t');
+                default -> {
+                    escribirTexto("u00");
+                    escribirByte(HEX[c >> 4]);
+                    escribirByte(HEX[c & 0xF]);
+                }
+            }
+            tramo = i + 1;
+        }
+        escribirTexto(texto, tramo, fin);
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * Tabla de símbolos en texto de ancho fijo, con el mismo formato que imprimía
+ * DSLCore.main: lexema, línea, tipo, estado final y reconocido separados por
+ * tabuladores y alineados a la izquierda. El encabezado se escribe al crearla.
+ */
+public class SalidaTexto extends SalidaCanal {
+    private static final int ANCHO_LEXEMA = 20;
+    private static final int ANCHO_LINEA = 5;
+    private static final int ANCHO_TIPO = 18;
+    private static final int ANCHO_ESTADO = 12;
+    private static final int ANCHO_RECONOCIDO = 10;
+
+    private static final String ENCABEZADO = "Lexema\t\t\tLínea\tTipoToken\t\tEstado Final\tReconocido\n"
+            + "--------------------\t-----\t------------------\t------------\t----------\n";
+
+    public SalidaTexto(WritableByteChannel canal, boolean cerrarCanal) throws IOException {
+        super(canal, cerrarCanal);
+        escribirTexto(ENCABEZADO);
+    }
+
+    public static SalidaTexto abrir(Path archivo) throws IOException {
+        return new SalidaTexto(crearArchivo(archivo), true);
+    }
+
+    @Override
+    public void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+                      boolean reconocido) throws IOException {
+        escribirTexto(fuente, inicio, fin);
+        escribirRelleno(ANCHO_LEXEMA - (fin - inicio));
+        escribirByte('\t');
+        escribirRelleno(ANCHO_LINEA - escribirEntero(linea));
+        escribirByte('\t');
+        columna(tipo.getEtiqueta(), ANCHO_TIPO);
+        escribirByte('\t');
+        columna(estadoFinal, ANCHO_ESTADO);
+        escribirByte('\t');
+        columna(reconocido ? "Sí" : "No", ANCHO_RECONOCIDO);
+        escribirByte('\n');
+    }
+
+    private void columna(String texto, int ancho) throws IOException {
+        escribirTexto(texto);
+        escribirRelleno(ancho - texto.length());
+    }
+}
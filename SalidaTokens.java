@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Destino de los tokens clasificados (tabla de texto, CSV, JSON Lines o binario).
+ * Cada token llega como el rango [inicio, fin) de una fuente, así que el lexema no
+ * se copia si la salida no lo necesita. Las implementaciones escriben por un canal
+ * con buffer (ver SalidaCanal); close() vacía el buffer.
+ */
+public interface SalidaTokens extends AutoCloseable {
+
+    void token(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo, String estadoFinal,
+               boolean reconocido) throws IOException;
+
+    default void escribir(Token tk) throws IOException {
+        String lexema = tk.getLexema();
+        token(lexema, 0, lexema.length(), tk.getLinea(), tk.getTipo(), tk.getEstadoFinal(), tk.existeSimbolo());
+    }
+
+    default void escribir(Token[] tokens) throws IOException {
+        for (Token tk : tokens) escribir(tk);
+    }
+
+    default void escribir(BufferTokens buffer) throws IOException {
+        CharSequence fuente = buffer.getFuente();
+        for (int i = 0; i < buffer.tamano(); i++) {
+            if (fuente != null) {
+                int inicio = buffer.getInicio(i);
+                token(fuente, inicio, inicio + buffer.getLongitud(i), buffer.getLinea(i), buffer.getTipo(i),
+                        buffer.getEstadoFinal(i), buffer.existeSimbolo(i));
+            } else {
+                // Buffer sobre bytes UTF-8: el lexema se decodifica
+                String lexema = buffer.getLexema(i);
+                token(lexema, 0, lexema.length(), buffer.getLinea(i), buffer.getTipo(i),
+                        buffer.getEstadoFinal(i), buffer.existeSimbolo(i));
+            }
+        }
+    }
+
+    /**
+     * Analiza la fuente y entrega cada token a la salida a medida que se clasifica,
+     * sin armar un arreglo de tokens.
+     */
+    static void analizar(CharSequence fuente, AFD afd, SalidaTokens salida) throws IOException {
+        try {
+            EscanerLimites.escanear(fuente, 0, fuente.length(), 1,
+                    (i, f, lineaLexema) -> afd.clasificar(fuente, i, f, lineaLexema,
+                            (inicio, fin, linea, tipo, estado, reconocido) -> {
+                                try {
+                                    salida.token(fuente, inicio, fin, linea, tipo, afd.getNombreEstado(estado),
+                                            reconocido);
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,665 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Versión compilada de un AFD: los estados se numeran con enteros, los
+ * caracteres se agrupan en clases de equivalencia y las transiciones se
+ * guardan en un arreglo plano int[] indexado por (estado, clase).
+ * La conversión a mayúsculas viene incluida en la tabla de clases, por lo que
+ * el escaneo no necesita llamar a toUpperCase() ni crear objetos.
+ *
+ * Como el autómata reconoce un conjunto finito de palabras, cada transición lleva
+ * un peso: la suma de los pesos del camino recorrido es el número (id) de la palabra
+ * reconocida. Así el nombre y el tipo de la palabra no dependen del estado, lo que
+ * permite minimizar el autómata (fusionar sufijos comunes como _FINAL o _INICIO)
+ * y guardarlo en un archivo binario que se carga sin reconstruirlo.
+ */
+public final class TablaAFD implements ReconocedorPalabras {
+    // Valor usado en la tabla de transiciones cuando no hay camino
+    public static final int SIN_TRANSICION = -1;
+
+    // Formato del archivo binario
+    private static final int MAGICO = 0x41464431; // "AFD1"
+    private static final int VERSION = 2;   // 2: huellas de TipoToken y del vocabulario
+    private static final int ENCABEZADO = 4 * 2 + 8 * 2 + 4 * 4;
+
+    // Clase 0: carácter sin transición en ningún estado
+    private final short[] clasePorCaracter;
+    private final int numClases;
+    private final int[] transiciones;
+    private final int[] pesos;
+    private final long[] aceptacion;
+    private final long[] aceptacionPalabraCompleta;
+    private final int estadoInicial;
+    // Palabras reconocidas (en mayúsculas) y su tipo, indexadas por id de palabra
+    private final String[] palabras;
+    private final TipoToken[] tipoPorPalabra;
+
+    private TablaAFD(short[] clasePorCaracter, int numClases, int[] transiciones, int[] pesos,
+                     long[] aceptacion, long[] aceptacionPalabraCompleta, int estadoInicial,
+                     String[] palabras, TipoToken[] tipoPorPalabra) {
+        this.clasePorCaracter = clasePorCaracter;
+        this.numClases = numClases;
+        this.transiciones = transiciones;
+        this.pesos = pesos;
+        this.aceptacion = aceptacion;
+        this.aceptacionPalabraCompleta = aceptacionPalabraCompleta;
+        this.estadoInicial = estadoInicial;
+        this.palabras = palabras;
+        this.tipoPorPalabra = tipoPorPalabra;
+    }
+
+    /**
+     * Compila la definición por mapas de un AFD (debe ser acíclico: un conjunto finito
+     * de palabras, como el que genera DSLCore).
+     * Las palabras de tipoPorPalabra que el autómata no reconoce se agregan como
+     * ramas extra que solo se aceptan al consumir el lexema completo, para que la
+     * búsqueda del tipo no necesite el lexema en mayúsculas.
+     */
+    public static TablaAFD compilar(Set<String> estados,
+                                    Set<Character> alfabeto,
+                                    Map<String, Map<Character, String>> transicionesMapa,
+                                    String estadoInicial,
+                                    Set<String> estadosAceptacion,
+                                    Map<String, TipoToken> tipoPorPalabra) {
+        // 1. Numeración de estados (el inicial siempre es el 0)
+        List<String> listaEstados = new ArrayList<>();
+        listaEstados.add(estadoInicial);
+        for (String estado : new TreeSet<>(estados)) {
+            if (!estado.equals(estadoInicial)) listaEstados.add(estado);
+        }
+        Map<String, Integer> idPorEstado = new HashMap<>();
+        for (int i = 0; i < listaEstados.size(); i++) {
+            idPorEstado.put(listaEstados.get(i), i);
+        }
+
+        // 2. Ramas adicionales para las palabras que no tienen camino en el AFD
+        Map<String, Map<Character, String>> extra = new HashMap<>();
+        List<String> palabrasCompletas = new ArrayList<>();
+        for (String palabra : new TreeSet<>(tipoPorPalabra.keySet())) {
+            String actual = estadoInicial;
+            for (int i = 0; i < palabra.length(); i++) {
+                char simbolo = palabra.charAt(i);
+                String destino = destino(transicionesMapa, extra, actual, simbolo);
+                if (destino == null) {
+                    destino = palabra.substring(0, i + 1);
+                    if (idPorEstado.containsKey(destino)) {
+                        destino = destino + "#" + listaEstados.size();
+                    }
+                    idPorEstado.put(destino, listaEstados.size());
+                    listaEstados.add(destino);
+                    extra.computeIfAbsent(actual, k -> new HashMap<>()).put(simbolo, destino);
+                }
+                actual = destino;
+            }
+            if (!estadosAceptacion.contains(actual)) {
+                palabrasCompletas.add(actual);
+            }
+        }
+
+        // 3. Clases de equivalencia: un índice por símbolo, con las minúsculas plegadas
+        Set<Character> simbolos = new TreeSet<>(alfabeto);
+        for (Map<Character, String> t : transicionesMapa.values()) simbolos.addAll(t.keySet());
+        for (Map<Character, String> t : extra.values()) simbolos.addAll(t.keySet());
+
+        short[] clasePorCaracter = new short[Character.MAX_VALUE + 1];
+        char[] representante = new char[simbolos.size() + 1];
+        short siguienteClase = 1;
+        for (char simbolo : simbolos) {
+            representante[siguienteClase] = simbolo;
+            clasePorCaracter[simbolo] = siguienteClase++;
+        }
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char mayuscula = Character.toUpperCase((char) c);
+            if (clasePorCaracter[c] == 0 && mayuscula != c) {
+                clasePorCaracter[c] = clasePorCaracter[mayuscula];
+            }
+        }
+        int numClases = siguienteClase;
+
+        // 4. Tabla plana de transiciones y conjuntos de aceptación
+        int numEstados = listaEstados.size();
+        int[] transiciones = new int[numEstados * numClases];
+        Arrays.fill(transiciones, SIN_TRANSICION);
+        long[] aceptacion = new long[(numEstados + 63) >>> 6];
+        long[] aceptacionPalabraCompleta = new long[aceptacion.length];
+
+        for (int id = 0; id < numEstados; id++) {
+            String estado = listaEstados.get(id);
+            for (Map<Character, String> origen : List.of(
+                    transicionesMapa.getOrDefault(estado, Map.of()),
+                    extra.getOrDefault(estado, Map.of()))) {
+                for (Map.Entry<Character, String> t : origen.entrySet()) {
+                    Integer destino = idPorEstado.get(t.getValue());
+                    if (destino != null) {
+                        transiciones[id * numClases + clasePorCaracter[t.getKey()]] = destino;
+                    }
+                }
+            }
+            if (estadosAceptacion.contains(estado)) {
+                aceptacion[id >>> 6] |= 1L << id;
+            }
+        }
+        for (String estado : palabrasCompletas) {
+            int id = idPorEstado.get(estado);
+            aceptacionPalabraCompleta[id >>> 6] |= 1L << id;
+        }
+
+        // 5. Pesos de las transiciones y lista de palabras en el orden de sus ids
+        int inicial = idPorEstado.get(estadoInicial);
+        int[] pesos = calcularPesos(transiciones, numClases, numEstados, aceptacion, aceptacionPalabraCompleta);
+        List<String> palabras = new ArrayList<>();
+        enumerarPalabras(transiciones, numClases, aceptacion, aceptacionPalabraCompleta, representante,
+                inicial, new StringBuilder(), palabras);
+        TipoToken[] tipos = new TipoToken[palabras.size()];
+        for (int i = 0; i < tipos.length; i++) {
+            tipos[i] = tipoPorPalabra.get(palabras.get(i));
+        }
+
+        return new TablaAFD(clasePorCaracter, numClases, transiciones, pesos, aceptacion,
+                aceptacionPalabraCompleta, inicial, palabras.toArray(new String[0]), tipos);
+    }
+
+    private static String destino(Map<String, Map<Character, String>> transicionesMapa,
+                                  Map<String, Map<Character, String>> extra,
+                                  String estado, char simbolo) {
+        Map<Character, String> t = transicionesMapa.get(estado);
+        if (t != null && t.containsKey(simbolo)) return t.get(simbolo);
+        t = extra.get(estado);
+        return t == null ? null : t.get(simbolo);
+    }
+
+    private static boolean bit(long[] conjunto, int estado) {
+        return (conjunto[estado >>> 6] & (1L << estado)) != 0;
+    }
+
+    /**
+     * Peso de cada transición: cuántas palabras se saltan al tomarla, es decir, la
+     * palabra del propio estado (si es de aceptación) más todas las que se alcanzan
+     * por transiciones de clase menor.
+     */
+    private static int[] calcularPesos(int[] transiciones, int numClases, int numEstados,
+                                       long[] aceptacion, long[] aceptacionPalabraCompleta) {
+        int[] palabrasDesde = new int[numEstados];
+        Arrays.fill(palabrasDesde, -1);
+        boolean[] enCamino = new boolean[numEstados];
+        for (int estado = 0; estado < numEstados; estado++) {
+            contarPalabras(estado, transiciones, numClases, aceptacion, aceptacionPalabraCompleta,
+                    palabrasDesde, enCamino);
+        }
+
+        int[] pesos = new int[transiciones.length];
+        for (int estado = 0; estado < numEstados; estado++) {
+            int acumulado = bit(aceptacion, estado) || bit(aceptacionPalabraCompleta, estado) ? 1 : 0;
+            for (int clase = 0; clase < numClases; clase++) {
+                int destino = transiciones[estado * numClases + clase];
+                if (destino == SIN_TRANSICION) continue;
+                pesos[estado * numClases + clase] = acumulado;
+                acumulado += palabrasDesde[destino];
+            }
+        }
+        return pesos;
+    }
+
+    private static int contarPalabras(int estado, int[] transiciones, int numClases,
+                                      long[] aceptacion, long[] aceptacionPalabraCompleta,
+                                      int[] palabrasDesde, boolean[] enCamino) {
+        if (palabrasDesde[estado] >= 0) return palabrasDesde[estado];
+        if (enCamino[estado]) {
+            throw new IllegalArgumentException("El AFD debe ser acíclico (conjunto finito de palabras)");
+        }
+        enCamino[estado] = true;
+        int total = bit(aceptacion, estado) || bit(aceptacionPalabraCompleta, estado) ? 1 : 0;
+        for (int clase = 0; clase < numClases; clase++) {
+            int destino = transiciones[estado * numClases + clase];
+            if (destino != SIN_TRANSICION) {
+                total += contarPalabras(destino, transiciones, numClases, aceptacion,
+                        aceptacionPalabraCompleta, palabrasDesde, enCamino);
+            }
+        }
+        enCamino[estado] = false;
+        palabrasDesde[estado] = total;
+        return total;
+    }
+
+    // Recorre el autómata en orden de clases; el orden de visita es el id de cada palabra
+    private static void enumerarPalabras(int[] transiciones, int numClases, long[] aceptacion,
+                                         long[] aceptacionPalabraCompleta, char[] representante,
+                                         int estado, StringBuilder prefijo, List<String> palabras) {
+        if (bit(aceptacion, estado) || bit(aceptacionPalabraCompleta, estado)) {
+            palabras.add(prefijo.toString());
+        }
+        for (int clase = 1; clase < numClases; clase++) {
+            int destino = transiciones[estado * numClases + clase];
+            if (destino == SIN_TRANSICION) continue;
+            prefijo.append(representante[clase]);
+            enumerarPalabras(transiciones, numClases, aceptacion, aceptacionPalabraCompleta,
+                    representante, destino, prefijo, palabras);
+            prefijo.setLength(prefijo.length() - 1);
+        }
+    }
+
+    /**
+     * Devuelve un autómata equivalente con el mínimo de estados.
+     * Al ser acíclico, basta con procesar los estados de las hojas hacia la raíz y
+     * fusionar los que tienen el mismo tipo de aceptación y las mismas transiciones
+     * (ya fusionadas). Los pesos y los ids de palabra no cambian.
+     */
+    public TablaAFD minimizar() {
+        int numEstados = getNumEstados();
+
+        // Orden topológico inverso (post-orden) desde el estado inicial
+        int[] orden = new int[numEstados];
+        int[] cuenta = {0};
+        postOrden(estadoInicial, new boolean[numEstados], orden, cuenta);
+
+        int[] canonico = new int[numEstados];
+        Arrays.fill(canonico, -1);
+        Map<List<Integer>, Integer> registro = new HashMap<>();
+        List<Integer> representantes = new ArrayList<>();
+        for (int k = 0; k < cuenta[0]; k++) {
+            int estado = orden[k];
+            List<Integer> firma = new ArrayList<>(numClases * 2 + 1);
+            firma.add((bit(aceptacion, estado) ? 1 : 0) | (bit(aceptacionPalabraCompleta, estado) ? 2 : 0));
+            for (int clase = 0; clase < numClases; clase++) {
+                int destino = transiciones[estado * numClases + clase];
+                firma.add(destino == SIN_TRANSICION ? SIN_TRANSICION : canonico[destino]);
+            }
+            Integer existente = registro.get(firma);
+            if (existente == null) {
+                existente = representantes.size();
+                registro.put(firma, existente);
+                representantes.add(estado);
+            }
+            canonico[estado] = existente;
+        }
+
+        // Renumerar para que el inicial sea el 0
+        int nuevos = representantes.size();
+        int idInicial = canonico[estadoInicial];
+        int[] renumerado = new int[nuevos];
+        for (int id = 0; id < nuevos; id++) {
+            renumerado[id] = id == idInicial ? 0 : (id < idInicial ? id + 1 : id);
+        }
+
+        int[] nuevasTransiciones = new int[nuevos * numClases];
+        int[] nuevosPesos = new int[nuevos * numClases];
+        long[] nuevaAceptacion = new long[(nuevos + 63) >>> 6];
+        long[] nuevaAceptacionCompleta = new long[nuevaAceptacion.length];
+        for (int id = 0; id < nuevos; id++) {
+            int viejo = representantes.get(id);
+            int nuevo = renumerado[id];
+            for (int clase = 0; clase < numClases; clase++) {
+                int destino = transiciones[viejo * numClases + clase];
+                nuevasTransiciones[nuevo * numClases + clase] =
+                        destino == SIN_TRANSICION ? SIN_TRANSICION : renumerado[canonico[destino]];
+                nuevosPesos[nuevo * numClases + clase] = pesos[viejo * numClases + clase];
+            }
+            if (bit(aceptacion, viejo)) nuevaAceptacion[nuevo >>> 6] |= 1L << nuevo;
+            if (bit(aceptacionPalabraCompleta, viejo)) nuevaAceptacionCompleta[nuevo >>> 6] |= 1L << nuevo;
+        }
+
+        return new TablaAFD(clasePorCaracter, numClases, nuevasTransiciones, nuevosPesos, nuevaAceptacion,
+                nuevaAceptacionCompleta, 0, palabras, tipoPorPalabra);
+    }
+
+    private void postOrden(int estado, boolean[] visitado, int[] orden, int[] cuenta) {
+        visitado[estado] = true;
+        for (int clase = 0; clase < numClases; clase++) {
+            int destino = transiciones[estado * numClases + clase];
+            if (destino != SIN_TRANSICION && !visitado[destino]) {
+                postOrden(destino, visitado, orden, cuenta);
+            }
+        }
+        orden[cuenta[0]++] = estado;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Archivo binario ---
+    // -------------------------------------------------------------------
+
+    /**
+     * Guarda la tabla en un archivo binario que cargar() puede leer directamente.
+     */
+    public void guardar(Path archivo) throws IOException {
+        List<Integer> caracteres = new ArrayList<>();
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (clasePorCaracter[c] != 0) caracteres.add(c);
+        }
+        int bytesPalabras = 0;
+        for (String palabra : palabras) bytesPalabras += 4 + 2 * palabra.length() + 4;
+
+        int tamano = ENCABEZADO
+                + 4 * caracteres.size()
+                + 4 * 2 * transiciones.length
+                + 4 + 8 * 2 * aceptacion.length
+                + 4 + bytesPalabras;
+        ByteBuffer buffer = ByteBuffer.allocate(tamano);
+        buffer.putInt(MAGICO).putInt(VERSION);
+        buffer.putLong(TipoToken.huellaCodigos()).putLong(huellaVocabulario());
+        buffer.putInt(getNumEstados()).putInt(numClases).putInt(estadoInicial);
+
+        buffer.putInt(caracteres.size());
+        for (int c : caracteres) {
+            buffer.putChar((char) c).putShort(clasePorCaracter[c]);
+        }
+
+        buffer.asIntBuffer().put(transiciones);
+        buffer.position(buffer.position() + 4 * transiciones.length);
+        buffer.asIntBuffer().put(pesos);
+        buffer.position(buffer.position() + 4 * pesos.length);
+
+        buffer.putInt(aceptacion.length);
+        buffer.asLongBuffer().put(aceptacion);
+        buffer.position(buffer.position() + 8 * aceptacion.length);
+        buffer.asLongBuffer().put(aceptacionPalabraCompleta);
+        buffer.position(buffer.position() + 8 * aceptacionPalabraCompleta.length);
+
+        buffer.putInt(palabras.length);
+        for (int i = 0; i < palabras.length; i++) {
+            buffer.putInt(palabras[i].length());
+            for (int j = 0; j < palabras[i].length(); j++) buffer.putChar(palabras[i].charAt(j));
+            buffer.putInt(tipoPorPalabra[i] == null ? -1 : tipoPorPalabra[i].ordinal());
+        }
+        buffer.flip();
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) canal.write(buffer);
+        }
+    }
+
+    /**
+     * Carga una tabla guardada con guardar(), leyendo el archivo mapeado en memoria.
+     */
+    public static TablaAFD cargar(Path archivo) throws IOException {
+        return cargar(archivo, null);
+    }
+
+    /**
+     * Igual que cargar(archivo), pero exige que la tabla reconozca exactamente el
+     * vocabulario dado (null no lo comprueba): un archivo compilado con otras palabras
+     * reservadas se rechaza en lugar de cargarse.
+     *
+     * Cada largo del archivo se compara con lo que queda por leer antes de reservar
+     * memoria, y cada estado, clase, peso y tipo se comprueba antes de usarse: un archivo
+     * truncado, dañado o de otra versión de TipoToken es una IOException.
+     */
+    public static TablaAFD cargar(Path archivo, Map<String, TipoToken> vocabularioEsperado) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) throw new IOException("AFD compilado demasiado grande: " + archivo);
+            buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        try {
+            return leer(buffer, vocabularioEsperado);
+        } catch (IOException e) {
+            throw new IOException(e.getMessage() + ": " + archivo, e);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("AFD compilado truncado: " + archivo, e);
+        }
+    }
+
+    private static TablaAFD leer(ByteBuffer buffer, Map<String, TipoToken> vocabularioEsperado) throws IOException {
+        if (buffer.remaining() < ENCABEZADO || buffer.getInt() != MAGICO) {
+            throw new IOException("El archivo no contiene un AFD compilado");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Versión de AFD compilado no soportada: " + version);
+        }
+        if (buffer.getLong() != TipoToken.huellaCodigos()) {
+            throw new IOException("AFD compilado con otra versión de TipoToken");
+        }
+        long huellaPalabras = buffer.getLong();
+        if (vocabularioEsperado != null && huellaPalabras != huellaVocabulario(vocabularioEsperado)) {
+            throw new IOException("AFD compilado con otras palabras reservadas");
+        }
+        int numEstados = buffer.getInt();
+        int numClases = buffer.getInt();
+        int estadoInicial = buffer.getInt();
+        if (numEstados <= 0 || numClases <= 0 || numClases > Character.MAX_VALUE + 1
+                || 8L * numEstados * numClases > buffer.remaining() || estadoInicial < 0 || estadoInicial >= numEstados) {
+            throw new IOException("Dimensiones del AFD compilado fuera de rango");
+        }
+
+        short[] clasePorCaracter = new short[Character.MAX_VALUE + 1];
+        int numCaracteres = buffer.getInt();
+        if (numCaracteres < 0 || 4L * numCaracteres > buffer.remaining()) {
+            throw new IOException("Tabla de clases del AFD compilado dañada");
+        }
+        for (int i = 0; i < numCaracteres; i++) {
+            char c = buffer.getChar();
+            short clase = buffer.getShort();
+            if (clase <= 0 || clase >= numClases) throw new IOException("Clase de carácter fuera de rango: " + clase);
+            clasePorCaracter[c] = clase;
+        }
+
+        int[] transiciones = new int[numEstados * numClases];
+        if (8L * transiciones.length > buffer.remaining()) throw new IOException("Transiciones del AFD compilado truncadas");
+        buffer.asIntBuffer().get(transiciones);
+        buffer.position(buffer.position() + 4 * transiciones.length);
+        int[] pesos = new int[transiciones.length];
+        buffer.asIntBuffer().get(pesos);
+        buffer.position(buffer.position() + 4 * pesos.length);
+        for (int r = 0; r < transiciones.length; r++) {
+            if (transiciones[r] < SIN_TRANSICION || transiciones[r] >= numEstados || pesos[r] < 0) {
+                throw new IOException("Transición fuera de rango en la ranura " + r);
+            }
+        }
+
+        int largoConjuntos = buffer.getInt();
+        if (largoConjuntos != (numEstados + 63) >>> 6 || 16L * largoConjuntos > buffer.remaining()) {
+            throw new IOException("Conjuntos de aceptación del AFD compilado dañados");
+        }
+        long[] aceptacion = new long[largoConjuntos];
+        buffer.asLongBuffer().get(aceptacion);
+        buffer.position(buffer.position() + 8 * largoConjuntos);
+        long[] aceptacionPalabraCompleta = new long[largoConjuntos];
+        buffer.asLongBuffer().get(aceptacionPalabraCompleta);
+        buffer.position(buffer.position() + 8 * largoConjuntos);
+
+        int numPalabras = buffer.getInt();
+        // Cada palabra ocupa al menos su largo y su tipo
+        if (numPalabras < 0 || 8L * numPalabras > buffer.remaining()) {
+            throw new IOException("Número de palabras del AFD compilado fuera de rango");
+        }
+        String[] palabras = new String[numPalabras];
+        TipoToken[] tipos = new TipoToken[numPalabras];
+        TipoToken[] valores = TipoToken.values();
+        for (int i = 0; i < numPalabras; i++) {
+            int largo = buffer.getInt();
+            if (largo < 0 || 2L * largo + 4 > buffer.remaining()) throw new IOException("Palabra " + i + " truncada");
+            char[] letras = new char[largo];
+            for (int j = 0; j < letras.length; j++) letras[j] = buffer.getChar();
+            palabras[i] = new String(letras);
+            int tipo = buffer.getInt();
+            if (tipo < -1 || tipo >= valores.length) throw new IOException("Tipo de palabra fuera de rango: " + tipo);
+            tipos[i] = tipo < 0 ? null : TipoToken.desdeCodigo(tipo);
+        }
+        if (buffer.hasRemaining()) throw new IOException("Datos sobrantes al final del AFD compilado");
+
+        TablaAFD tabla = new TablaAFD(clasePorCaracter, numClases, transiciones, pesos, aceptacion,
+                aceptacionPalabraCompleta, estadoInicial, palabras, tipos);
+        if (tabla.huellaVocabulario() != huellaPalabras) {
+            throw new IOException("Las palabras del AFD compilado no coinciden con su huella");
+        }
+        tabla.comprobarIds();
+        return tabla;
+    }
+
+    /**
+     * El autómata debe ser acíclico y toda palabra aceptada debe tener un id válido:
+     * se recorre en orden topológico llevando la suma de pesos más grande de cada estado.
+     */
+    private void comprobarIds() throws IOException {
+        int numEstados = getNumEstados();
+        int[] entrantes = new int[numEstados];
+        for (int destino : transiciones) {
+            if (destino != SIN_TRANSICION) entrantes[destino]++;
+        }
+        int[] pendientes = new int[numEstados];
+        long[] maximo = new long[numEstados];
+        Arrays.fill(maximo, -1);
+        maximo[estadoInicial] = 0;
+        int cantidad = 0;
+        for (int estado = 0; estado < numEstados; estado++) {
+            if (entrantes[estado] == 0) pendientes[cantidad++] = estado;
+        }
+        int procesados = 0;
+        while (procesados < cantidad) {
+            int estado = pendientes[procesados++];
+            if (maximo[estado] >= palabras.length
+                    && (esAceptacion(estado) || esAceptacionPalabraCompleta(estado))) {
+                throw new IOException("Id de palabra fuera de rango en el estado " + estado);
+            }
+            for (int ranura = estado * numClases; ranura < (estado + 1) * numClases; ranura++) {
+                int destino = transiciones[ranura];
+                if (destino == SIN_TRANSICION) continue;
+                if (maximo[estado] >= 0) maximo[destino] = Math.max(maximo[destino], maximo[estado] + pesos[ranura]);
+                if (--entrantes[destino] == 0) pendientes[cantidad++] = destino;
+            }
+        }
+        if (procesados != numEstados) throw new IOException("El AFD compilado tiene ciclos");
+    }
+
+    // Huella del vocabulario de la tabla, con el mismo cálculo que huellaVocabulario(Map)
+    private long huellaVocabulario() {
+        Map<String, TipoToken> vocabulario = new HashMap<>();
+        for (int i = 0; i < palabras.length; i++) vocabulario.put(palabras[i], tipoPorPalabra[i]);
+        return huellaVocabulario(vocabulario);
+    }
+
+    /**
+     * Huella de un vocabulario (palabras y sus tipos, sin importar el orden). El archivo
+     * compilado la guarda para que cargar() rechace uno hecho con otras palabras.
+     */
+    public static long huellaVocabulario(Map<String, TipoToken> tipoPorPalabra) {
+        long h = 0xCBF29CE484222325L;
+        for (String palabra : new TreeSet<>(tipoPorPalabra.keySet())) {
+            TipoToken tipo = tipoPorPalabra.get(palabra);
+            String nombre = tipo == null ? "" : tipo.name();
+            for (int i = 0; i < palabra.length(); i++) h = (h ^ palabra.charAt(i)) * 0x100000001B3L;
+            h = (h ^ ' ') * 0x100000001B3L;
+            for (int i = 0; i < nombre.length(); i++) h = (h ^ nombre.charAt(i)) * 0x100000001B3L;
+            h = (h ^ '\n') * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    // -------------------------------------------------------------------
+    // --- Consulta durante el escaneo ---
+    // -------------------------------------------------------------------
+
+    public int getEstadoInicial() {
+        return estadoInicial;
+    }
+
+    /**
+     * Devuelve la posición de la transición del estado con el carácter c en la tabla,
+     * o SIN_TRANSICION. Mayúsculas y minúsculas llevan a la misma posición.
+     */
+    public int ranura(int estado, char c) {
+        int clase = clasePorCaracter[c];
+        if (clase == 0) return SIN_TRANSICION;
+        int ranura = estado * numClases + clase;
+        return transiciones[ranura] == SIN_TRANSICION ? SIN_TRANSICION : ranura;
+    }
+
+    // Estado al que lleva una ranura válida
+    public int destino(int ranura) {
+        return transiciones[ranura];
+    }
+
+    // Cuánto avanza el id de palabra al tomar una ranura válida
+    public int peso(int ranura) {
+        return pesos[ranura];
+    }
+
+    /**
+     * Devuelve el estado destino al leer el carácter c, o SIN_TRANSICION.
+     */
+    public int transicion(int estado, char c) {
+        int clase = clasePorCaracter[c];
+        if (clase == 0) return SIN_TRANSICION;
+        return transiciones[estado * numClases + clase];
+    }
+
+    public boolean esAceptacion(int estado) {
+        return bit(aceptacion, estado);
+    }
+
+    // Estados que solo reconocen una palabra reservada si el lexema se consumió completo
+    public boolean esAceptacionPalabraCompleta(int estado) {
+        return bit(aceptacionPalabraCompleta, estado);
+    }
+
+    /**
+     * Recorre el lexema completo; reconoce tanto los estados de aceptación como las
+     * ramas de palabra completa.
+     */
+    @Override
+    public int reconocer(CharSequence fuente, int inicio, int fin) {
+        int estado = estadoInicial;
+        int palabra = 0;
+        for (int j = inicio; j < fin; j++) {
+            int ranura = ranura(estado, fuente.charAt(j));
+            if (ranura == SIN_TRANSICION) return NINGUNA;
+            estado = transiciones[ranura];
+            palabra += pesos[ranura];
+        }
+        return esAceptacion(estado) || esAceptacionPalabraCompleta(estado) ? palabra : NINGUNA;
+    }
+
+    /**
+     * Recorre el lexema recordando el último estado de aceptación; solo hay corte si
+     * el recorrido se detiene antes del final (el lexema no es prefijo de una palabra).
+     */
+    @Override
+    public int prefijoReservado(CharSequence fuente, int inicio, int fin) {
+        int estado = estadoInicial;
+        int ultimoCorte = NINGUNA;
+        for (int j = inicio; j < fin; j++) {
+            int ranura = ranura(estado, fuente.charAt(j));
+            if (ranura == SIN_TRANSICION) {
+                return ultimoCorte;
+            }
+            estado = transiciones[ranura];
+            if (esAceptacion(estado) && j < fin - 1) ultimoCorte = j + 1;
+        }
+        return NINGUNA;
+    }
+
+    // Palabra (en mayúsculas) con el id dado; es el "estado final" del reporte
+    @Override
+    public String getPalabra(int idPalabra) {
+        return palabras[idPalabra];
+    }
+
+    // Tipo registrado para la palabra, o null si no tiene
+    @Override
+    public TipoToken getTipo(int idPalabra) {
+        return tipoPorPalabra[idPalabra];
+    }
+
+    @Override
+    public int getNumPalabras() {
+        return palabras.length;
+    }
+
+    public int getNumEstados() {
+        return transiciones.length / numClases;
+    }
+}
@@ -0,0 +1,388 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Tabla hash de entero a entero con direccionamiento abierto (sondeo lineal) sobre
+ * arreglos primitivos: claves, valores y un byte de estado por casilla.
+ *
+ * El rehash es incremental: al crecer (o con REHASH) se crea la tabla nueva y la
+ * anterior se queda como fuente; cada escritura mueve unas pocas casillas, así que
+ * ningún insertar paga la copia entera. Mientras dura, una clave está en una sola de
+ * las dos tablas y las búsquedas miran primero la nueva. En la anterior las casillas
+ * ya movidas o eliminadas quedan como BORRADA para no cortar las cadenas de sondeo;
+ * en la actual se elimina desplazando hacia atrás, sin marcas.
+ */
+public final class TablaHashEnteros {
+    private static final byte LIBRE = 0;
+    private static final byte OCUPADA = 1;
+    private static final byte BORRADA = 2;
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    // Mayor potencia de 2 que cabe en un int; las capacidades pedidas se recortan a ella
+    public static final int CAPACIDAD_MAXIMA = 1 << 30;
+
+    // Casillas de la tabla anterior que se mueven en cada escritura
+    private static final int PASO_MIGRACION = 8;
+
+    /** Recibe las entradas de recorrer(). */
+    public interface ReceptorEntrada {
+        void entrada(int clave, int valor);
+    }
+
+    private int[] claves;
+    private int[] valores;
+    private byte[] estados;
+    private int ocupadas = 0;
+
+    // Tabla anterior mientras dura un rehash (null si no hay)
+    private int[] clavesAnteriores;
+    private int[] valoresAnteriores;
+    private byte[] estadosAnteriores;
+    private int ocupadasAnteriores = 0;
+    private int cursorMigracion = 0;
+
+    // Instantánea que aún lee los arreglos (ver InstantaneaDSL), o null
+    private InstantaneaDSL.Lectura compartida;
+
+    public TablaHashEnteros() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public TablaHashEnteros(int capacidad) {
+        int c = potenciaDeDos(Math.max(capacidad, 2));
+        claves = new int[c];
+        valores = new int[c];
+        estados = new byte[c];
+    }
+
+    private static int potenciaDeDos(int n) {
+        if (n > CAPACIDAD_MAXIMA) return CAPACIDAD_MAXIMA;
+        return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+    }
+
+    private static int dispersar(int clave) {
+        int h = clave * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // Casilla de la clave en la tabla dada, o -1
+    private static int casilla(int[] claves, byte[] estados, int clave) {
+        int mascara = claves.length - 1;
+        for (int p = dispersar(clave) & mascara; estados[p] != LIBRE; p = (p + 1) & mascara) {
+            if (estados[p] == OCUPADA && claves[p] == clave) return p;
+        }
+        return -1;
+    }
+
+    // --- Consulta ---
+
+    public boolean contiene(int clave) {
+        return casilla(claves, estados, clave) >= 0
+            || (clavesAnteriores != null && casilla(clavesAnteriores, estadosAnteriores, clave) >= 0);
+    }
+
+    public int obtener(int clave) {
+        int p = casilla(claves, estados, clave);
+        if (p >= 0) return valores[p];
+        if (clavesAnteriores != null) {
+            p = casilla(clavesAnteriores, estadosAnteriores, clave);
+            if (p >= 0) return valoresAnteriores[p];
+        }
+        throw new NoSuchElementException("No existe la clave " + clave);
+    }
+
+    // Valor de la clave, o porDefecto si no está
+    public int obtener(int clave, int porDefecto) {
+        int p = casilla(claves, estados, clave);
+        if (p >= 0) return valores[p];
+        if (clavesAnteriores != null) {
+            p = casilla(clavesAnteriores, estadosAnteriores, clave);
+            if (p >= 0) return valoresAnteriores[p];
+        }
+        return porDefecto;
+    }
+
+    public int tamano() {
+        return ocupadas + ocupadasAnteriores;
+    }
+
+    public boolean estaVacia() {
+        return tamano() == 0;
+    }
+
+    public int capacidad() {
+        return claves.length;
+    }
+
+    public boolean enRehash() {
+        return clavesAnteriores != null;
+    }
+
+    // --- Escritura ---
+
+    // Inserta o reemplaza; devuelve true si la clave es nueva
+    public boolean poner(int clave, int valor) {
+        separar();
+        avanzarMigracion();
+        int p = casilla(claves, estados, clave);
+        if (p >= 0) {
+            valores[p] = valor;
+            return false;
+        }
+        boolean nueva = true;
+        if (clavesAnteriores != null) {
+            int q = casilla(clavesAnteriores, estadosAnteriores, clave);
+            if (q >= 0) {
+                estadosAnteriores[q] = BORRADA;
+                ocupadasAnteriores--;
+                nueva = false;
+            }
+        }
+        if ((ocupadas + 1) * 4 > claves.length * 3) crecer();
+        colocar(clave, valor);
+        return nueva;
+    }
+
+    // Cambia el valor de una clave existente; devuelve false si no estaba
+    public boolean actualizar(int clave, int valor) {
+        separar();
+        int p = casilla(claves, estados, clave);
+        if (p >= 0) {
+            valores[p] = valor;
+            return true;
+        }
+        if (clavesAnteriores != null) {
+            p = casilla(clavesAnteriores, estadosAnteriores, clave);
+            if (p >= 0) {
+                valoresAnteriores[p] = valor;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean eliminar(int clave) {
+        separar();
+        avanzarMigracion();
+        int p = casilla(claves, estados, clave);
+        if (p >= 0) {
+            quitar(p);
+            return true;
+        }
+        if (clavesAnteriores != null) {
+            p = casilla(clavesAnteriores, estadosAnteriores, clave);
+            if (p >= 0) {
+                estadosAnteriores[p] = BORRADA;
+                ocupadasAnteriores--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void limpiar() {
+        separar();
+        Arrays.fill(estados, LIBRE);
+        ocupadas = 0;
+        clavesAnteriores = null;
+        valoresAnteriores = null;
+        estadosAnteriores = null;
+        ocupadasAnteriores = 0;
+    }
+
+    // Inserta una clave que no está en la tabla actual
+    private void colocar(int clave, int valor) {
+        int mascara = claves.length - 1;
+        int p = dispersar(clave) & mascara;
+        while (estados[p] == OCUPADA) p = (p + 1) & mascara;
+        claves[p] = clave;
+        valores[p] = valor;
+        estados[p] = OCUPADA;
+        ocupadas++;
+    }
+
+    // Elimina la casilla p desplazando hacia atrás las que dependían de ella
+    private void quitar(int p) {
+        int mascara = claves.length - 1;
+        int hueco = p;
+        estados[hueco] = LIBRE;
+        for (int j = (hueco + 1) & mascara; estados[j] != LIBRE; j = (j + 1) & mascara) {
+            int inicio = dispersar(claves[j]) & mascara;
+            // Se queda si su inicio está cíclicamente en (hueco, j]
+            boolean seQueda = hueco <= j ? (inicio > hueco && inicio <= j) : (inicio > hueco || inicio <= j);
+            if (!seQueda) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                estados[hueco] = OCUPADA;
+                estados[j] = LIBRE;
+                hueco = j;
+            }
+        }
+        ocupadas--;
+    }
+
+    // --- Rehash incremental ---
+
+    private void crecer() {
+        // Con PASO_MIGRACION la migración suele terminar mucho antes de llegar aquí
+        terminarMigracion();
+        if ((ocupadas + 1) * 4 > claves.length * 3) iniciarRehash(claves.length * 2);
+    }
+
+    /**
+     * Empieza a pasar las entradas a una tabla de al menos esa capacidad (y de al
+     * menos el doble de las entradas actuales), hasta CAPACIDAD_MAXIMA; con 0 se
+     * ajusta a las entradas. Si ya había un rehash en curso, se termina antes.
+     */
+    public void rehash(int capacidad) {
+        separar();
+        terminarMigracion();
+        iniciarRehash(Math.max(capacidad, ocupadas * 2));
+    }
+
+    private void iniciarRehash(int capacidad) {
+        clavesAnteriores = claves;
+        valoresAnteriores = valores;
+        estadosAnteriores = estados;
+        ocupadasAnteriores = ocupadas;
+        cursorMigracion = 0;
+        int c = potenciaDeDos(Math.max(capacidad, 2));
+        claves = new int[c];
+        valores = new int[c];
+        estados = new byte[c];
+        ocupadas = 0;
+        if (ocupadasAnteriores == 0) terminarMigracion();
+    }
+
+    private void avanzarMigracion() {
+        if (clavesAnteriores != null) migrar(PASO_MIGRACION);
+    }
+
+    private void terminarMigracion() {
+        if (clavesAnteriores == null) return;
+        if ((ocupadas + ocupadasAnteriores) * 4 > claves.length * 3) {
+            // Las dos tablas no caben en la actual (p. ej. tras un REHASH a una capacidad
+            // menor): se reconstruye de una vez con espacio de sobra
+            int[] c = claves;
+            int[] v = valores;
+            byte[] e = estados;
+            int nueva = potenciaDeDos((ocupadas + ocupadasAnteriores) * 2);
+            claves = new int[nueva];
+            valores = new int[nueva];
+            estados = new byte[nueva];
+            ocupadas = 0;
+            for (int p = 0; p < c.length; p++) {
+                if (e[p] == OCUPADA) colocar(c[p], v[p]);
+            }
+        }
+        migrar(estadosAnteriores.length);
+    }
+
+    // Mueve hasta n casillas de la tabla anterior; al vaciarla la descarta
+    private void migrar(int n) {
+        int fin = Math.min(cursorMigracion + n, estadosAnteriores.length);
+        for (; cursorMigracion < fin && ocupadasAnteriores > 0; cursorMigracion++) {
+            if (estadosAnteriores[cursorMigracion] == OCUPADA) {
+                colocar(clavesAnteriores[cursorMigracion], valoresAnteriores[cursorMigracion]);
+                estadosAnteriores[cursorMigracion] = BORRADA;
+                ocupadasAnteriores--;
+            }
+        }
+        if (ocupadasAnteriores == 0) {
+            clavesAnteriores = null;
+            valoresAnteriores = null;
+            estadosAnteriores = null;
+        }
+    }
+
+    // --- Recorrido ---
+
+    // Entrega cada entrada (orden de casillas, primero la tabla actual) sin crear listas
+    public void recorrer(ReceptorEntrada receptor) {
+        for (int p = 0; p < claves.length; p++) {
+            if (estados[p] == OCUPADA) receptor.entrada(claves[p], valores[p]);
+        }
+        if (clavesAnteriores != null) {
+            for (int p = cursorMigracion; p < clavesAnteriores.length; p++) {
+                if (estadosAnteriores[p] == OCUPADA) receptor.entrada(clavesAnteriores[p], valoresAnteriores[p]);
+            }
+        }
+    }
+
+    // --- Instantáneas ---
+
+    // Copia en escritura: si una instantánea sigue leyendo las tablas, se trabaja sobre copias
+    private void separar() {
+        if (compartida == null) return;
+        if (!compartida.terminada()) {
+            claves = claves.clone();
+            valores = valores.clone();
+            estados = estados.clone();
+            if (clavesAnteriores != null) {
+                clavesAnteriores = clavesAnteriores.clone();
+                valoresAnteriores = valoresAnteriores.clone();
+                estadosAnteriores = estadosAnteriores.clone();
+            }
+        }
+        compartida = null;
+    }
+
+    // Un rehash a medias se guarda tal cual (las dos tablas y el cursor) y sigue al restaurar
+    InstantaneaDSL.Seccion capturar(InstantaneaDSL.Lectura lectura) {
+        separar();
+        compartida = lectura;
+        boolean anterior = clavesAnteriores != null;
+        int c = claves.length;
+        int a = anterior ? clavesAnteriores.length : 0;
+        return new InstantaneaDSL.Seccion(new int[] {ocupadas, ocupadasAnteriores, cursorMigracion},
+                new Object[] {claves, valores, estados,
+                        anterior ? clavesAnteriores : new int[0],
+                        anterior ? valoresAnteriores : new int[0],
+                        anterior ? estadosAnteriores : new byte[0]},
+                new int[] {c, c, c, a, a, a});
+    }
+
+    Runnable preparar(InstantaneaDSL.Seccion seccion) {
+        seccion.exigir(3, 6);
+        int[] e = seccion.escalares;
+        int[] nuevasClaves = seccion.enteros(0);
+        int[] nuevosValores = seccion.enteros(1);
+        byte[] nuevosEstados = seccion.bytes(2);
+        int[] clavesViejas = seccion.enteros(3);
+        int[] valoresViejos = seccion.enteros(4);
+        byte[] estadosViejos = seccion.bytes(5);
+        int c = nuevasClaves.length;
+        int a = clavesViejas.length;
+        if (Integer.bitCount(c) != 1 || nuevosValores.length != c || nuevosEstados.length != c
+                || (a != 0 && Integer.bitCount(a) != 1) || valoresViejos.length != a || estadosViejos.length != a
+                || e[0] != contarOcupadas(nuevosEstados) || e[1] != contarOcupadas(estadosViejos)
+                || (a == 0 ? e[1] != 0 : e[1] == 0 || e[2] < 0 || e[2] > a)) {
+            throw new IllegalArgumentException("Tabla hash incoherente");
+        }
+        return () -> {
+            claves = nuevasClaves;
+            valores = nuevosValores;
+            estados = nuevosEstados;
+            ocupadas = e[0];
+            clavesAnteriores = a == 0 ? null : clavesViejas;
+            valoresAnteriores = a == 0 ? null : valoresViejos;
+            estadosAnteriores = a == 0 ? null : estadosViejos;
+            ocupadasAnteriores = e[1];
+            cursorMigracion = a == 0 ? 0 : e[2];
+            compartida = null;
+        };
+    }
+
+    // Las casillas vacías garantizan que el sondeo termina; se comprueba también eso
+    private static int contarOcupadas(byte[] estados) {
+        int n = 0;
+        boolean hayLibre = estados.length == 0;
+        for (byte estado : estados) {
+            if (estado == OCUPADA) n++;
+            else if (estado == LIBRE) hayLibre = true;
+            else if (estado != BORRADA) return -1;
+        }
+        return hayLibre ? n : -1;
+    }
+}
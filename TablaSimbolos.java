@@ -0,0 +1,175 @@
+import java.util.Arrays;
+
+/**
+ * Tabla de símbolos: identificadores y literales internados, cada uno con un id
+ * entero. La tabla hash es de direccionamiento abierto (sondeo lineal) y se
+ * consulta con el rango [inicio, fin) de la fuente, así que si el símbolo ya
+ * existe no se crea ningún String; solo la primera aparición copia el texto.
+ * Por cada símbolo guarda cuántas veces aparece y la primera y última línea.
+ *
+ * Con los ids, comparar dos identificadores es comparar dos enteros.
+ * No es segura para hilos: cada análisis usa su propia tabla.
+ */
+public final class TablaSimbolos {
+    // Id usado para los tokens que no son símbolos (palabras reservadas, operadores, errores)
+    public static final int SIN_SIMBOLO = -1;
+
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    // Posiciones de la tabla hash: id del símbolo + 1 (0 = libre); el tamaño es potencia de 2
+    private int[] posiciones;
+
+    // Columnas por id de símbolo
+    private String[] textos;
+    private int[] hashes;
+    private byte[] tipos;
+    private int[] ocurrencias;
+    private int[] primeraLinea;
+    private int[] ultimaLinea;
+    private int tamano = 0;
+
+    public TablaSimbolos() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public TablaSimbolos(int capacidad) {
+        int c = Math.max(capacidad, 1);
+        posiciones = new int[Integer.highestOneBit(c * 2 - 1) << 1];
+        textos = new String[c];
+        hashes = new int[c];
+        tipos = new byte[c];
+        ocurrencias = new int[c];
+        primeraLinea = new int[c];
+        ultimaLinea = new int[c];
+    }
+
+    // Identificadores y literales son símbolos; el resto de los tokens no
+    public static boolean esSimbolo(TipoToken tipo) {
+        return tipo.tiene(TipoToken.NOMBRE) || tipo.tiene(TipoToken.LITERAL);
+    }
+
+    /**
+     * Registra una aparición de fuente[inicio, fin) en la línea dada y devuelve el id
+     * de su símbolo. El tipo solo se guarda en la primera aparición.
+     */
+    public int internar(CharSequence fuente, int inicio, int fin, int linea, TipoToken tipo) {
+        int hash = 0;
+        for (int i = inicio; i < fin; i++) hash = 31 * hash + fuente.charAt(i);
+
+        int mascara = posiciones.length - 1;
+        int p = mezclar(hash) & mascara;
+        while (true) {
+            int ocupante = posiciones[p] - 1;
+            if (ocupante < 0) break;
+            if (hashes[ocupante] == hash && iguales(textos[ocupante], fuente, inicio, fin)) {
+                ocurrencias[ocupante]++;
+                ultimaLinea[ocupante] = linea;
+                return ocupante;
+            }
+            p = (p + 1) & mascara;
+        }
+
+        // Símbolo nuevo: única vez que se copia el texto
+        if (tamano == textos.length) crecerColumnas();
+        int id = tamano++;
+        textos[id] = fuente.subSequence(inicio, fin).toString();
+        hashes[id] = hash;
+        tipos[id] = (byte) tipo.ordinal();
+        ocurrencias[id] = 1;
+        primeraLinea[id] = linea;
+        ultimaLinea[id] = linea;
+        posiciones[p] = id + 1;
+
+        // Se mantiene a lo sumo la mitad de las posiciones ocupadas
+        if (tamano * 2 > posiciones.length) rehacerPosiciones();
+        return id;
+    }
+
+    // Id del texto si ya está en la tabla, o SIN_SIMBOLO (no registra una aparición)
+    public int buscar(CharSequence texto) {
+        int hash = 0;
+        for (int i = 0; i < texto.length(); i++) hash = 31 * hash + texto.charAt(i);
+        int mascara = posiciones.length - 1;
+        for (int p = mezclar(hash) & mascara; posiciones[p] != 0; p = (p + 1) & mascara) {
+            int id = posiciones[p] - 1;
+            if (hashes[id] == hash && iguales(textos[id], texto, 0, texto.length())) return id;
+        }
+        return SIN_SIMBOLO;
+    }
+
+    /**
+     * Interna los identificadores y literales de un arreglo de tokens ya clasificados
+     * y devuelve el id de símbolo de cada token (SIN_SIMBOLO si no es símbolo).
+     */
+    public int[] registrar(Token[] tokens) {
+        int[] ids = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            Token tk = tokens[i];
+            ids[i] = esSimbolo(tk.getTipo())
+                    ? internar(tk.getLexema(), 0, tk.getLexema().length(), tk.getLinea(), tk.getTipo())
+                    : SIN_SIMBOLO;
+        }
+        return ids;
+    }
+
+    private static boolean iguales(String texto, CharSequence fuente, int inicio, int fin) {
+        if (texto.length() != fin - inicio) return false;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) != fuente.charAt(inicio + i)) return false;
+        }
+        return true;
+    }
+
+    // Reparte los bits altos del hash (31 * h + c deja los bajos muy correlacionados)
+    private static int mezclar(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private void crecerColumnas() {
+        int nueva = textos.length * 2;
+        textos = Arrays.copyOf(textos, nueva);
+        hashes = Arrays.copyOf(hashes, nueva);
+        tipos = Arrays.copyOf(tipos, nueva);
+        ocurrencias = Arrays.copyOf(ocurrencias, nueva);
+        primeraLinea = Arrays.copyOf(primeraLinea, nueva);
+        ultimaLinea = Arrays.copyOf(ultimaLinea, nueva);
+    }
+
+    private void rehacerPosiciones() {
+        int[] nuevas = new int[posiciones.length * 2];
+        int mascara = nuevas.length - 1;
+        for (int id = 0; id < tamano; id++) {
+            int p = mezclar(hashes[id]) & mascara;
+            while (nuevas[p] != 0) p = (p + 1) & mascara;
+            nuevas[p] = id + 1;
+        }
+        posiciones = nuevas;
+    }
+
+    // Getters por id de símbolo
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public String getTexto(int id) {
+        return textos[id];
+    }
+
+    public TipoToken getTipo(int id) {
+        return TipoToken.desdeCodigo(tipos[id]);
+    }
+
+    public int getOcurrencias(int id) {
+        return ocurrencias[id];
+    }
+
+    public int getPrimeraLinea(int id) {
+        return primeraLinea[id];
+    }
+
+    public int getUltimaLinea(int id) {
+        return ultimaLinea[id];
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Tipos léxicos del DSL. Cada tipo conserva la etiqueta de texto usada en la tabla
+ * de símbolos y un conjunto de banderas de categoría, de modo que las consultas
+ * como "¿es un error?" no necesitan comparar cadenas.
+ */
+public enum TipoToken {
+    // Valor inicial que asigna el tokenizador antes de clasificar
+    PENDIENTE("Pendiente", 0),
+
+    // Palabras reservadas y de control
+    PALABRA_RESERVADA(TipoToken.PALABRA_CLAVE),
+    PC_IF(TipoToken.PALABRA_CLAVE),
+    PC_ELSE(TipoToken.PALABRA_CLAVE),
+
+    IDENTIFICADOR(TipoToken.NOMBRE),
+
+    // Literales
+    LITERAL_NUMERICA(TipoToken.LITERAL),
+    LITERAL_CADENA(TipoToken.LITERAL),
+
+    // Delimitadores y agrupación
+    DELIMITADOR(TipoToken.SEPARADOR),
+    PARENTESIS_IZQ(TipoToken.SEPARADOR),
+    PARENTESIS_DER(TipoToken.SEPARADOR),
+    CORCHETE_IZQ(TipoToken.SEPARADOR),
+    CORCHETE_DER(TipoToken.SEPARADOR),
+    LLAVE_IZQ(TipoToken.SEPARADOR),
+    LLAVE_DER(TipoToken.SEPARADOR),
+    COMA(TipoToken.SEPARADOR),
+
+    // Operadores
+    ASIGNACION(TipoToken.OPERADOR),
+    OP_SUMA(TipoToken.OPERADOR),
+    OP_RESTA(TipoToken.OPERADOR),
+    OP_MULTIPLICACION(TipoToken.OPERADOR),
+    OP_DIVISION(TipoToken.OPERADOR),
+    OP_MENOR_QUE(TipoToken.OPERADOR),
+    OP_MAYOR_QUE(TipoToken.OPERADOR),
+    OP_IGUAL(TipoToken.OPERADOR),
+    OP_DIFERENTE(TipoToken.OPERADOR),
+    OP_MENOR_IGUAL(TipoToken.OPERADOR),
+    OP_MAYOR_IGUAL(TipoToken.OPERADOR),
+    OP_LOGICO(TipoToken.OPERADOR),
+    OP_PUNTO(TipoToken.OPERADOR),
+
+    // Errores léxicos
+    ERROR_CADENA_INCOMPLETA(TipoToken.ERROR),
+    ERROR_SIMBOLO_INVALIDO(TipoToken.ERROR),
+    ERROR_TOKEN_MALFORMADO(TipoToken.ERROR);
+
+    // Banderas de categoría
+    public static final int PALABRA_CLAVE = 1;
+    public static final int NOMBRE = 1 << 1;
+    public static final int LITERAL = 1 << 2;
+    public static final int SEPARADOR = 1 << 3;
+    public static final int OPERADOR = 1 << 4;
+    public static final int ERROR = 1 << 5;
+
+    private static final TipoToken[] VALORES = values();
+    private static final long HUELLA = calcularHuella();
+
+    private final String etiqueta;
+    private final int categorias;
+
+    TipoToken(int categorias) {
+        this.etiqueta = name();
+        this.categorias = categorias;
+    }
+
+    TipoToken(String etiqueta, int categorias) {
+        this.etiqueta = etiqueta;
+        this.categorias = categorias;
+    }
+
+    // Texto que aparece en la tabla de símbolos (igual al nombre salvo en PENDIENTE)
+    public String getEtiqueta() {
+        return etiqueta;
+    }
+
+    public boolean tiene(int categoria) {
+        return (categorias & categoria) != 0;
+    }
+
+    public boolean esError() {
+        return (categorias & ERROR) != 0;
+    }
+
+    // Tipo con el código dado (su ordinal), útil para representaciones compactas
+    public static TipoToken desdeCodigo(int codigo) {
+        return VALORES[codigo];
+    }
+
+    /**
+     * Huella de los nombres de los tipos en orden. Cambia si un tipo se agrega, se
+     * quita o se mueve, así que los archivos que guardan códigos la anotan para no
+     * leer códigos de otra versión del enum.
+     */
+    public static long huellaCodigos() {
+        return HUELLA;
+    }
+
+    private static long calcularHuella() {
+        long h = 0xCBF29CE484222325L;
+        for (TipoToken tipo : values()) {
+            for (int i = 0; i < tipo.name().length(); i++) h = (h ^ tipo.name().charAt(i)) * 0x100000001B3L;
+            h = (h ^ ';') * 0x100000001B3L;
+        }
+        return h;
+    }
+}
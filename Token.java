@@ -7,7 +7,7 @@ public class Token {
    // Atributos que tendra el token
     private String lexema;// clasificacion a la que pertenece
     private int linea;// linea del codigo que se encuentra el token
-    private String tipoToken; // Tipo léxico (e.g., PALABRA_RESERVADA, LITERAL_NUMERICA)
+    private TipoToken tipoToken; // Tipo léxico (e.g., PALABRA_RESERVADA, LITERAL_NUMERICA)
     private String estadoFinal; // Estado final del AFD (solo relevante para Palabras Reservadas)
     private boolean existeSimbolo; // Indica si el lexema fue reconocido (true) o si es un error (false)
 
@@ -15,13 +15,13 @@ public class Token {
     public Token(String lexema, int linea) {
         this.lexema = lexema;
         this.linea = linea;
-        this.tipoToken = "Pendiente"; // Valor inicial
+        this.tipoToken = TipoToken.PENDIENTE; // Valor inicial
         this.estadoFinal = "N/A";
         this.existeSimbolo = false;
     }
     
     // Constructor usado por el AFD para clasificar el token
-    public Token(String lexema, int linea, String tipoToken, String estadoFinal, boolean existeSimbolo) {
+    public Token(String lexema, int linea, TipoToken tipoToken, String estadoFinal, boolean existeSimbolo) {
         this.lexema = lexema;
         this.linea = linea;
         this.tipoToken = tipoToken;
@@ -29,6 +29,12 @@ public class Token {
         this.existeSimbolo = existeSimbolo;
     }
 
+    // Copia del token en otra línea (usado al desplazar líneas en el análisis incremental)
+    public Token enLinea(int nuevaLinea) {
+        if (nuevaLinea == linea) return this;
+        return new Token(lexema, nuevaLinea, tipoToken, estadoFinal, existeSimbolo);
+    }
+
     // Getters
     public String getLexema() {
         return lexema;
@@ -38,7 +44,12 @@ public class Token {
         return linea;
     }
 
+    // Etiqueta de texto del tipo, tal como aparece en la tabla de símbolos
     public String getTipoToken() {
+        return tipoToken.getEtiqueta();
+    }
+
+    public TipoToken getTipo() {
         return tipoToken;
     }
 
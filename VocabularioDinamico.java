@@ -0,0 +1,249 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Palabras reservadas cargadas de un archivo de configuración y recargables sin
+ * reiniciar el proceso. Cada versión del vocabulario se compila a un AFD nuevo que
+ * se publica con una AtomicReference: obtener() es una lectura sin candados, los
+ * análisis en curso terminan con el AFD que ya tenían y los siguientes toman el
+ * nuevo. vigilar() recarga automáticamente en un hilo aparte cuando el archivo
+ * cambia; si la nueva versión tiene errores se conserva la anterior.
+ *
+ * El trie de prefijos (los mapas de estados y transiciones que compila TablaAFD) se
+ * conserva entre versiones y solo se tocan las ramas de las palabras agregadas o
+ * quitadas; después se compila y minimiza la tabla.
+ *
+ * Formato del archivo (UTF-8): una palabra por línea, opcionalmente seguida del
+ * tipo (PALABRA_RESERVADA si se omite, o PC_IF / PC_ELSE); '#' inicia un
+ * comentario.
+ *   # Estructuras
+ *   PILA
+ *   CONTIENE
+ *   IF    PC_IF
+ */
+public final class VocabularioDinamico implements AutoCloseable {
+    // Estado inicial del trie; ningún prefijo de palabra es vacío, así que no choca
+    private static final String INICIO = "";
+
+    private final Path archivo;
+    private final AFD.Motor motor;
+    private final AtomicReference<AFD> actual = new AtomicReference<>();
+
+    // Trie de la versión publicada; solo se modifica dentro de recargar()
+    private final Set<String> estados = new HashSet<>();
+    private final Map<String, Map<Character, String>> transiciones = new HashMap<>();
+    // Cuántas palabras pasan por cada estado (al llegar a 0 se poda la rama)
+    private final Map<String, Integer> palabrasPorEstado = new HashMap<>();
+    private Map<String, TipoToken> tipos = Map.of();
+
+    private volatile WatchService vigilancia;
+
+    /**
+     * Carga el archivo y compila la primera versión; un archivo con errores es una
+     * excepción aquí (en las recargas posteriores se conserva la versión anterior).
+     */
+    public VocabularioDinamico(Path archivo, AFD.Motor motor) throws IOException {
+        this.archivo = archivo;
+        this.motor = motor;
+        estados.add(INICIO);
+        transiciones.put(INICIO, new HashMap<>());
+        recargar();
+    }
+
+    public VocabularioDinamico(Path archivo) throws IOException {
+        this(archivo, AFD.Motor.TRIE);
+    }
+
+    // AFD de la versión vigente
+    public AFD obtener() {
+        return actual.get();
+    }
+
+    // Palabras de la versión vigente y su tipo
+    public synchronized Map<String, TipoToken> getTipos() {
+        return tipos;
+    }
+
+    /**
+     * Vuelve a leer el archivo y publica un AFD nuevo si el vocabulario cambió.
+     * Devuelve true si se publicó una versión nueva.
+     */
+    public synchronized boolean recargar() throws IOException {
+        Map<String, TipoToken> nuevos = leer(archivo);
+        if (nuevos.equals(tipos) && actual.get() != null) return false;
+
+        Map<String, TipoToken> anteriores = tipos;
+        cambiarTrie(anteriores, nuevos);
+        AFD afd;
+        try {
+            afd = motor == AFD.Motor.HASH_PERFECTO
+                    ? AFD.conReconocedor(ReconocedorHash.generar(nuevos))
+                    : new AFD(estados, DSLCore.getAlfabetoDSL(), transiciones, INICIO, nuevos.keySet(), nuevos);
+        } catch (RuntimeException | Error e) {
+            // El trie vuelve a la versión publicada: así la próxima recarga no ve el cambio como hecho
+            cambiarTrie(nuevos, anteriores);
+            throw e;
+        }
+        // Trie, tipos y AFD pasan juntos a la nueva versión
+        tipos = nuevos;
+        actual.set(afd);
+        return true;
+    }
+
+    // Solo cambian las ramas de las palabras quitadas y agregadas
+    private void cambiarTrie(Map<String, TipoToken> de, Map<String, TipoToken> a) {
+        for (String palabra : de.keySet()) {
+            if (!a.containsKey(palabra)) quitar(palabra);
+        }
+        for (String palabra : a.keySet()) {
+            if (!de.containsKey(palabra)) agregar(palabra);
+        }
+    }
+
+    private void agregar(String palabra) {
+        String origen = INICIO;
+        for (int i = 0; i < palabra.length(); i++) {
+            String destino = palabra.substring(0, i + 1);
+            if (palabrasPorEstado.merge(destino, 1, Integer::sum) == 1) {
+                estados.add(destino);
+                transiciones.put(destino, new HashMap<>());
+                transiciones.get(origen).put(palabra.charAt(i), destino);
+            }
+            origen = destino;
+        }
+    }
+
+    private void quitar(String palabra) {
+        String origen = INICIO;
+        for (int i = 0; i < palabra.length(); i++) {
+            String destino = palabra.substring(0, i + 1);
+            if (palabrasPorEstado.merge(destino, -1, Integer::sum) == 0) {
+                // Ninguna otra palabra pasa por aquí: se poda el resto de la rama
+                transiciones.get(origen).remove(palabra.charAt(i));
+                for (int j = i + 1; j <= palabra.length(); j++) {
+                    String estado = palabra.substring(0, j);
+                    palabrasPorEstado.remove(estado);
+                    estados.remove(estado);
+                    transiciones.remove(estado);
+                }
+                return;
+            }
+            origen = destino;
+        }
+    }
+
+    /**
+     * Lee un archivo de vocabulario. Las palabras se pasan a mayúsculas; una palabra
+     * repetida, con caracteres que no son de identificador o con un tipo que no es
+     * de palabra clave es un error.
+     */
+    public static Map<String, TipoToken> leer(Path archivo) throws IOException {
+        Map<String, TipoToken> tipos = new LinkedHashMap<>();
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        for (int n = 0; n < lineas.size(); n++) {
+            String linea = lineas.get(n);
+            int comentario = linea.indexOf('#');
+            if (comentario >= 0) linea = linea.substring(0, comentario);
+            linea = linea.strip();
+            if (linea.isEmpty()) continue;
+
+            String[] partes = linea.split("\\s+");
+            if (partes.length > 2) throw error(archivo, n, "se esperaba PALABRA [TIPO]");
+            String palabra = partes[0].toUpperCase(Locale.ROOT);
+            if (!esPalabra(palabra)) throw error(archivo, n, "palabra inválida " + partes[0]);
+
+            TipoToken tipo = TipoToken.PALABRA_RESERVADA;
+            if (partes.length == 2) {
+                try {
+                    tipo = TipoToken.valueOf(partes[1]);
+                } catch (IllegalArgumentException e) {
+                    throw error(archivo, n, "tipo desconocido " + partes[1]);
+                }
+                if (!tipo.tiene(TipoToken.PALABRA_CLAVE)) {
+                    throw error(archivo, n, partes[1] + " no es un tipo de palabra clave");
+                }
+            }
+            if (tipos.put(palabra, tipo) != null) throw error(archivo, n, "palabra repetida " + palabra);
+        }
+        return Collections.unmodifiableMap(tipos);
+    }
+
+    // Las palabras reservadas tienen la forma de un identificador
+    private static boolean esPalabra(String palabra) {
+        if (!Character.isLetter(palabra.charAt(0))) return false;
+        for (int i = 1; i < palabra.length(); i++) {
+            char c = palabra.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') return false;
+        }
+        return true;
+    }
+
+    private static IOException error(Path archivo, int indiceLinea, String mensaje) {
+        return new IOException(archivo + ":" + (indiceLinea + 1) + ": " + mensaje);
+    }
+
+    /**
+     * Recarga el vocabulario cada vez que el archivo se modifica, en un hilo demonio.
+     * Los errores de una recarga se informan por System.err y no cambian el AFD vigente.
+     */
+    public synchronized void vigilar() throws IOException {
+        if (vigilancia != null) return;
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Path nombre = archivo.getFileName();
+        WatchService servicio = FileSystems.getDefault().newWatchService();
+        directorio.register(servicio, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        vigilancia = servicio;
+
+        Thread hilo = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey clave = servicio.take();
+                    boolean cambio = false;
+                    for (WatchEvent<?> evento : clave.pollEvents()) {
+                        cambio |= nombre.equals(evento.context());
+                    }
+                    clave.reset();
+                    if (cambio) recargarInformando();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // close() terminó la vigilancia
+            }
+        }, "dsl-vocabulario");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private void recargarInformando() {
+        try {
+            recargar();
+        } catch (IOException | RuntimeException | Error e) {
+            // Tampoco un Error (por ejemplo, falta de memoria) debe terminar el hilo de vigilancia
+            System.err.println("No se pudo recargar el vocabulario (" + archivo + "): " + e.getMessage()
+                    + ". Se conserva la versión anterior.");
+        }
+    }
+
+    // Detiene la vigilancia del archivo; el último AFD publicado sigue disponible
+    @Override
+    public void close() throws IOException {
+        WatchService servicio = vigilancia;
+        if (servicio != null) servicio.close();
+    }
+}
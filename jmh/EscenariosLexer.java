@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Casos de benchmarks.BenchmarkLexer. JMH no admite benchmarks en el paquete por
+ * defecto y desde otro paquete no se ven las clases del DSL, así que el trabajo
+ * medido vive aquí: preparar() arma el corpus y devuelve la operación de un caso,
+ * que entrega su resultado al Blackhole de JMH.
+ */
+public final class EscenariosLexer {
+
+    private EscenariosLexer() {
+    }
+
+    /**
+     * Arma solo lo que necesita el caso pedido: con el corpus de 100 MB, preparar los
+     * datos de todos los casos a la vez no cabe en el heap.
+     *
+     * @param caso nombre del método de benchmark
+     * @param forma nombre de una Forma de corpus
+     * @param kilobytes tamaño aproximado del corpus
+     */
+    public static Consumer<Blackhole> preparar(String caso, String forma, int kilobytes) {
+        String corpus = generarCorpus(Forma.valueOf(forma), kilobytes * 1024, 42);
+        AFD afd = DSLCore.obtenerAFD();
+        switch (caso) {
+            case "tokenizarLinea": {
+                String[] lineas = corpus.split("\n");
+                return bh -> {
+                    for (String linea : lineas) bh.consume(DSLCore.tokenizarLinea(linea));
+                };
+            }
+            case "tokenizador":
+                return bh -> bh.consume(DSLCore.tokenizador(corpus));
+            case "aceptar":
+            case "aceptarHash": {
+                AFD motor = caso.equals("aceptar") ? afd : DSLCore.crearAFD(AFD.Motor.HASH_PERFECTO);
+                Token[] tokens = DSLCore.tokenizador(corpus);
+                return bh -> bh.consume(motor.aceptar(tokens));
+            }
+            case "determinarTipoLexema": {
+                Token[] tokens = DSLCore.tokenizador(corpus);
+                String[] lexemas = new String[tokens.length];
+                for (int i = 0; i < tokens.length; i++) lexemas[i] = tokens[i].getLexema();
+                return bh -> {
+                    for (String lexema : lexemas) bh.consume(AFD.determinarTipoLexema(lexema));
+                };
+            }
+            case "bufferTokens":
+                return bh -> bh.consume(BufferTokens.analizar(corpus, afd));
+            case "bufferTokensConSimbolos":
+                return bh -> bh.consume(BufferTokens.analizar(corpus, afd, new TablaSimbolos()));
+            case "lexerUtf8": {
+                ByteBuffer utf8 = ByteBuffer.wrap(corpus.getBytes(StandardCharsets.UTF_8));
+                return bh -> bh.consume(LexerUtf8.analizar(utf8, afd));
+            }
+            case "lexerGenerado": {
+                LexerGenerado lexer = DSLCore.crearLexerGenerado();
+                return bh -> bh.consume(lexer.analizar(corpus));
+            }
+            case "analizadorSentencias":
+                return bh -> bh.consume(AnalizadorSentencias.analizar(corpus, afd));
+            case "cacheAcierto": {
+                // Caché caliente: todas las operaciones medidas son aciertos
+                CacheLexer cache = new CacheLexer(afd, 256L * 1024 * 1024);
+                cache.analizar(corpus);
+                return bh -> bh.consume(cache.analizar(corpus));
+            }
+            case "salidaTexto":
+                return salida(afd.aceptar(DSLCore.tokenizador(corpus)), canal -> new SalidaTexto(canal, true));
+            case "salidaCsv":
+                return salida(afd.aceptar(DSLCore.tokenizador(corpus)), canal -> new SalidaCsv(canal, true));
+            case "salidaJsonLineas":
+                return salida(afd.aceptar(DSLCore.tokenizador(corpus)), canal -> new SalidaJsonLineas(canal, true));
+            case "salidaBinaria":
+                return salida(afd.aceptar(DSLCore.tokenizador(corpus)), canal -> new SalidaBinaria(canal, true));
+            default:
+                throw new IllegalArgumentException("Caso de benchmark desconocido: " + caso);
+        }
+    }
+
+    private static Consumer<Blackhole> salida(Token[] clasificados, FabricaSalida fabrica) {
+        return bh -> bh.consume(escribir(fabrica, clasificados));
+    }
+
+    // Canal que descarta lo escrito, para medir solo el costo de formatear
+    private static final class CanalDescarte implements WritableByteChannel {
+        @Override
+        public int write(ByteBuffer origen) {
+            int n = origen.remaining();
+            origen.position(origen.limit());
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private interface FabricaSalida {
+        SalidaTokens crear(WritableByteChannel canal) throws IOException;
+    }
+
+    private static long escribir(FabricaSalida fabrica, Token[] tokens) {
+        try (SalidaTokens salida = fabrica.crear(new CanalDescarte())) {
+            salida.escribir(tokens);
+            return tokens.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // -------------------------------------------------------------------
+    // --- Corpus sintéticos ---
+    // -------------------------------------------------------------------
+
+    enum Forma {
+        PALABRAS_RESERVADAS,
+        IDENTIFICADORES,
+        ERRORES,
+        LINEAS_LARGAS,
+        LINEAS_CORTAS
+    }
+
+    private static final String[] OPERACIONES = {
+        "APILAR", "DESAPILAR", "ENCOLAR", "DESENCOLAR", "INSERTAR_EN_POSICION", "ELIMINAR_POSICION",
+        "INSERTARIZQUIERDA", "INSERTARDERECHA", "AGREGARARISTA", "BUSCAR", "ACTUALIZAR", "TOPE"
+    };
+    private static final String[] ESTRUCTURAS = {
+        "PILA", "PILA_CIRCULAR", "COLA", "BICOLAS", "LISTA_ENLAZADAS", "LISTA_DOBLE_ENLAZADA",
+        "ARBOL_BINARIO", "TABLAS_HASH", "GRAFOS"
+    };
+    private static final String[] ERRORES = {
+        "234Inválido", "$", "@", "\"sin_cierre", "INSERTAZ$", "PILA$X", "#", "12ab"
+    };
+
+    /**
+     * Genera un corpus determinista de aproximadamente el tamaño pedido (en caracteres).
+     */
+    static String generarCorpus(Forma forma, int tamano, long semilla) {
+        Random azar = new Random(semilla);
+        StringBuilder sb = new StringBuilder(tamano + 256);
+        while (sb.length() < tamano) {
+            switch (forma) {
+                case PALABRAS_RESERVADAS:
+                    sb.append(elegir(azar, OPERACIONES)).append(' ').append(azar.nextInt(1000))
+                      .append(" EN ").append(elegir(azar, ESTRUCTURAS)).append(";\n");
+                    break;
+                case IDENTIFICADORES:
+                    sb.append(identificador(azar)).append(" = ").append(identificador(azar))
+                      .append(" + ").append(identificador(azar)).append(";\n");
+                    break;
+                case ERRORES:
+                    sb.append(elegir(azar, ERRORES)).append(' ').append(elegir(azar, ERRORES))
+                      .append(' ').append(identificador(azar)).append('\n');
+                    break;
+                case LINEAS_LARGAS:
+                    for (int i = 0; i < 1000; i++) {
+                        sb.append(elegir(azar, OPERACIONES)).append(' ').append(identificador(azar)).append(' ');
+                    }
+                    sb.append('\n');
+                    break;
+                case LINEAS_CORTAS:
+                    sb.append(azar.nextBoolean() ? elegir(azar, ESTRUCTURAS) : ";").append('\n');
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String elegir(Random azar, String[] opciones) {
+        return opciones[azar.nextInt(opciones.length)];
+    }
+
+    private static String identificador(Random azar) {
+        int largo = 3 + azar.nextInt(10);
+        char[] letras = new char[largo];
+        for (int i = 0; i < largo; i++) {
+            letras[i] = i > 0 && azar.nextInt(5) == 0 ? (char) ('0' + azar.nextInt(10)) : (char) ('a' + azar.nextInt(26));
+        }
+        return new String(letras);
+    }
+
+}
@@ -0,0 +1,139 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks JMH de las rutas críticas del analizador léxico:
+ * DSLCore.tokenizarLinea, DSLCore.tokenizador, AFD.aceptar (con cada motor de
+ * palabras reservadas), AFD.determinarTipoLexema, los lexers alternativos, las
+ * salidas y la caché, sobre corpus sintéticos de distinta forma (muchas palabras
+ * reservadas, muchos identificadores, muchos errores, líneas largas, muchas líneas
+ * cortas) en tres tamaños, hasta 100 MB.
+ *
+ * JMH se encarga del fork, el calentamiento y el Blackhole; con el perfilador de GC
+ * (activado en build.gradle) reporta además gc.alloc.rate.norm, los bytes asignados
+ * por operación. Los MB/s de entrada son ops/s por el tamaño del corpus.
+ *
+ * El trabajo medido está en EscenariosLexer (paquete por defecto, como el DSL); se
+ * busca una vez por prueba, solo para el método que corre, y cada benchmark es una
+ * sola llamada que el JIT integra.
+ *
+ * Uso: gradle jmh [-Pjmh.incluir=aceptar] [-Pjmh.kilobytes=64,102400]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Xmx4g"})
+public class BenchmarkLexer {
+
+    @Param({"PALABRAS_RESERVADAS", "IDENTIFICADORES", "ERRORES", "LINEAS_LARGAS", "LINEAS_CORTAS"})
+    public String forma;
+
+    // Tamaño del corpus en KB: pequeño, mediano y 100 MB
+    @Param({"64", "8192", "102400"})
+    public int kilobytes;
+
+    // Operación del método que corre en esta prueba
+    private Consumer<Blackhole> caso;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void preparar(BenchmarkParams parametros) throws ReflectiveOperationException {
+        String benchmark = parametros.getBenchmark();
+        caso = (Consumer<Blackhole>) Class.forName("EscenariosLexer")
+                .getMethod("preparar", String.class, String.class, int.class)
+                .invoke(null, benchmark.substring(benchmark.lastIndexOf('.') + 1), forma, kilobytes);
+    }
+
+    @Benchmark
+    public void tokenizarLinea(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void tokenizador(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void aceptar(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void aceptarHash(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void determinarTipoLexema(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void bufferTokens(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void bufferTokensConSimbolos(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void lexerUtf8(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void lexerGenerado(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void analizadorSentencias(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void cacheAcierto(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void salidaTexto(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void salidaCsv(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void salidaJsonLineas(Blackhole bh) {
+        caso.accept(bh);
+    }
+
+    @Benchmark
+    public void salidaBinaria(Blackhole bh) {
+        caso.accept(bh);
+    }
+}
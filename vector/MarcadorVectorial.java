@@ -0,0 +1,52 @@
+import java.util.Arrays;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Marcador de límites con la Vector API: compara de 8 a 32 caracteres por paso
+ * (según el ancho de vector de la máquina) y convierte el resultado en bits de la
+ * máscara. Los límites del DSL caben en pocos rangos de códigos ASCII:
+ * espacios 9-13 y 32, ! 33, & 38, ( ) * + , - . / 40-47, ; < = > 59-62,
+ * [ 91, ] 93 y { | } 123-125.
+ *
+ * Requiere --add-modules jdk.incubator.vector al compilar y al ejecutar; lo carga
+ * EscanerLimites solo si el módulo está presente.
+ */
+final class MarcadorVectorial implements EscanerLimites.Marcador {
+    private static final VectorSpecies<Short> ESPECIE = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public void marcar(char[] bloque, int largo, long[] mascara) {
+        Arrays.fill(mascara, 0, (largo + 63) >>> 6, 0L);
+        int carriles = ESPECIE.length();
+
+        // Los carriles dividen a 64, así que un paso nunca cruza dos palabras de la máscara
+        int i = 0;
+        for (; i <= largo - carriles; i += carriles) {
+            ShortVector v = ShortVector.fromCharArray(ESPECIE, bloque, i);
+            VectorMask<Short> limites = enRango(v, 9, 13)
+                    .or(v.compare(VectorOperators.EQ, (short) ' '))
+                    .or(v.compare(VectorOperators.EQ, (short) '!'))
+                    .or(v.compare(VectorOperators.EQ, (short) '&'))
+                    .or(enRango(v, '(', '/'))
+                    .or(enRango(v, ';', '>'))
+                    .or(v.compare(VectorOperators.EQ, (short) '['))
+                    .or(v.compare(VectorOperators.EQ, (short) ']'))
+                    .or(enRango(v, '{', '}'));
+            mascara[i >>> 6] |= limites.toLong() << (i & 63);
+        }
+
+        // Resto del bloque
+        for (; i < largo; i++) {
+            if (PreTokenizador.esLimite(bloque[i])) mascara[i >>> 6] |= 1L << i;
+        }
+    }
+
+    // Los caracteres >= 0x8000 son negativos como short y quedan fuera de todo rango
+    private static VectorMask<Short> enRango(ShortVector v, int desde, int hasta) {
+        return v.compare(VectorOperators.GE, (short) desde).and(v.compare(VectorOperators.LE, (short) hasta));
+    }
+}